@@ -0,0 +1,64 @@
+package com.encora.todolist_app.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// compares two JMH JSON result files benchmark by benchmark and exits with 1 when one got slower than the threshold,
+// by more than the error of both runs; throughput is better when higher, every other mode when lower
+public class BenchmarkComparison {
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("usage: BenchmarkComparison <baseline.json> <candidate.json> [threshold percent, default 10]");
+            System.exit(2);
+        }
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10;
+        Map<String, JsonNode> baseline = results(new File(args[0]));
+        Map<String, JsonNode> candidate = results(new File(args[1]));
+        int regressions = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Candidate", "Change");
+        for (Map.Entry<String, JsonNode> entry : candidate.entrySet()) {
+            JsonNode before = baseline.get(entry.getKey());
+            JsonNode after = entry.getValue();
+            String unit = after.path("primaryMetric").path("scoreUnit").asText();
+            double afterScore = after.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  new (%s)%n", entry.getKey(), "-", afterScore, "", unit);
+                continue;
+            }
+            double beforeScore = before.path("primaryMetric").path("score").asDouble();
+            double error = finite(before.path("primaryMetric").path("scoreError").asDouble()) + finite(after.path("primaryMetric").path("scoreError").asDouble());
+            boolean higherIsBetter = "thrpt".equals(after.path("mode").asText());
+            double change = (afterScore - beforeScore) / beforeScore * 100;
+            double worse = higherIsBetter ? -change : change;
+            boolean regressed = worse > threshold && Math.abs(afterScore - beforeScore) > error;
+            if (regressed) {
+                regressions++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), beforeScore, afterScore, change, unit, regressed ? "  REGRESSION" : "");
+        }
+        System.out.println(regressions + " regression(s) over " + threshold + "%");
+        System.exit(regressions > 0 ? 1 : 0);
+    }
+
+    // keyed by benchmark, mode and parameters, so only runs of the same configuration are compared
+    private static Map<String, JsonNode> results(File file) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : new ObjectMapper().readTree(file)) {
+            StringBuilder key = new StringBuilder(result.path("benchmark").asText().replace("com.encora.todolist_app.benchmark.", ""));
+            key.append(" ").append(result.path("mode").asText());
+            result.path("params").fields().forEachRemaining(param -> key.append(" ").append(param.getKey()).append("=").append(param.getValue().asText()));
+            results.put(key.toString(), result);
+        }
+        return results;
+    }
+
+    private static double finite(double error) {
+        return Double.isNaN(error) ? 0 : error;
+    }
+}
@@ -0,0 +1,35 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// the same tasks for every benchmark given the same seed: one in four done, one in eight without a due date
+// and one in ten without a priority, the cases the comparators and indexes treat apart
+final class BenchmarkTasks {
+
+    private static final String[] WORDS = {"review", "deploy", "invoice", "meeting", "report", "backup", "release", "design"};
+    private static final LocalDateTime START = LocalDateTime.of(2025, 1, 1, 0, 0);
+
+    private BenchmarkTasks() {
+    }
+
+    static List<Task> generate(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        List<Task> tasks = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String text = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + i;
+            LocalDateTime dueDate = random.nextInt(8) == 0 ? null : START.plusHours(random.nextInt(24 * 365));
+            Priority priority = random.nextInt(10) == 0 ? null : Priority.values()[random.nextInt(3)];
+            boolean done = random.nextInt(4) == 0;
+            Duration timeFrame = done ? Duration.ofMinutes(1 + random.nextInt(60 * 24 * 7)) : null;
+            tasks.add(new Task(null, text, null, dueDate, null, timeFrame, priority, done));
+        }
+        return tasks;
+    }
+}
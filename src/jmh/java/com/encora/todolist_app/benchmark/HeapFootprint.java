@@ -0,0 +1,72 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.ColumnarTaskRepository;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.OffHeapTaskRepository;
+import com.encora.todolist_app.repository.TaskRepository;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.ref.Reference;
+import java.util.List;
+import java.util.function.Supplier;
+
+// heap kept by each repository once it holds the same generated tasks, measured as the used heap after full
+// collections with and without it, and the direct memory it allocated outside the heap; the generated tasks are
+// dropped before measuring
+public class HeapFootprint {
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 1_000_000;
+        System.out.printf("%-10s %12s %12s %14s%n", "Repository", "Heap MB", "Direct MB", "Bytes per task");
+        report("memory", count, InMemoryTaskRepository::new);
+        report("columnar", count, ColumnarTaskRepository::new);
+        report("offheap", count, OffHeapTaskRepository::new);
+    }
+
+    private static void report(String name, int count, Supplier<TaskRepository> factory) {
+        long before = usedHeapAfterGc();
+        long directBefore = usedDirectMemory();
+        TaskRepository repository = factory.get();
+        List<Task> tasks = BenchmarkTasks.generate(count, 42);
+        for (int from = 0; from < count; from += 10_000) {
+            repository.saveAll(tasks.subList(from, Math.min(from + 10_000, count)));
+        }
+        tasks = null;
+        long retained = usedHeapAfterGc() - before;
+        long direct = usedDirectMemory() - directBefore;
+        Reference.reachabilityFence(repository);
+        System.out.printf("%-10s %12.1f %12.1f %14.1f%n", name, retained / (1024.0 * 1024.0), direct / (1024.0 * 1024.0),
+                (double) (retained + direct) / count);
+    }
+
+    // replaced direct buffers are freed by a cleaner thread some time after the collection that found them
+    private static long usedDirectMemory() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+                .filter(pool -> pool.getName().equals("direct"))
+                .mapToLong(BufferPoolMXBean::getMemoryUsed)
+                .sum();
+    }
+
+    private static long usedHeapAfterGc() {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long used = Long.MAX_VALUE;
+        // collections can leave garbage behind that the next one frees, stop once a collection frees nothing more
+        for (int i = 0; i < 10; i++) {
+            System.gc();
+            long current = memory.getHeapMemoryUsage().getUsed();
+            if (current >= used) {
+                break;
+            }
+            used = current;
+        }
+        return used;
+    }
+}
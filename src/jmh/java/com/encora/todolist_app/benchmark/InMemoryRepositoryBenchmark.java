@@ -0,0 +1,75 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class InMemoryRepositoryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tasks;
+
+    // every task, the done ones (about 1 in 4) and the done ones of high priority (about 1 in 13)
+    @Param({"all", "done", "doneHigh"})
+    private String filter;
+
+    private InMemoryTaskRepository repository;
+    private SplittableRandom random;
+    private Boolean state;
+    private String priority;
+    private final Pageable firstPage = PageRequest.of(0, 20);
+    private int lastSavedId;
+    private int deletedUpTo;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryTaskRepository();
+        repository.saveAll(BenchmarkTasks.generate(tasks, 42));
+        random = new SplittableRandom(7);
+        state = "all".equals(filter) ? null : true;
+        priority = "doneHigh".equals(filter) ? Priority.HIGH.name() : null;
+        lastSavedId = tasks - 1;
+        deletedUpTo = tasks - 1;
+    }
+
+    // the tasks saved during an iteration are removed again, so every iteration starts from the same size
+    @TearDown(Level.Iteration)
+    public void deleteSavedTasks() {
+        for (int id = deletedUpTo + 1; id <= lastSavedId; id++) {
+            repository.deleteById(id);
+        }
+        deletedUpTo = lastSavedId;
+    }
+
+    @Benchmark
+    public Task save() {
+        Task saved = repository.save(new Task(null, "Saved task", null, null, null, null, Priority.MEDIUM, false));
+        lastSavedId = saved.getId();
+        return saved;
+    }
+
+    @Benchmark
+    public Optional<Task> findById() {
+        return repository.findById(random.nextInt(tasks));
+    }
+
+    // unsorted, so every matching task is collected before the page is cut
+    @Benchmark
+    public Page<Task> findAllByStateAndPriorityAndText() {
+        return repository.findAllByStateAndPriorityAndText(state, priority, null, firstPage);
+    }
+}
@@ -0,0 +1,133 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.controller.TaskController;
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.MeteredTaskRepository;
+import com.encora.todolist_app.repository.TaskRepository;
+import com.encora.todolist_app.repository.journal.TaskJournal;
+import com.encora.todolist_app.service.TaskEventFeed;
+import com.encora.todolist_app.service.TaskQueryCache;
+import com.encora.todolist_app.service.TaskService;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import io.micrometer.core.instrument.distribution.DistributionStatisticConfig;
+import io.micrometer.core.instrument.observation.DefaultMeterObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import io.micrometer.prometheusmetrics.PrometheusConfig;
+import io.micrometer.prometheusmetrics.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.web.PageableHandlerMethodArgumentResolver;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.test.web.servlet.setup.StandaloneMockMvcBuilder;
+import org.springframework.web.filter.ServerHttpObservationFilter;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// the same calls with and without the meters the application registers, the difference is the overhead: per repository
+// operation, and per request through the controller with the http.server.requests observation Spring Boot adds
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class MetricsOverheadBenchmark {
+
+    private static final int TASKS = 100_000;
+
+    @Param({"false", "true"})
+    private boolean metered;
+
+    private TaskRepository repository;
+    private MockMvc mockMvc;
+    private SplittableRandom random;
+    private final Pageable firstPageByUrgency = PageRequest.of(0, 20, Sort.by("urgency"));
+    // sorted by two properties, so the page comes from a full filter and sort
+    private final Pageable firstPageByPriorityAndDueDate = PageRequest.of(0, 20, Sort.by("priority", "dueDate"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        PrometheusMeterRegistry meterRegistry = new PrometheusMeterRegistry(PrometheusConfig.DEFAULT);
+        // as set for http.server.requests in application.properties
+        meterRegistry.config().meterFilter(new MeterFilter() {
+            @Override
+            public DistributionStatisticConfig configure(Meter.Id id, DistributionStatisticConfig config) {
+                return id.getName().equals("http.server.requests")
+                        ? DistributionStatisticConfig.builder().percentilesHistogram(true).build().merge(config)
+                        : config;
+            }
+        });
+        repository = metered
+                ? new MeteredTaskRepository(new InMemoryTaskRepository(TaskJournal.NONE, meterRegistry), meterRegistry, false)
+                : new InMemoryTaskRepository();
+        random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < TASKS; i++) {
+            repository.save(new Task(null, "Task " + i, null, now.plusHours(random.nextInt(1000)), null, null,
+                    Priority.values()[random.nextInt(3)], random.nextInt(4) == 0));
+        }
+
+        // no query cache, every list request reaches the repository
+        TaskService taskService = new TaskService(repository, new TaskEventFeed(), new TaskQueryCache(0));
+        StandaloneMockMvcBuilder builder = MockMvcBuilders
+                .standaloneSetup(new TaskController(taskService, Jackson2ObjectMapperBuilder.json().build()))
+                .setCustomArgumentResolvers(new PageableHandlerMethodArgumentResolver());
+        if (metered) {
+            ObservationRegistry observationRegistry = ObservationRegistry.create();
+            observationRegistry.observationConfig().observationHandler(new DefaultMeterObservationHandler(meterRegistry));
+            builder.addFilters(new ServerHttpObservationFilter(observationRegistry));
+        }
+        mockMvc = builder.build();
+    }
+
+    @Benchmark
+    public Optional<Task> findById() {
+        return repository.findById(random.nextInt(TASKS));
+    }
+
+    @Benchmark
+    public Page<Task> indexedPage() {
+        return repository.findAllByStateAndPriorityAndText(false, null, null, firstPageByUrgency);
+    }
+
+    @Benchmark
+    public Page<Task> filteredAndSortedPage() {
+        return repository.findAllByStateAndPriorityAndText(false, "HIGH", null, firstPageByPriorityAndDueDate);
+    }
+
+    @Benchmark
+    public boolean compareAndReplace() {
+        int id = random.nextInt(TASKS);
+        Task current = repository.findById(id).orElseThrow();
+        return repository.replaceTask(id, current, new Task(current));
+    }
+
+    // the servlet stack takes much longer than a repository call to reach steady state
+    @Benchmark
+    @Warmup(iterations = 20, time = 3)
+    @Measurement(iterations = 15, time = 2)
+    public int listRequest() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.get("/todos").param("state", "false").param("sort", "urgency").param("size", "20"))
+                .andReturn().getResponse().getStatus();
+    }
+
+    @Benchmark
+    @Warmup(iterations = 20, time = 3)
+    @Measurement(iterations = 15, time = 2)
+    public int doneRequest() throws Exception {
+        return mockMvc.perform(MockMvcRequestBuilders.patch("/todos/{id}/done", random.nextInt(TASKS)))
+                .andReturn().getResponse().getStatus();
+    }
+}
@@ -0,0 +1,51 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.journal.TaskJournal;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+// a loosely filtered, sorted query that takes the filter and sort path, run on the request thread (parallelism 1)
+// and on query pools of growing size with the threshold at 0; where parallel overtakes sequential for a given number
+// of tasks is where todolist.repository.parallel.threshold belongs on that machine, e.g. -p parallelism=1,8,16
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class ParallelQueryBenchmark {
+
+    @Param({"10000", "100000", "1000000"})
+    private int tasks;
+
+    @Param({"1", "2", "4"})
+    private int parallelism;
+
+    private InMemoryTaskRepository repository;
+    // a one letter text cannot narrow through the trigram index, nearly every task is checked and most match
+    private final Pageable firstPage = PageRequest.of(0, 20, Sort.by("urgency"));
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryTaskRepository(TaskJournal.NONE, new CompositeMeterRegistry(), parallelism, 0);
+        repository.saveAll(BenchmarkTasks.generate(tasks, 42));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        repository.close();
+    }
+
+    @Benchmark
+    public Page<Task> findAllByStateAndPriorityAndText() {
+        return repository.findAllByStateAndPriorityAndText(null, null, "e", firstPage);
+    }
+}
@@ -0,0 +1,69 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.util.concurrent.TimeUnit;
+
+// pending tasks sorted by each property the repository sorts by: a single order walks that property's sorted index,
+// a second order makes the repository filter and pick the page with the comparator getTaskComparator builds
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class SortedPagingBenchmark {
+
+    private static final int TASKS = 100_000;
+    private static final int PAGE_SIZE = 20;
+    private static final int DEEP_PAGE = 200;
+
+    @Param({"id", "priority", "dueDate", "urgency"})
+    private String property;
+
+    @Param({"ASC", "DESC"})
+    private Sort.Direction direction;
+
+    private InMemoryTaskRepository repository;
+    private Pageable firstPage;
+    private Pageable deepPage;
+    private Pageable firstPageByComparator;
+    private Pageable deepPageByComparator;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryTaskRepository();
+        repository.saveAll(BenchmarkTasks.generate(TASKS, 42));
+        Sort sort = Sort.by(direction, property);
+        firstPage = PageRequest.of(0, PAGE_SIZE, sort);
+        deepPage = PageRequest.of(DEEP_PAGE, PAGE_SIZE, sort);
+        firstPageByComparator = PageRequest.of(0, PAGE_SIZE, sort.and(Sort.by(Sort.Direction.DESC, "id")));
+        deepPageByComparator = PageRequest.of(DEEP_PAGE, PAGE_SIZE, sort.and(Sort.by(Sort.Direction.DESC, "id")));
+    }
+
+    @Benchmark
+    public Page<Task> indexedFirstPage() {
+        return repository.findAllByStateAndPriorityAndText(false, null, null, firstPage);
+    }
+
+    @Benchmark
+    public Page<Task> indexedDeepPage() {
+        return repository.findAllByStateAndPriorityAndText(false, null, null, deepPage);
+    }
+
+    @Benchmark
+    public Page<Task> comparatorFirstPage() {
+        return repository.findAllByStateAndPriorityAndText(false, null, null, firstPageByComparator);
+    }
+
+    @Benchmark
+    public Page<Task> comparatorDeepPage() {
+        return repository.findAllByStateAndPriorityAndText(false, null, null, deepPageByComparator);
+    }
+}
@@ -0,0 +1,77 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.service.TaskEventFeed;
+import com.encora.todolist_app.service.TaskQueryCache;
+import com.encora.todolist_app.service.TaskService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class TaskServiceBenchmark {
+
+    @Param({"10000", "100000"})
+    private int tasks;
+
+    private InMemoryTaskRepository repository;
+    private TaskService taskService;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryTaskRepository();
+        repository.saveAll(BenchmarkTasks.generate(tasks, 42));
+        taskService = new TaskService(repository, new TaskEventFeed(), new TaskQueryCache(0));
+    }
+
+    @Benchmark
+    public Map<String, Duration> avgTimesAllTask() {
+        return taskService.avgTimesAllTask();
+    }
+
+    @Benchmark
+    public Map<String, CompletionTimeStatsDTO> completionTimeStats() {
+        return taskService.completionTimeStats();
+    }
+
+    // the scan over every task avgTimesAllTask did before the statistics were kept up to date on each change
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Map<String, Duration> averagesByScan() {
+        List<Task> allTasks = repository.getAllTask();
+        Duration total = Duration.ZERO;
+        int count = 0;
+        Map<Priority, Duration> totals = new EnumMap<>(Priority.class);
+        Map<Priority, Integer> counts = new EnumMap<>(Priority.class);
+        for (Task task : allTasks) {
+            if (task.isState() && task.getTimeFrame() != null) {
+                total = total.plus(task.getTimeFrame());
+                count++;
+                if (task.getPriority() != null) {
+                    totals.merge(task.getPriority(), task.getTimeFrame(), Duration::plus);
+                    counts.merge(task.getPriority(), 1, Integer::sum);
+                }
+            }
+        }
+        Map<String, Duration> averages = new HashMap<>();
+        averages.put("AvgTotalTime", count == 0 ? Duration.ZERO : total.dividedBy(count));
+        for (Priority priority : Priority.values()) {
+            Integer amount = counts.get(priority);
+            averages.put(priority.name(), amount == null ? Duration.ZERO : totals.get(priority).dividedBy(amount));
+        }
+        return averages;
+    }
+}
@@ -0,0 +1,69 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.ColumnarTaskRepository;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.OffHeapTaskRepository;
+import com.encora.todolist_app.repository.TaskRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// the same reads and rewrites against the three in-memory stores holding a million tasks; run with -prof gc to
+// compare how often the collector runs and for how long while each store is busy
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class TaskStoreGcBenchmark {
+
+    private static final int TASKS = 1_000_000;
+
+    @Param({"memory", "columnar", "offheap"})
+    private String store;
+
+    private TaskRepository repository;
+    private SplittableRandom random;
+    private final Pageable firstPage = PageRequest.of(0, 20);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = switch (store) {
+            case "memory" -> new InMemoryTaskRepository();
+            case "columnar" -> new ColumnarTaskRepository();
+            default -> new OffHeapTaskRepository();
+        };
+        List<Task> tasks = BenchmarkTasks.generate(TASKS, 42);
+        for (int from = 0; from < TASKS; from += 10_000) {
+            repository.saveAll(tasks.subList(from, Math.min(from + 10_000, TASKS)));
+        }
+        random = new SplittableRandom(7);
+    }
+
+    @Benchmark
+    public Optional<Task> findById() {
+        return repository.findById(random.nextInt(TASKS));
+    }
+
+    // the done tasks of high priority, about 1 in 13, unsorted so every task is visited
+    @Benchmark
+    public Page<Task> findAllByStateAndPriorityAndText() {
+        return repository.findAllByStateAndPriorityAndText(true, Priority.HIGH.name(), null, firstPage);
+    }
+
+    // a new text every time, so the stores keep turning over memory the way edits do
+    @Benchmark
+    public Task replaceTask() {
+        int id = random.nextInt(TASKS);
+        return repository.replaceTask(id, new Task(id, "Replaced task " + random.nextInt(), null, null, null, null, Priority.LOW, false));
+    }
+}
@@ -0,0 +1,68 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class TextSearchBenchmark {
+
+    private static final String[] WORDS = {
+            "review", "deploy", "invoice", "meeting", "report", "backup", "release", "design",
+            "budget", "client", "refactor", "migrate", "schedule", "publish", "audit", "onboard"
+    };
+
+    @Param({"10000", "100000", "1000000"})
+    private int tasks;
+
+    // "common" matches roughly one task in eight, "rare" a handful of task numbers
+    @Param({"common", "rare"})
+    private String selectivity;
+
+    private InMemoryTaskRepository repository;
+    private List<Task> snapshot;
+    private String query;
+    private final Pageable pageable = PageRequest.of(0, 10);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        repository = new InMemoryTaskRepository();
+        SplittableRandom random = new SplittableRandom(42);
+        for (int i = 0; i < tasks; i++) {
+            String text = WORDS[random.nextInt(WORDS.length)] + " " + WORDS[random.nextInt(WORDS.length)] + " #" + i;
+            repository.save(new Task(null, text, null, null, null, null, Priority.values()[random.nextInt(3)], random.nextBoolean()));
+        }
+        snapshot = repository.getAllTask();
+        query = "common".equals(selectivity) ? "Invoice" : "#" + (tasks / 2);
+    }
+
+    @Benchmark
+    public Page<Task> trigramIndex() {
+        return repository.findAllByStateAndPriorityAndText(null, null, query, pageable);
+    }
+
+    // the filter findAllByStateAndPriorityAndText used before the index existed
+    @Benchmark
+    public Page<Task> linearScan() {
+        List<Task> filtered = snapshot.stream()
+                .filter(task -> task.getText() != null && task.getText().toLowerCase().contains(query.toLowerCase()))
+                .collect(Collectors.toList());
+        int end = Math.min(pageable.getPageSize(), filtered.size());
+        return new PageImpl<>(filtered.subList(0, end), pageable, filtered.size());
+    }
+}
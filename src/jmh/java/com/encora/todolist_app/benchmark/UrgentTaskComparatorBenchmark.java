@@ -0,0 +1,58 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.utils.comparators.UrgentTaskComparator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class UrgentTaskComparatorBenchmark {
+
+    @Param({"1000", "100000"})
+    private int tasks;
+
+    private final UrgentTaskComparator comparator = new UrgentTaskComparator();
+    private Task[] shuffled;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Task> generated = BenchmarkTasks.generate(tasks, 42);
+        Collections.shuffle(generated, new Random(7));
+        shuffled = generated.toArray(new Task[0]);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int compare() {
+        int i = next;
+        next = i + 1 == shuffled.length ? 0 : i + 1;
+        return comparator.compare(shuffled[i], shuffled[next]);
+    }
+
+    // includes copying the shuffled tasks, which copyOnly measures on its own
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> sort() {
+        List<Task> copy = new ArrayList<>(List.of(shuffled));
+        copy.sort(comparator);
+        return copy;
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public List<Task> copyOnly() {
+        return new ArrayList<>(List.of(shuffled));
+    }
+}
@@ -0,0 +1,66 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.journal.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// every benchmark thread is a client with one request in flight, served by a pool sized like Tomcat's default
+// or by a virtual thread per request; each request blocks until its save is fsynced by the write-ahead log.
+// throughput is requests per millisecond, sample time reports the latency percentiles including p99
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Threads(400)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xms1g", "-Xmx1g"})
+public class VirtualThreadBenchmark {
+
+    // server.tomcat.threads.max
+    private static final int PLATFORM_THREADS = 200;
+
+    @Param({"platform", "virtual"})
+    private String threads;
+
+    private Path directory;
+    private WriteAheadLog journal;
+    private InMemoryTaskRepository repository;
+    private ExecutorService executor;
+
+    @Setup(Level.Trial)
+    public void startServer() throws IOException {
+        directory = Files.createTempDirectory("wal-threads");
+        journal = new WriteAheadLog(directory, Duration.ofMillis(2), 1024, true, true);
+        repository = new InMemoryTaskRepository(journal);
+        executor = threads.equals("virtual") ? Executors.newVirtualThreadPerTaskExecutor() : Executors.newFixedThreadPool(PLATFORM_THREADS);
+    }
+
+    @TearDown(Level.Trial)
+    public void stopServer() throws IOException {
+        executor.close();
+        journal.close();
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+
+    @Benchmark
+    public Task saveTask() throws InterruptedException, ExecutionException {
+        return executor.submit(() -> repository.save(new Task(null, "Blocking save", null, null, null, null, Priority.MEDIUM, false))).get();
+    }
+}
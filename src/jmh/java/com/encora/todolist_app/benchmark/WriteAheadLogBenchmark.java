@@ -0,0 +1,123 @@
+package com.encora.todolist_app.benchmark;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.journal.WriteAheadLog;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// each invocation is one million mutations (or the replay of them), so the score is the time per million operations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+public class WriteAheadLogBenchmark {
+
+    private static final int OPERATIONS = 1_000_000;
+    private static final int LIVE_TASKS = 100_000;
+
+    @Param({"false", "true"})
+    private boolean fsync;
+
+    private Path appendDirectory;
+    private Path recoveryDirectory;
+    private Path snapshotDirectory;
+
+    @Setup(Level.Trial)
+    public void writeRecoveryLog() throws IOException {
+        recoveryDirectory = Files.createTempDirectory("wal-recovery");
+        try (WriteAheadLog journal = new WriteAheadLog(recoveryDirectory, Duration.ofMillis(10), 1024, fsync, false)) {
+            applyOperations(new InMemoryTaskRepository(journal));
+        }
+        // the same history compacted into a snapshot of the live tasks
+        snapshotDirectory = Files.createTempDirectory("wal-snapshot");
+        try (WriteAheadLog journal = new WriteAheadLog(snapshotDirectory, Duration.ofMillis(10), 1024, fsync, false)) {
+            InMemoryTaskRepository repository = new InMemoryTaskRepository(journal);
+            applyOperations(repository);
+            repository.checkpoint();
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void newAppendDirectory() throws IOException {
+        appendDirectory = Files.createTempDirectory("wal-append");
+    }
+
+    @TearDown(Level.Invocation)
+    public void deleteAppendDirectory() throws IOException {
+        delete(appendDirectory);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteRecoveryDirectory() throws IOException {
+        delete(recoveryDirectory);
+        delete(snapshotDirectory);
+    }
+
+    @Benchmark
+    public int inMemory() {
+        return applyOperations(new InMemoryTaskRepository());
+    }
+
+    @Benchmark
+    public int writeAheadLog() throws IOException {
+        try (WriteAheadLog journal = new WriteAheadLog(appendDirectory, Duration.ofMillis(10), 1024, fsync, false)) {
+            return applyOperations(new InMemoryTaskRepository(journal));
+        }
+    }
+
+    @Benchmark
+    public int recover() throws IOException {
+        try (WriteAheadLog journal = new WriteAheadLog(recoveryDirectory, Duration.ofMillis(10), 1024, fsync, false)) {
+            return new InMemoryTaskRepository(journal).getAllTask().size();
+        }
+    }
+
+    @Benchmark
+    public int recoverFromSnapshot() throws IOException {
+        try (WriteAheadLog journal = new WriteAheadLog(snapshotDirectory, Duration.ofMillis(10), 1024, fsync, false)) {
+            return new InMemoryTaskRepository(journal).getAllTask().size();
+        }
+    }
+
+    // saves until LIVE_TASKS exist, then a mix of replacements, deletes and saves
+    private static int applyOperations(InMemoryTaskRepository repository) {
+        SplittableRandom random = new SplittableRandom(42);
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+        int saved = 0;
+        for (int i = 0; i < OPERATIONS; i++) {
+            int operation = saved < LIVE_TASKS ? 0 : random.nextInt(4);
+            if (operation == 0) {
+                repository.save(new Task(null, "Task number " + i, null, now.plusMinutes(i), null, null, Priority.values()[i % 3], false));
+                saved++;
+            } else if (operation == 3) {
+                repository.deleteById(random.nextInt(saved));
+            } else {
+                int id = random.nextInt(saved);
+                Task task = new Task(id, "Task number " + i, null, now.plusMinutes(i), now, Duration.ofMinutes(i % 600), Priority.values()[i % 3], operation == 1);
+                repository.replaceTask(id, task);
+            }
+        }
+        return repository.getAllTask().size();
+    }
+
+    private static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList()) {
+                Files.delete(path);
+            }
+        }
+    }
+}
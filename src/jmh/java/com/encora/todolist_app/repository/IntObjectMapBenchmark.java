@@ -0,0 +1,61 @@
+package com.encora.todolist_app.repository;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// the id index of InMemoryTaskRepository against the maps it replaced, holding a million consecutive ids the way the
+// repository assigns them; in this package because the map is package-private. Run with -prof gc for the allocations
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class IntObjectMapBenchmark {
+
+    private static final int IDS = 1_000_000;
+
+    @Param({"intObjectMap", "concurrentHashMap", "hashMap"})
+    private String map;
+
+    private IntObjectMap<String> intObjectMap;
+    private Map<Integer, String> boxedMap;
+    private SplittableRandom random;
+    private int nextId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        intObjectMap = new IntObjectMap<>();
+        boxedMap = "hashMap".equals(map) ? new HashMap<>() : new ConcurrentHashMap<>();
+        for (int id = 0; id < IDS; id++) {
+            String value = "task " + id;
+            intObjectMap.put(id, value);
+            boxedMap.put(id, value);
+        }
+        random = new SplittableRandom(7);
+        nextId = IDS;
+    }
+
+    @Benchmark
+    public String get() {
+        int id = random.nextInt(IDS);
+        return "intObjectMap".equals(map) ? intObjectMap.get(id) : boxedMap.get(id);
+    }
+
+    // an id beyond the cached Integer range is added and the oldest one removed, keeping the size constant
+    @Benchmark
+    public String putAndRemove() {
+        int id = nextId++;
+        if ("intObjectMap".equals(map)) {
+            intObjectMap.put(id, "new task");
+            return intObjectMap.remove(id - IDS);
+        }
+        boxedMap.put(id, "new task");
+        return boxedMap.remove(id - IDS);
+    }
+}
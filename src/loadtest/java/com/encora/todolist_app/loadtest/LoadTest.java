@@ -0,0 +1,340 @@
+package com.encora.todolist_app.loadtest;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.utils.histograms.DurationHistogram;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+// replays a weighted mix of requests against a running application at a fixed arrival rate and checks the
+// latencies and error rates against the configured SLOs; exits with 1 when an SLO is breached
+public class LoadTest {
+
+    private static final String NDJSON = "application/x-ndjson";
+    private static final int SEED_BATCH_SIZE = 10_000;
+    private static final String[] WORDS = {"report", "invoice", "deploy", "review", "meeting", "backup", "refactor", "email"};
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final double[] REPORTED_PERCENTILES = {50, 90, 99, 99.9, 100};
+    private static final String[] REPORTED_NAMES = {"p50", "p90", "p99", "p99.9", "max"};
+
+    private final LoadTestConfig config;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper = JsonMapper.builder()
+            .findAndAddModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .build();
+    private final SplittableRandom random;
+    private final int totalWeight;
+    // the texts of this run's tasks start with the marker, which tells them apart from tasks that were already there
+    private final String marker = "loadtest-" + Long.toString(System.currentTimeMillis(), 36);
+    private final Map<String, Endpoint> endpoints = new LinkedHashMap<>();
+    private final Endpoint all = new Endpoint();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder skipped = new LongAdder();
+    // done marks seeded tasks of the first half, delete takes created tasks first and then the second half
+    private int[] doneIds = new int[0];
+    private final ConcurrentLinkedDeque<Integer> deletableIds = new ConcurrentLinkedDeque<>();
+    private final ConcurrentLinkedDeque<Integer> createdIds = new ConcurrentLinkedDeque<>();
+    private volatile long measureFrom;
+
+    private static class Endpoint {
+        private final DurationHistogram latencies = new DurationHistogram();
+        private final LongAdder errors = new LongAdder();
+
+        long requests() {
+            return latencies.getCount() + errors.sum();
+        }
+
+        double errorRate() {
+            long requests = requests();
+            return requests == 0 ? 0 : errors.sum() * 100.0 / requests;
+        }
+
+        double percentileMillis(double percentile) {
+            return latencies.getValueAtPercentile(percentile).toNanos() / 1e6;
+        }
+    }
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.random = new SplittableRandom(config.getRandomSeed());
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(config.getTimeout())
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.totalWeight = config.getMix().values().stream().mapToInt(Integer::intValue).sum();
+        config.getMix().keySet().forEach(operation -> endpoints.put(operation, new Endpoint()));
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.load(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.exit(2);
+            return;
+        }
+        LoadTest loadTest = new LoadTest(config);
+        try {
+            loadTest.seed();
+        } catch (ConnectException e) {
+            System.err.println("No application is listening on " + config.getBaseUrl());
+            System.exit(2);
+        }
+        loadTest.run();
+        System.exit(loadTest.report() ? 0 : 1);
+    }
+
+    // tasks are streamed to /todos/bulk in batches instead of one POST each, then their ids are read back from the export
+    void seed() throws IOException, InterruptedException {
+        if (config.getSeedTasks() == 0) {
+            return;
+        }
+        long started = System.nanoTime();
+        long imported = 0;
+        for (int from = 0; from < config.getSeedTasks(); from += SEED_BATCH_SIZE) {
+            StringBuilder body = new StringBuilder();
+            for (int n = from; n < Math.min(from + SEED_BATCH_SIZE, config.getSeedTasks()); n++) {
+                body.append(objectMapper.writeValueAsString(newTask(n))).append('\n');
+            }
+            HttpResponse<String> response = client.send(HttpRequest.newBuilder(uri("/todos/bulk"))
+                    .header("Content-Type", NDJSON)
+                    .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 201) {
+                throw new IOException("Seeding failed with " + response.statusCode() + ": " + response.body());
+            }
+            imported += objectMapper.readTree(response.body()).path("imported").asLong();
+        }
+        List<Integer> ids = new ArrayList<>();
+        HttpResponse<Stream<String>> export = client.send(HttpRequest.newBuilder(uri("/todos/export"))
+                .header("Accept", NDJSON)
+                .build(), HttpResponse.BodyHandlers.ofLines());
+        try (Stream<String> lines = export.body()) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (!line.isBlank()) {
+                    JsonNode task = objectMapper.readTree(line);
+                    if (task.path("text").asText().startsWith(marker)) {
+                        ids.add(task.path("id").asInt());
+                    }
+                }
+            }
+        }
+        int half = ids.size() / 2;
+        doneIds = ids.subList(0, half).stream().mapToInt(Integer::intValue).toArray();
+        deletableIds.addAll(ids.subList(half, ids.size()));
+        System.out.printf("Seeded %d tasks in %d ms%n", imported, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    // open model: request i is due at start + i / rate whether or not earlier ones have answered, and its latency
+    // is taken from when it was due, so a stalled server shows up as latency instead of as fewer requests
+    void run() throws InterruptedException {
+        long interval = (long) (1e9 / config.getRate());
+        long start = System.nanoTime();
+        measureFrom = start + config.getWarmup().toNanos();
+        long end = measureFrom + config.getDuration().toNanos();
+        System.out.printf("Sending %.0f requests/s for %s of warmup and %s of measurement%n",
+                config.getRate(), config.getWarmup(), config.getDuration());
+        for (long due = start; due < end; due += interval) {
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            send(pickOperation(), due);
+        }
+        long deadline = System.nanoTime() + config.getTimeout().toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+
+    private String pickOperation() {
+        int pick = random.nextInt(totalWeight);
+        for (Map.Entry<String, Integer> weight : config.getMix().entrySet()) {
+            pick -= weight.getValue();
+            if (pick < 0) {
+                return weight.getKey();
+            }
+        }
+        throw new IllegalStateException();
+    }
+
+    private void send(String operation, long due) {
+        HttpRequest request = request(operation);
+        if (request == null) {
+            skipped.increment();
+            return;
+        }
+        inFlight.incrementAndGet();
+        client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).whenComplete((response, error) -> {
+            try {
+                long latency = System.nanoTime() - due;
+                boolean succeeded = error == null && response.statusCode() / 100 == 2;
+                if (succeeded && operation.equals("insert")) {
+                    createdIds.add(idOf(response.body()));
+                }
+                if (due < measureFrom) {
+                    return;
+                }
+                Endpoint endpoint = endpoints.get(operation);
+                if (succeeded) {
+                    endpoint.latencies.record(Duration.ofNanos(latency));
+                    all.latencies.record(Duration.ofNanos(latency));
+                } else {
+                    endpoint.errors.increment();
+                    all.errors.increment();
+                }
+            } finally {
+                inFlight.decrementAndGet();
+            }
+        });
+    }
+
+    private HttpRequest request(String operation) {
+        HttpRequest.Builder builder;
+        switch (operation) {
+            case "list" -> builder = HttpRequest.newBuilder(uri("/todos?page=" + random.nextInt(5) + "&size=10"));
+            case "filter" -> builder = HttpRequest.newBuilder(uri("/todos?state=false&priority=" + PRIORITIES[random.nextInt(PRIORITIES.length)]
+                    + "&text=" + WORDS[random.nextInt(WORDS.length)] + "&size=10"));
+            case "sort" -> builder = HttpRequest.newBuilder(uri("/todos?sort=" + (random.nextBoolean() ? "urgency" : "dueDate,asc")
+                    + "&page=" + random.nextInt(2) + "&size=10"));
+            case "insert" -> {
+                String body;
+                try {
+                    body = objectMapper.writeValueAsString(newTask(random.nextInt(1_000_000)));
+                } catch (IOException e) {
+                    throw new IllegalStateException(e);
+                }
+                builder = HttpRequest.newBuilder(uri("/todos"))
+                        .header("Content-Type", "application/json")
+                        .POST(HttpRequest.BodyPublishers.ofString(body));
+            }
+            case "done" -> {
+                if (doneIds.length == 0) {
+                    return null;
+                }
+                builder = HttpRequest.newBuilder(uri("/todos/" + doneIds[random.nextInt(doneIds.length)] + "/done"))
+                        .method("PATCH", HttpRequest.BodyPublishers.noBody());
+            }
+            case "delete" -> {
+                Integer id = createdIds.pollFirst();
+                if (id == null) {
+                    id = deletableIds.pollLast();
+                }
+                if (id == null) {
+                    return null;
+                }
+                builder = HttpRequest.newBuilder(uri("/todos/" + id)).DELETE();
+            }
+            default -> throw new IllegalArgumentException(operation);
+        }
+        return builder.timeout(config.getTimeout()).build();
+    }
+
+    private Task newTask(int n) {
+        LocalDateTime dueDate = n % 8 == 0 ? null
+                : LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusHours(n % (24 * 60));
+        return new Task(marker + " " + WORDS[n % WORDS.length] + " " + n, dueDate, PRIORITIES[n % PRIORITIES.length]);
+    }
+
+    private int idOf(String body) {
+        try {
+            return objectMapper.readTree(body).path("id").asInt();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private URI uri(String path) {
+        return config.getBaseUrl().resolve(path);
+    }
+
+    boolean report() throws IOException {
+        double seconds = config.getDuration().toNanos() / 1e9;
+        System.out.printf("%n%-8s %9s %8s %9s %9s %9s %9s %9s %9s%n",
+                "Endpoint", "Requests", "Errors", "Req/s", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms");
+        ObjectNode json = objectMapper.createObjectNode();
+        ObjectNode results = json.putObject("endpoints");
+        Map<String, Endpoint> rows = new LinkedHashMap<>(endpoints);
+        rows.put(LoadTestConfig.ALL, all);
+        for (Map.Entry<String, Endpoint> row : rows.entrySet()) {
+            Endpoint endpoint = row.getValue();
+            System.out.printf("%-8s %9d %8d %9.1f", row.getKey(), endpoint.requests(), endpoint.errors.sum(), endpoint.requests() / seconds);
+            ObjectNode result = results.putObject(row.getKey());
+            result.put("requests", endpoint.requests());
+            result.put("errors", endpoint.errors.sum());
+            result.put("throughput", endpoint.requests() / seconds);
+            for (int i = 0; i < REPORTED_PERCENTILES.length; i++) {
+                double millis = endpoint.percentileMillis(REPORTED_PERCENTILES[i]);
+                System.out.printf(" %9.2f", millis);
+                result.put(REPORTED_NAMES[i], millis);
+            }
+            System.out.println();
+        }
+        if (skipped.sum() > 0) {
+            System.out.println(skipped.sum() + " request(s) skipped, no task of this run was left to mark done or delete");
+        }
+        System.out.println();
+        boolean passed = true;
+        ArrayNode slos = json.putArray("slos");
+        for (LoadTestConfig.Slo slo : config.getSlos()) {
+            Endpoint endpoint = rows.get(slo.endpoint());
+            if (endpoint == null) {
+                continue;
+            }
+            double actual = slo.isErrorRate() ? endpoint.errorRate() : endpoint.percentileMillis(slo.percentile());
+            // an endpoint that answered nothing but errors has no latencies, its error rate covers it
+            boolean met = actual <= slo.limit() && (slo.isErrorRate() || endpoint.latencies.getCount() > 0 || endpoint.requests() == 0);
+            passed &= met;
+            String unit = slo.isErrorRate() ? "%" : " ms";
+            System.out.printf("SLO %-6s %-9s <= %s%s: %s%s %s%n", slo.endpoint(), slo.metric(), format(slo.limit()), unit,
+                    format(actual), unit, met ? "ok" : "BREACHED");
+            ObjectNode result = slos.addObject();
+            result.put("endpoint", slo.endpoint());
+            result.put("metric", slo.metric());
+            result.put("limit", slo.limit());
+            result.put("actual", actual);
+            result.put("met", met);
+        }
+        json.put("passed", passed);
+        if (config.getReport() != null) {
+            objectMapper.writerWithDefaultPrettyPrinter().writeValue(config.getReport().toFile(), json);
+        }
+        System.out.println(passed ? "All SLOs met" : "SLOs breached");
+        return passed;
+    }
+
+    private static String format(double value) {
+        return value == Math.rint(value) ? Long.toString((long) value) : String.format("%.2f", value);
+    }
+}
@@ -0,0 +1,181 @@
+package com.encora.todolist_app.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+// defaults come from loadtest.properties, then from the file given as config=<path>, then from key=value arguments
+public class LoadTestConfig {
+
+    static final List<String> OPERATIONS = List.of("list", "filter", "sort", "insert", "done", "delete");
+    static final String ALL = "all";
+
+    // a latency limit in milliseconds for p<percentile> metrics, a percentage of failed requests for errorRate
+    record Slo(String endpoint, String metric, double limit) {
+
+        boolean isErrorRate() {
+            return metric.equals("errorRate");
+        }
+
+        double percentile() {
+            return Double.parseDouble(metric.substring(1));
+        }
+    }
+
+    private final URI baseUrl;
+    private final int seedTasks;
+    private final double rate;
+    private final Duration warmup;
+    private final Duration duration;
+    private final Duration timeout;
+    private final long randomSeed;
+    private final Map<String, Integer> mix;
+    private final List<Slo> slos;
+    private final Path report;
+
+    public LoadTestConfig(URI baseUrl, int seedTasks, double rate, Duration warmup, Duration duration, Duration timeout,
+                          long randomSeed, Map<String, Integer> mix, List<Slo> slos, Path report) {
+        this.baseUrl = baseUrl;
+        this.seedTasks = seedTasks;
+        this.rate = rate;
+        this.warmup = warmup;
+        this.duration = duration;
+        this.timeout = timeout;
+        this.randomSeed = randomSeed;
+        this.mix = mix;
+        this.slos = slos;
+        this.report = report;
+    }
+
+    public static LoadTestConfig load(String[] args) throws IOException {
+        Properties properties = new Properties();
+        try (InputStream defaults = LoadTestConfig.class.getResourceAsStream("/loadtest.properties")) {
+            if (defaults != null) {
+                properties.load(defaults);
+            }
+        }
+        Properties overrides = new Properties();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (separator <= 0) {
+                throw new IllegalArgumentException("Expected key=value but found " + arg);
+            }
+            overrides.setProperty(arg.substring(0, separator), arg.substring(separator + 1));
+        }
+        String file = overrides.getProperty("config");
+        if (file != null) {
+            try (Reader reader = Files.newBufferedReader(Path.of(file))) {
+                properties.load(reader);
+            }
+        }
+        properties.putAll(overrides);
+        return parse(properties);
+    }
+
+    static LoadTestConfig parse(Properties properties) {
+        Map<String, Integer> mix = new LinkedHashMap<>();
+        for (String entry : properties.getProperty("mix", "").split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            String[] weight = entry.trim().split(":");
+            if (weight.length != 2 || !OPERATIONS.contains(weight[0])) {
+                throw new IllegalArgumentException("Expected <operation>:<weight> with an operation of " + OPERATIONS + " but found " + entry);
+            }
+            mix.put(weight[0], Integer.parseInt(weight[1]));
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() <= 0) {
+            throw new IllegalArgumentException("The mix needs at least one operation with a positive weight");
+        }
+        int seedTasks = Integer.parseInt(properties.getProperty("seedTasks", "0"));
+        // done and delete only touch tasks this run created, so they need seeded tasks to start with
+        if (seedTasks < 2 && (mix.getOrDefault("done", 0) > 0 || mix.getOrDefault("delete", 0) > 0)) {
+            throw new IllegalArgumentException("done and delete need at least 2 seeded tasks");
+        }
+        List<Slo> slos = new ArrayList<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.startsWith("slo.")) {
+                continue;
+            }
+            String name = key.substring("slo.".length());
+            int separator = name.indexOf('.');
+            String endpoint = separator > 0 ? name.substring(0, separator) : "";
+            String metric = name.substring(separator + 1);
+            if (!endpoint.equals(ALL) && !OPERATIONS.contains(endpoint)) {
+                throw new IllegalArgumentException("Unknown endpoint in " + key);
+            }
+            String value = properties.getProperty(key).trim();
+            if (metric.equals("errorRate")) {
+                slos.add(new Slo(endpoint, metric, Double.parseDouble(value.replace("%", ""))));
+            } else if (metric.matches("p\\d+(\\.\\d+)?")) {
+                slos.add(new Slo(endpoint, metric, DurationStyle.detectAndParse(value).toNanos() / 1e6));
+            } else {
+                throw new IllegalArgumentException("Expected p<percentile> or errorRate in " + key);
+            }
+        }
+        slos.sort((a, b) -> (a.endpoint() + a.metric()).compareTo(b.endpoint() + b.metric()));
+        String report = properties.getProperty("report", "");
+        return new LoadTestConfig(
+                URI.create(properties.getProperty("baseUrl", "http://localhost:9090")),
+                seedTasks,
+                Double.parseDouble(properties.getProperty("rate", "100")),
+                DurationStyle.detectAndParse(properties.getProperty("warmup", "10s")),
+                DurationStyle.detectAndParse(properties.getProperty("duration", "60s")),
+                DurationStyle.detectAndParse(properties.getProperty("timeout", "5s")),
+                Long.parseLong(properties.getProperty("randomSeed", "42")),
+                mix,
+                slos,
+                report.isBlank() ? null : Path.of(report));
+    }
+
+    public URI getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getSeedTasks() {
+        return seedTasks;
+    }
+
+    public double getRate() {
+        return rate;
+    }
+
+    public Duration getWarmup() {
+        return warmup;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    public long getRandomSeed() {
+        return randomSeed;
+    }
+
+    public Map<String, Integer> getMix() {
+        return mix;
+    }
+
+    public List<Slo> getSlos() {
+        return slos;
+    }
+
+    public Path getReport() {
+        return report;
+    }
+}
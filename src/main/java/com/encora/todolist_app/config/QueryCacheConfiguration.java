@@ -0,0 +1,16 @@
+package com.encora.todolist_app.config;
+
+import com.encora.todolist_app.service.TaskQueryCache;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@EnableConfigurationProperties(QueryCacheProperties.class)
+public class QueryCacheConfiguration {
+
+    @Bean
+    public TaskQueryCache taskQueryCache(QueryCacheProperties properties) {
+        return new TaskQueryCache(properties.getMaximumSize());
+    }
+}
@@ -0,0 +1,18 @@
+package com.encora.todolist_app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties("todolist.query-cache")
+public class QueryCacheProperties {
+
+    // pages kept over every filter, sort and page combination, 0 turns the cache off
+    private long maximumSize = 1000;
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    public void setMaximumSize(long maximumSize) {
+        this.maximumSize = maximumSize;
+    }
+}
@@ -0,0 +1,120 @@
+package com.encora.todolist_app.config;
+
+import com.encora.todolist_app.repository.ColumnarTaskRepository;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import com.encora.todolist_app.repository.JpaTaskRepository;
+import com.encora.todolist_app.repository.MeteredTaskRepository;
+import com.encora.todolist_app.repository.OffHeapTaskRepository;
+import com.encora.todolist_app.repository.ReactiveTaskRepository;
+import com.encora.todolist_app.repository.TaskRepository;
+import com.encora.todolist_app.repository.journal.TaskJournal;
+import com.encora.todolist_app.repository.journal.WriteAheadLog;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.orm.jpa.SharedEntityManagerCreator;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import reactor.core.scheduler.Schedulers;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+@Configuration
+@EnableConfigurationProperties(RepositoryProperties.class)
+public class RepositoryConfiguration {
+
+    @Bean
+    @ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+    public ReactiveTaskRepository reactiveTaskRepository(TaskRepository taskRepository) {
+        return new ReactiveTaskRepository(taskRepository, Schedulers.boundedElastic());
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "memory", matchIfMissing = true)
+    @EnableScheduling
+    static class InMemoryRepositoryConfiguration {
+
+        @Bean
+        public TaskJournal taskJournal(RepositoryProperties properties) throws IOException {
+            RepositoryProperties.Wal wal = properties.getWal();
+            if (!wal.isEnabled()) {
+                return TaskJournal.NONE;
+            }
+            return new WriteAheadLog(Path.of(wal.getDirectory()), wal.getFlushInterval(), wal.getBatchSize(), wal.isFsync(), wal.isAwaitSync());
+        }
+
+        // closed with the context, which shuts its query pool down
+        @Bean
+        public InMemoryTaskRepository taskRepository(TaskJournal taskJournal, MeterRegistry meterRegistry, RepositoryProperties properties) {
+            RepositoryProperties.Parallel parallel = properties.getParallel();
+            return new InMemoryTaskRepository(taskJournal, meterRegistry, parallel.getParallelism(), parallel.getThreshold());
+        }
+
+        // what the services see, the snapshot scheduler still takes the repository itself
+        @Bean
+        @Primary
+        public MeteredTaskRepository meteredTaskRepository(InMemoryTaskRepository taskRepository, MeterRegistry meterRegistry) {
+            return new MeteredTaskRepository(taskRepository, meterRegistry, false);
+        }
+
+        @Bean
+        @ConditionalOnProperty(name = "todolist.repository.wal.enabled", havingValue = "true")
+        public TaskSnapshotScheduler taskSnapshotScheduler(InMemoryTaskRepository taskRepository, RepositoryProperties properties) {
+            return new TaskSnapshotScheduler(taskRepository, properties.getWal().getSnapshotInterval());
+        }
+    }
+
+    // no write-ahead log, the tasks are gone when the process ends
+    @Configuration
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "columnar")
+    static class ColumnarRepositoryConfiguration {
+
+        @Bean
+        public ColumnarTaskRepository taskRepository() {
+            return new ColumnarTaskRepository();
+        }
+
+        @Bean
+        @Primary
+        public MeteredTaskRepository meteredTaskRepository(ColumnarTaskRepository taskRepository, MeterRegistry meterRegistry) {
+            return new MeteredTaskRepository(taskRepository, meterRegistry, false);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "offheap")
+    static class OffHeapRepositoryConfiguration {
+
+        @Bean
+        public OffHeapTaskRepository taskRepository() {
+            return new OffHeapTaskRepository();
+        }
+
+        @Bean
+        @Primary
+        public MeteredTaskRepository meteredTaskRepository(OffHeapTaskRepository taskRepository, MeterRegistry meterRegistry) {
+            return new MeteredTaskRepository(taskRepository, meterRegistry, false);
+        }
+    }
+
+    @Configuration
+    @ConditionalOnProperty(name = "todolist.repository.type", havingValue = "jpa")
+    static class JpaRepositoryConfiguration {
+
+        @Bean
+        public JpaTaskRepository taskRepository(EntityManagerFactory entityManagerFactory) {
+            return new JpaTaskRepository(SharedEntityManagerCreator.createSharedEntityManager(entityManagerFactory));
+        }
+
+        @Bean
+        @Primary
+        public MeteredTaskRepository meteredTaskRepository(JpaTaskRepository taskRepository, MeterRegistry meterRegistry) {
+            return new MeteredTaskRepository(taskRepository, meterRegistry, true);
+        }
+    }
+}
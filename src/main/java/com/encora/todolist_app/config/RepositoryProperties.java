@@ -0,0 +1,108 @@
+package com.encora.todolist_app.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties("todolist.repository")
+public class RepositoryProperties {
+
+    private final Wal wal = new Wal();
+    private final Parallel parallel = new Parallel();
+
+    public Wal getWal() {
+        return wal;
+    }
+
+    public Parallel getParallel() {
+        return parallel;
+    }
+
+    public static class Wal {
+        private boolean enabled;
+        private String directory = "data";
+        private Duration flushInterval = Duration.ofMillis(10);
+        private int batchSize = 1024;
+        private boolean fsync = true;
+        private boolean awaitSync;
+        private Duration snapshotInterval = Duration.ofMinutes(10);
+
+        public boolean isEnabled() {
+            return enabled;
+        }
+
+        public void setEnabled(boolean enabled) {
+            this.enabled = enabled;
+        }
+
+        public String getDirectory() {
+            return directory;
+        }
+
+        public void setDirectory(String directory) {
+            this.directory = directory;
+        }
+
+        public Duration getFlushInterval() {
+            return flushInterval;
+        }
+
+        public void setFlushInterval(Duration flushInterval) {
+            this.flushInterval = flushInterval;
+        }
+
+        public int getBatchSize() {
+            return batchSize;
+        }
+
+        public void setBatchSize(int batchSize) {
+            this.batchSize = batchSize;
+        }
+
+        public boolean isFsync() {
+            return fsync;
+        }
+
+        public void setFsync(boolean fsync) {
+            this.fsync = fsync;
+        }
+
+        public boolean isAwaitSync() {
+            return awaitSync;
+        }
+
+        public void setAwaitSync(boolean awaitSync) {
+            this.awaitSync = awaitSync;
+        }
+
+        public Duration getSnapshotInterval() {
+            return snapshotInterval;
+        }
+
+        public void setSnapshotInterval(Duration snapshotInterval) {
+            this.snapshotInterval = snapshotInterval;
+        }
+    }
+
+    public static class Parallel {
+        // half the processors are left to the request threads; below 2 queries never run in parallel
+        private int parallelism = Runtime.getRuntime().availableProcessors() / 2;
+        private int threshold = 100_000;
+
+        public int getParallelism() {
+            return parallelism;
+        }
+
+        public void setParallelism(int parallelism) {
+            this.parallelism = parallelism;
+        }
+
+        public int getThreshold() {
+            return threshold;
+        }
+
+        public void setThreshold(int threshold) {
+            this.threshold = threshold;
+        }
+    }
+}
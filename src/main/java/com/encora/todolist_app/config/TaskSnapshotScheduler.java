@@ -0,0 +1,24 @@
+package com.encora.todolist_app.config;
+
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.FixedDelayTask;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
+
+import java.time.Duration;
+
+public class TaskSnapshotScheduler implements SchedulingConfigurer {
+
+    private final InMemoryTaskRepository taskRepository;
+    private final Duration interval;
+
+    public TaskSnapshotScheduler(InMemoryTaskRepository taskRepository, Duration interval) {
+        this.taskRepository = taskRepository;
+        this.interval = interval;
+    }
+
+    @Override
+    public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+        taskRegistrar.addFixedDelayTask(new FixedDelayTask(taskRepository::checkpoint, interval, interval));
+    }
+}
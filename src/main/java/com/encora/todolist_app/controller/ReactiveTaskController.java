@@ -0,0 +1,160 @@
+package com.encora.todolist_app.controller;
+
+import com.encora.todolist_app.models.BulkImportResultDTO;
+import com.encora.todolist_app.models.BulkStateRequestDTO;
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.StateTaskDTO;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.service.ReactiveTaskService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebInputException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// the same endpoints as TaskController when the application runs on WebFlux; lists and exports are streamed
+// as they are read instead of being collected into a page
+@RestController
+@CrossOrigin(origins = "http://localhost:8080")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskController {
+
+    private static final int BULK_BATCH_SIZE = 1000;
+
+    private final ReactiveTaskService taskService;
+
+    @Autowired
+    public ReactiveTaskController(ReactiveTaskService taskService) {
+        this.taskService = taskService;
+    }
+
+    @GetMapping(value = "/todos", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Flux<Task> allTasks(
+            @RequestParam(value = "state", required = false) Boolean state,
+            @RequestParam(value = "priority", required = false) String priority,
+            @RequestParam(value = "text", required = false) String text,
+            Sort sort) {
+        return taskService.getAllTasks(state, priority, text, sort)
+                .onErrorMap(IllegalArgumentException.class, e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    @GetMapping("/todos/time")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<Map<String, Duration>>> timeTask() {
+        return taskService.avgTimesAllTask()
+                .filter(avgTimes -> !avgTimes.isEmpty())
+                .map(avgTimes -> new ResponseEntity<>(avgTimes, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    @GetMapping("/todos/time/stats")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<Map<String, CompletionTimeStatsDTO>>> timeStats() {
+        return taskService.completionTimeStats()
+                .map(stats -> new ResponseEntity<>(stats, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+
+    @PostMapping("/todos")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<Task>> insertTask(@RequestBody Task task) {
+        return taskService.addTask(task)
+                .map(insertedTask -> new ResponseEntity<>(insertedTask, HttpStatus.CREATED))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_ACCEPTABLE));
+    }
+
+    // the body is decoded one task at a time as batches are saved, batches saved before a malformed task stay saved
+    @PostMapping(value = "/todos/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<BulkImportResultDTO>> insertTasks(@RequestBody Flux<Task> tasks) {
+        AtomicLong imported = new AtomicLong();
+        AtomicLong rejected = new AtomicLong();
+        return tasks.buffer(BULK_BATCH_SIZE)
+                .concatMap(batch -> taskService.addTasks(batch).doOnNext(saved -> {
+                    imported.addAndGet(saved);
+                    rejected.addAndGet(batch.size() - saved);
+                }))
+                .then(Mono.fromSupplier(() -> new ResponseEntity<>(new BulkImportResultDTO(imported.get(), rejected.get()), HttpStatus.CREATED)))
+                .onErrorResume(ServerWebInputException.class,
+                        e -> Mono.just(new ResponseEntity<>(new BulkImportResultDTO(imported.get(), rejected.get()), HttpStatus.BAD_REQUEST)));
+    }
+
+    @GetMapping(value = "/todos/export", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Flux<Task> exportTasks() {
+        return taskService.exportTasks();
+    }
+
+    @GetMapping(value = "/todos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Flux<ServerSentEvent<TaskEventDTO>> streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "after", required = false) Long after) {
+        return taskService.streamEvents(lastEventId != null ? lastEventId : after)
+                .map(event -> ServerSentEvent.builder(event).id(Long.toString(event.getSequence())).build());
+    }
+
+    @PatchMapping("/todos/done")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<List<StateTaskDTO>>> updateStatusDoneTasks(@RequestBody BulkStateRequestDTO request) {
+        return updateStatusTasks(request, true);
+    }
+
+    @PatchMapping("/todos/undone")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<List<StateTaskDTO>>> updateStatusUndoneTasks(@RequestBody BulkStateRequestDTO request) {
+        return updateStatusTasks(request, false);
+    }
+
+    private Mono<ResponseEntity<List<StateTaskDTO>>> updateStatusTasks(BulkStateRequestDTO request, boolean done) {
+        if (request.getIds() == null && request.getState() == null && request.getPriority() == null && request.getText() == null) {
+            return Mono.just(new ResponseEntity<>(HttpStatus.BAD_REQUEST));
+        }
+        return taskService.updateStatusTasks(request.getIds(), request.getState(), request.getPriority(), request.getText(), done)
+                .map(updatedStates -> new ResponseEntity<>(updatedStates, HttpStatus.OK));
+    }
+
+    @PatchMapping("/todos/{id}/done")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<StateTaskDTO>> updateStatusDoneTask(@PathVariable int id) {
+        return taskService.updateStatusDoneTask(id)
+                .map(updatedState -> new ResponseEntity<>(updatedState, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PatchMapping("/todos/{id}/undone")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<StateTaskDTO>> updateStatusTask(@PathVariable int id) {
+        return taskService.updateStatusUndoneTask(id)
+                .map(updatedState -> new ResponseEntity<>(updatedState, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @PutMapping("/todos/{id}")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<Task>> updateTask(@PathVariable int id, @RequestBody Task task) {
+        return taskService.updateTask(id, task)
+                .map(updatedTask -> new ResponseEntity<>(updatedTask, HttpStatus.OK))
+                .defaultIfEmpty(new ResponseEntity<>(HttpStatus.NOT_FOUND));
+    }
+
+    @DeleteMapping("/todos/{id}")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public Mono<ResponseEntity<Void>> deleteTask(@PathVariable int id) {
+        return taskService.deleteTask(id).thenReturn(new ResponseEntity<>(HttpStatus.NO_CONTENT));
+    }
+}
@@ -1,28 +1,68 @@
 package com.encora.todolist_app.controller;
 
+import com.encora.todolist_app.models.BulkImportResultDTO;
+import com.encora.todolist_app.models.BulkStateRequestDTO;
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.QueryCacheStatsDTO;
 import com.encora.todolist_app.models.StateTaskDTO;
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskCursorPageDTO;
+import com.encora.todolist_app.service.TaskEventFeed;
 import com.encora.todolist_app.service.TaskService;
+import com.encora.todolist_app.utils.cursors.TaskCursorCodec;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
 
 @RestController
 @CrossOrigin(origins = "http://localhost:8080")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 public class TaskController {
 
+    private static final int MAX_CURSOR_PAGE_SIZE = 2000;
+    private static final int BULK_BATCH_SIZE = 1000;
+    private static final String NDJSON = "application/x-ndjson";
+
     private final TaskService taskService;
+    private final ObjectMapper objectMapper;
+    // flushing after every task would turn an export into one network write per task
+    private final ObjectWriter taskWriter;
+    // versions start over with the process, the start time keeps a tag from an earlier run from matching
+    private final String etagPrefix = Long.toString(System.currentTimeMillis(), 36);
 
     @Autowired
-    public TaskController(TaskService taskService) {
+    public TaskController(TaskService taskService, ObjectMapper objectMapper) {
         this.taskService = taskService;
+        this.objectMapper = objectMapper;
+        this.taskWriter = objectMapper.writerFor(Task.class).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
     }
 
     @GetMapping("/todos")
@@ -31,14 +71,50 @@ public class TaskController {
             @RequestParam(value = "state", required = false) Boolean state,
             @RequestParam(value = "priority", required = false) String priority,
             @RequestParam(value = "text", required = false) String text,
-            Pageable pageable) {
+            Pageable pageable,
+            WebRequest request) {
+        String etag = etag(taskService.tasksVersion());
+        if (request.checkNotModified(etag)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         Page<Task> tasks = taskService.getAllTasks(state, priority, text, pageable);
         return new ResponseEntity<>(tasks, HttpStatus.OK);
     }
 
+    @GetMapping(value = "/todos", params = "after")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<TaskCursorPageDTO> tasksAfter(
+            @RequestParam(value = "state", required = false) Boolean state,
+            @RequestParam(value = "priority", required = false) String priority,
+            @RequestParam(value = "text", required = false) String text,
+            @RequestParam(value = "after") String after,
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            Sort sort,
+            WebRequest request) {
+        KeysetScrollPosition position = TaskCursorCodec.decode(after);
+        if (position == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        String etag = etag(taskService.tasksVersion());
+        if (request.checkNotModified(etag)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
+        int limit = Math.max(1, Math.min(size, MAX_CURSOR_PAGE_SIZE));
+        Window<Task> window = taskService.getTasksAfter(state, priority, text, sort, position, limit);
+        if (window == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        String nextCursor = window.hasNext() ? TaskCursorCodec.encode((KeysetScrollPosition) window.positionAt(window.size() - 1)) : null;
+        return new ResponseEntity<>(new TaskCursorPageDTO(window.getContent(), nextCursor), HttpStatus.OK);
+    }
+
     @GetMapping("/todos/time")
     @CrossOrigin(origins = "http://localhost:8080")
-    public ResponseEntity<Map<String, Duration>> timeTask() {
+    public ResponseEntity<Map<String, Duration>> timeTask(WebRequest request) {
+        String etag = etag(taskService.statisticsVersion());
+        if (request.checkNotModified(etag)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
         Map<String, Duration> avgTimes = taskService.avgTimesAllTask();
         if (avgTimes == null || avgTimes.isEmpty()) {
             return new ResponseEntity<>(HttpStatus.NO_CONTENT);
@@ -46,6 +122,32 @@ public class TaskController {
         return new ResponseEntity<>(avgTimes, HttpStatus.OK);
     }
 
+    @GetMapping("/todos/time/stats")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<Map<String, CompletionTimeStatsDTO>> timeStats(WebRequest request) {
+        String etag = etag(taskService.statisticsVersion());
+        if (request.checkNotModified(etag)) {
+            return new ResponseEntity<>(HttpStatus.NOT_MODIFIED);
+        }
+        Map<String, CompletionTimeStatsDTO> stats = taskService.completionTimeStats();
+        if (stats == null) {
+            return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+        }
+        return new ResponseEntity<>(stats, HttpStatus.OK);
+    }
+
+    @GetMapping("/todos/cache/stats")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<QueryCacheStatsDTO> queryCacheStats() {
+        return new ResponseEntity<>(taskService.queryCacheStats(), HttpStatus.OK);
+    }
+
+    // the version is read before the query, so a response is never tagged with a version newer than its content;
+    // checkNotModified also sets it as the ETag of the response
+    private String etag(long version) {
+        return "\"" + etagPrefix + "-" + version + "\"";
+    }
+
     @PostMapping("/todos")
     @CrossOrigin(origins = "http://localhost:8080")
     public ResponseEntity<Task> insertTask(@RequestBody Task task) {
@@ -57,6 +159,114 @@ public class TaskController {
         }
     }
 
+    // accepts a JSON array or newline-delimited objects, read one task at a time and saved a batch at a time;
+    // batches saved before a malformed task stay saved and are counted in the response
+    @PostMapping(value = "/todos/bulk", consumes = {MediaType.APPLICATION_JSON_VALUE, NDJSON})
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<BulkImportResultDTO> insertTasks(InputStream body) {
+        long imported = 0;
+        long rejected = 0;
+        List<Task> batch = new ArrayList<>(BULK_BATCH_SIZE);
+        try (JsonParser parser = objectMapper.createParser(body)) {
+            JsonToken token = parser.nextToken();
+            boolean array = token == JsonToken.START_ARRAY;
+            if (array) {
+                token = parser.nextToken();
+            }
+            while (token == JsonToken.START_OBJECT) {
+                batch.add(objectMapper.readValue(parser, Task.class));
+                if (batch.size() == BULK_BATCH_SIZE) {
+                    int saved = taskService.addTasks(batch);
+                    imported += saved;
+                    rejected += batch.size() - saved;
+                    batch.clear();
+                }
+                token = parser.nextToken();
+            }
+            if (array ? token != JsonToken.END_ARRAY || parser.nextToken() != null : token != null) {
+                throw new IOException("Expected a task object but found " + token);
+            }
+        } catch (IOException e) {
+            return new ResponseEntity<>(new BulkImportResultDTO(imported, rejected), HttpStatus.BAD_REQUEST);
+        }
+        if (!batch.isEmpty()) {
+            int saved = taskService.addTasks(batch);
+            imported += saved;
+            rejected += batch.size() - saved;
+        }
+        return new ResponseEntity<>(new BulkImportResultDTO(imported, rejected), HttpStatus.CREATED);
+    }
+
+    @GetMapping(value = "/todos/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<StreamingResponseBody> exportTasks() {
+        return new ResponseEntity<>(out -> writeTasks(out, true), HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/todos/export", produces = NDJSON)
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<StreamingResponseBody> exportTasksAsLines() {
+        return new ResponseEntity<>(out -> writeTasks(out, false), HttpStatus.OK);
+    }
+
+    private void writeTasks(OutputStream out, boolean array) throws IOException {
+        try (Stream<Task> tasks = taskService.exportTasks();
+             JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            if (array) {
+                generator.writeStartArray();
+            }
+            Iterator<Task> iterator = tasks.iterator();
+            while (iterator.hasNext()) {
+                taskWriter.writeValue(generator, iterator.next());
+                if (!array) {
+                    generator.writeRaw('\n');
+                }
+            }
+            if (array) {
+                generator.writeEndArray();
+            }
+        }
+    }
+
+    // resumes after the Last-Event-ID header an EventSource sends when it reconnects, or after the given sequence,
+    // and otherwise starts with the next change; the connection ends with the async request timeout
+    @GetMapping(value = "/todos/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @CrossOrigin(origins = "http://localhost:8080")
+    public SseEmitter streamEvents(
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId,
+            @RequestParam(value = "after", required = false) Long after) {
+        SseEmitter emitter = new SseEmitter();
+        long resumeAfter = lastEventId != null ? lastEventId : after != null ? after : taskService.currentEventSequence();
+        TaskEventFeed.Subscription subscription = taskService.subscribeToEvents(resumeAfter,
+                event -> emitter.send(SseEmitter.event().id(Long.toString(event.getSequence())).data(event, MediaType.APPLICATION_JSON)));
+        emitter.onCompletion(subscription::close);
+        emitter.onError(error -> subscription.close());
+        return emitter;
+    }
+
+    @PatchMapping("/todos/done")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<List<StateTaskDTO>> updateStatusDoneTasks(@RequestBody BulkStateRequestDTO request) {
+        return updateStatusTasks(request, true);
+    }
+
+    @PatchMapping("/todos/undone")
+    @CrossOrigin(origins = "http://localhost:8080")
+    public ResponseEntity<List<StateTaskDTO>> updateStatusUndoneTasks(@RequestBody BulkStateRequestDTO request) {
+        return updateStatusTasks(request, false);
+    }
+
+    // an empty request would touch every task, so at least the ids or one filter has to be given
+    private ResponseEntity<List<StateTaskDTO>> updateStatusTasks(BulkStateRequestDTO request, boolean done) {
+        if (request.getIds() == null && request.getState() == null && request.getPriority() == null && request.getText() == null) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        List<StateTaskDTO> updatedStates = taskService.updateStatusTasks(request.getIds(), request.getState(), request.getPriority(), request.getText(), done);
+        return new ResponseEntity<>(updatedStates, HttpStatus.OK);
+    }
+
     @PatchMapping("/todos/{id}/done")
     @CrossOrigin(origins = "http://localhost:8080")
     public ResponseEntity<StateTaskDTO> updateStatusDoneTask(@PathVariable int id) {
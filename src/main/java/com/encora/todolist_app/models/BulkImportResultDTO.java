@@ -0,0 +1,27 @@
+package com.encora.todolist_app.models;
+
+public class BulkImportResultDTO {
+    private long imported;
+    private long rejected;
+
+    public BulkImportResultDTO(long imported, long rejected) {
+        this.imported = imported;
+        this.rejected = rejected;
+    }
+
+    public long getImported() {
+        return imported;
+    }
+
+    public void setImported(long imported) {
+        this.imported = imported;
+    }
+
+    public long getRejected() {
+        return rejected;
+    }
+
+    public void setRejected(long rejected) {
+        this.rejected = rejected;
+    }
+}
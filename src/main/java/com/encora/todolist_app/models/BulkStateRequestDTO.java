@@ -0,0 +1,52 @@
+package com.encora.todolist_app.models;
+
+import java.util.List;
+
+public class BulkStateRequestDTO {
+    private List<Integer> ids;
+    private Boolean state;
+    private String priority;
+    private String text;
+
+    public BulkStateRequestDTO() {
+    }
+
+    public BulkStateRequestDTO(List<Integer> ids, Boolean state, String priority, String text) {
+        this.ids = ids;
+        this.state = state;
+        this.priority = priority;
+        this.text = text;
+    }
+
+    public List<Integer> getIds() {
+        return ids;
+    }
+
+    public void setIds(List<Integer> ids) {
+        this.ids = ids;
+    }
+
+    public Boolean getState() {
+        return state;
+    }
+
+    public void setState(Boolean state) {
+        this.state = state;
+    }
+
+    public String getPriority() {
+        return priority;
+    }
+
+    public void setPriority(String priority) {
+        this.priority = priority;
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public void setText(String text) {
+        this.text = text;
+    }
+}
@@ -0,0 +1,59 @@
+package com.encora.todolist_app.models;
+
+import java.time.Duration;
+
+public class CompletionTimeStatsDTO {
+    private long count;
+    private Duration average;
+    private Duration p50;
+    private Duration p90;
+    private Duration p99;
+
+    public CompletionTimeStatsDTO(long count, Duration average, Duration p50, Duration p90, Duration p99) {
+        this.count = count;
+        this.average = average;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public void setCount(long count) {
+        this.count = count;
+    }
+
+    public Duration getAverage() {
+        return average;
+    }
+
+    public void setAverage(Duration average) {
+        this.average = average;
+    }
+
+    public Duration getP50() {
+        return p50;
+    }
+
+    public void setP50(Duration p50) {
+        this.p50 = p50;
+    }
+
+    public Duration getP90() {
+        return p90;
+    }
+
+    public void setP90(Duration p90) {
+        this.p90 = p90;
+    }
+
+    public Duration getP99() {
+        return p99;
+    }
+
+    public void setP99(Duration p99) {
+        this.p99 = p99;
+    }
+}
@@ -1,19 +1,31 @@
 package com.encora.todolist_app.models;
 
 import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Objects;
 
 @Entity
+@Table(name = "task", indexes = {
+        @Index(name = "idx_task_state", columnList = "state"),
+        @Index(name = "idx_task_priority", columnList = "priority"),
+        @Index(name = "idx_task_due_date", columnList = "due_date")})
 public class Task {
+    @Id
     private Integer id;
     private String text;
     private LocalDateTime creationDate;
     private LocalDateTime dueDate;
     private LocalDateTime doneDate;
     private Duration timeFrame;
+    // stored as the ordinal so ORDER BY priority sorts LOW, MEDIUM, HIGH like the enum does
+    @Enumerated(EnumType.ORDINAL)
     private Priority priority;
     private boolean state;
 
@@ -38,6 +50,10 @@ public class Task {
         this.state = state;
     }
 
+    public Task(Task other) {
+        this(other.id, other.text, other.creationDate, other.dueDate, other.doneDate, other.timeFrame, other.priority, other.state);
+    }
+
     public Integer getId() {
         return id;
     }
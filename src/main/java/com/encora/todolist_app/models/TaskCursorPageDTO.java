@@ -0,0 +1,29 @@
+package com.encora.todolist_app.models;
+
+import java.util.List;
+
+public class TaskCursorPageDTO {
+    private List<Task> content;
+    private String nextCursor;
+
+    public TaskCursorPageDTO(List<Task> content, String nextCursor) {
+        this.content = content;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Task> getContent() {
+        return content;
+    }
+
+    public void setContent(List<Task> content) {
+        this.content = content;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+}
@@ -0,0 +1,47 @@
+package com.encora.todolist_app.models;
+
+public class TaskEventDTO {
+    private long sequence;
+    private TaskEventType type;
+    private Integer id;
+    private Task task;
+
+    public TaskEventDTO(long sequence, TaskEventType type, Integer id, Task task) {
+        this.sequence = sequence;
+        this.type = type;
+        this.id = id;
+        this.task = task;
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public void setSequence(long sequence) {
+        this.sequence = sequence;
+    }
+
+    public TaskEventType getType() {
+        return type;
+    }
+
+    public void setType(TaskEventType type) {
+        this.type = type;
+    }
+
+    public Integer getId() {
+        return id;
+    }
+
+    public void setId(Integer id) {
+        this.id = id;
+    }
+
+    public Task getTask() {
+        return task;
+    }
+
+    public void setTask(Task task) {
+        this.task = task;
+    }
+}
@@ -0,0 +1,7 @@
+package com.encora.todolist_app.models;
+
+public enum TaskEventType {
+    INSERTED, UPDATED, DELETED, DONE, UNDONE,
+    // events up to this sequence were dropped, the client has to reload the tasks before applying later events
+    RESET
+}
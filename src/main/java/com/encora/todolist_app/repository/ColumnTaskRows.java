@@ -0,0 +1,151 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+// a primitive array per field on the heap; the collector sees a handful of large arrays instead of an object graph per task
+final class ColumnTaskRows implements TaskRows {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final TaskTextArena textArena = new TaskTextArena();
+    private final TaskTextArena.Handles textHandles = new TaskTextArena.Handles() {
+        @Override
+        public long get(int row) {
+            return texts[row];
+        }
+
+        @Override
+        public void set(int row, long handle) {
+            texts[row] = handle;
+        }
+    };
+    private int size;
+    private int[] ids = new int[1024];
+    private long[] texts = new long[1024];
+    private long[] creationDates = new long[1024];
+    private long[] dueDates = new long[1024];
+    private long[] doneDates = new long[1024];
+    private long[] timeFrames = new long[1024];
+    private byte[] priorities = new byte[1024];
+    private long[] states = new long[1024 / Long.SIZE];
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(Task task) {
+        if (size == ids.length) {
+            grow();
+        }
+        int row = size++;
+        texts[row] = TaskTextArena.NULL;
+        set(row, task);
+        return row;
+    }
+
+    @Override
+    public void set(int row, Task task) {
+        textArena.release(texts[row]);
+        ids[row] = task.getId();
+        texts[row] = textArena.add(task.getText());
+        creationDates[row] = TaskRows.micros(task.getCreationDate());
+        dueDates[row] = TaskRows.micros(task.getDueDate());
+        doneDates[row] = TaskRows.micros(task.getDoneDate());
+        timeFrames[row] = task.getTimeFrame() == null ? NULL_TIME : task.getTimeFrame().toNanos();
+        priorities[row] = task.getPriority() == null ? NULL_PRIORITY : (byte) task.getPriority().ordinal();
+        setState(row, task.isState());
+        compactTexts();
+    }
+
+    @Override
+    public void remove(int row) {
+        textArena.release(texts[row]);
+        int last = --size;
+        if (row != last) {
+            ids[row] = ids[last];
+            texts[row] = texts[last];
+            creationDates[row] = creationDates[last];
+            dueDates[row] = dueDates[last];
+            doneDates[row] = doneDates[last];
+            timeFrames[row] = timeFrames[last];
+            priorities[row] = priorities[last];
+            setState(row, state(last));
+        }
+        compactTexts();
+    }
+
+    @Override
+    public int id(int row) {
+        return ids[row];
+    }
+
+    @Override
+    public long creationDate(int row) {
+        return creationDates[row];
+    }
+
+    @Override
+    public long dueDate(int row) {
+        return dueDates[row];
+    }
+
+    @Override
+    public byte priority(int row) {
+        return priorities[row];
+    }
+
+    @Override
+    public boolean state(int row) {
+        return (states[row >>> 6] & (1L << row)) != 0;
+    }
+
+    @Override
+    public boolean textContains(int row, String lowerText, byte[] asciiNeedle) {
+        return textArena.contains(texts[row], lowerText, asciiNeedle);
+    }
+
+    @Override
+    public Task task(int row) {
+        return new Task(
+                ids[row],
+                textArena.get(texts[row]),
+                TaskRows.dateOf(creationDates[row]),
+                TaskRows.dateOf(dueDates[row]),
+                TaskRows.dateOf(doneDates[row]),
+                timeFrames[row] == NULL_TIME ? null : Duration.ofNanos(timeFrames[row]),
+                priorities[row] == NULL_PRIORITY ? null : PRIORITIES[priorities[row]],
+                state(row));
+    }
+
+    private void setState(int row, boolean state) {
+        if (state) {
+            states[row >>> 6] |= 1L << row;
+        } else {
+            states[row >>> 6] &= ~(1L << row);
+        }
+    }
+
+    private void compactTexts() {
+        if (textArena.needsCompaction()) {
+            textArena.compact(size, textHandles);
+        }
+    }
+
+    private void grow() {
+        int capacity = ids.length + (ids.length >> 1);
+        ids = Arrays.copyOf(ids, capacity);
+        texts = Arrays.copyOf(texts, capacity);
+        creationDates = Arrays.copyOf(creationDates, capacity);
+        dueDates = Arrays.copyOf(dueDates, capacity);
+        doneDates = Arrays.copyOf(doneDates, capacity);
+        timeFrames = Arrays.copyOf(timeFrames, capacity);
+        priorities = Arrays.copyOf(priorities, capacity);
+        states = Arrays.copyOf(states, (capacity + Long.SIZE - 1) / Long.SIZE);
+    }
+}
@@ -0,0 +1,427 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// tasks are kept a row per task in TaskRows, a column per field in primitive arrays unless given other rows, and only
+// turned into Task objects for what a call returns; rows stay dense, a deleted row is filled with the last one. Filters
+// and sorts scan the rows with the same rules as InMemoryTaskRepository: nulls last when ascending, reversed as a whole
+// when descending, ties by id
+public class ColumnarTaskRepository implements TaskRepository {
+
+    private static final Set<String> SORT_PROPERTIES = Set.of("id", "priority", "dueDate", "urgency");
+    private static final Priority[] PRIORITIES = Priority.values();
+    // the priority filter accepts any priority, including none
+    private static final int ANY_PRIORITY = -2;
+    private static final int STREAM_BATCH_SIZE = 1000;
+
+    // readers share the rows, a writer has them to itself; a sort holds off writers until its page is built
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final IdRowIndex rowsById = new IdRowIndex();
+    private final TaskRows rows;
+    private final AtomicLong version = new AtomicLong();
+    private int nextId;
+
+    public ColumnarTaskRepository() {
+        this(new ColumnTaskRows());
+    }
+
+    ColumnarTaskRepository(TaskRows rows) {
+        this.rows = rows;
+    }
+
+    @Override
+    public Task save(Task task) {
+        LocalDateTime creationDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        lock.writeLock().lock();
+        try {
+            return store(task, creationDate) ? task : null;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<Task> saveAll(List<Task> tasks) {
+        LocalDateTime creationDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Task> saved = new ArrayList<>(tasks.size());
+        lock.writeLock().lock();
+        try {
+            for (Task task : tasks) {
+                if (store(task, creationDate)) {
+                    saved.add(task);
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return saved;
+    }
+
+    private boolean store(Task task, LocalDateTime creationDate) {
+        if (task.getId() != null && rowsById.get(task.getId()) != IdRowIndex.MISSING) {
+            return false;
+        }
+        // generated ids may collide with ids that were saved explicitly, keep drawing until one is free
+        while (task.getId() == null || rowsById.get(task.getId()) != IdRowIndex.MISSING) {
+            task.setId(nextId++);
+        }
+        task.setCreationDate(creationDate);
+        rowsById.put(task.getId(), rows.add(task));
+        version.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public Optional<Task> findById(Integer id) {
+        lock.readLock().lock();
+        try {
+            int row = rowsById.get(id);
+            return row == IdRowIndex.MISSING ? Optional.empty() : Optional.of(rows.task(row));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return findAllByStateAndPriorityAndText(null, null, null, pageable);
+    }
+
+    @Override
+    public Task deleteById(Integer id) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(id);
+            if (row == IdRowIndex.MISSING) {
+                return null;
+            }
+            Task deleted = rows.task(row);
+            rowsById.remove(id);
+            rows.remove(row);
+            if (row < rows.size()) {
+                rowsById.put(rows.id(row), row);
+            }
+            version.incrementAndGet();
+            return deleted;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Task replaceTask(Integer id, Task task) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(id);
+            if (row == IdRowIndex.MISSING) {
+                return null;
+            }
+            replace(row, task);
+            return task;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean replaceTask(Integer id, Task expected, Task task) {
+        lock.writeLock().lock();
+        try {
+            int row = rowsById.get(id);
+            if (row == IdRowIndex.MISSING || !rows.task(row).equals(expected)) {
+                return false;
+            }
+            replace(row, task);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public List<TaskChange> updateAll(List<Integer> taskIds, UnaryOperator<Task> change) {
+        List<TaskChange> changes = new ArrayList<>(taskIds.size());
+        lock.writeLock().lock();
+        try {
+            for (Integer id : taskIds) {
+                int row = rowsById.get(id);
+                if (row != IdRowIndex.MISSING) {
+                    changes.add(update(row, change));
+                }
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+        return changes;
+    }
+
+    @Override
+    public List<TaskChange> updateAllByStateAndPriorityAndText(Boolean state, String priority, String text, UnaryOperator<Task> change) {
+        lock.writeLock().lock();
+        try {
+            int[] matching = matchingRows(state, priority, text, row -> true);
+            List<TaskChange> changes = new ArrayList<>(matching.length);
+            for (int row : matching) {
+                changes.add(update(row, change));
+            }
+            return changes;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // change gets a task of its own, returning it as is leaves the row untouched
+    private TaskChange update(int row, UnaryOperator<Task> change) {
+        Task current = rows.task(row);
+        Task task = change.apply(current);
+        if (task == current) {
+            return new TaskChange(current, current);
+        }
+        replace(row, task);
+        return new TaskChange(current, task);
+    }
+
+    private void replace(int row, Task task) {
+        task.setId(rows.id(row));
+        task.setCreationDate(TaskRows.dateOf(rows.creationDate(row)));
+        rows.set(row, task);
+        version.incrementAndGet();
+    }
+
+    @Override
+    public List<Task> getAllTask() {
+        lock.readLock().lock();
+        try {
+            List<Task> tasks = new ArrayList<>(rows.size());
+            for (int row = 0; row < rows.size(); row++) {
+                tasks.add(rows.task(row));
+            }
+            return tasks;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // the ids are taken up front and their tasks read a batch at a time, so the rows are not locked while the caller
+    // consumes the stream; tasks deleted in between are left out and tasks saved in between are not seen
+    @Override
+    public Stream<Task> streamAll() {
+        int[] snapshot;
+        lock.readLock().lock();
+        try {
+            snapshot = new int[rows.size()];
+            for (int row = 0; row < snapshot.length; row++) {
+                snapshot[row] = rows.id(row);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        Spliterator<Task> tasks = new Spliterators.AbstractSpliterator<>(snapshot.length, Spliterator.ORDERED | Spliterator.NONNULL) {
+            private int next;
+            private final List<Task> batch = new ArrayList<>(STREAM_BATCH_SIZE);
+            private int batchPosition;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super Task> action) {
+                while (batchPosition == batch.size()) {
+                    if (next == snapshot.length) {
+                        return false;
+                    }
+                    batch.clear();
+                    batchPosition = 0;
+                    int to = Math.min(next + STREAM_BATCH_SIZE, snapshot.length);
+                    lock.readLock().lock();
+                    try {
+                        for (; next < to; next++) {
+                            int row = rowsById.get(snapshot[next]);
+                            if (row != IdRowIndex.MISSING) {
+                                batch.add(rows.task(row));
+                            }
+                        }
+                    } finally {
+                        lock.readLock().unlock();
+                    }
+                }
+                action.accept(batch.get(batchPosition++));
+                return true;
+            }
+        };
+        return StreamSupport.stream(tasks, false);
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public Page<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Pageable pageable) {
+        Sort.Order[] orders = knownOrders(pageable.getSort().toList());
+        lock.readLock().lock();
+        try {
+            int[] matching = matchingRows(state, priority, text, row -> true);
+            if (orders.length > 0) {
+                sortRows(matching, orders);
+            }
+            int from = (int) Math.min(pageable.getOffset(), matching.length);
+            int to = Math.min(from + pageable.getPageSize(), matching.length);
+            List<Task> page = new ArrayList<>(to - from);
+            for (int i = from; i < to; i++) {
+                page.add(rows.task(matching[i]));
+            }
+            return new PageImpl<>(page, pageable, matching.length);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public Window<Task> scrollByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int limit) {
+        List<Sort.Order> requested = sort.isUnsorted() ? List.of(Sort.Order.asc("id")) : sort.toList();
+        Sort.Order[] orders = knownOrders(requested);
+        if (requested.size() != 1 || orders.length != 1) {
+            return null;
+        }
+        List<Task> tasks;
+        lock.readLock().lock();
+        try {
+            IntPredicate after = row -> true;
+            if (!position.isInitial()) {
+                Task last = TaskKeyset.positionTask(position);
+                int lastId = last.getId();
+                long lastDueDate = dueDateKey(TaskRows.micros(last.getDueDate()));
+                int lastPriority = priorityKey(last.getPriority() == null ? TaskRows.NULL_PRIORITY : (byte) last.getPriority().ordinal());
+                after = row -> compare(orders, rows.id(row), dueDateKey(rows.dueDate(row)), priorityKey(rows.priority(row)), lastId, lastDueDate, lastPriority) > 0;
+            }
+            int[] matching = matchingRows(state, priority, text, after);
+            sortRows(matching, orders);
+            tasks = new ArrayList<>(Math.min(matching.length, limit + 1));
+            for (int i = 0; i < matching.length && i <= limit; i++) {
+                tasks.add(rows.task(matching[i]));
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        boolean hasNext = tasks.size() > limit;
+        List<Task> window = hasNext ? tasks.subList(0, limit) : tasks;
+        return Window.from(window, i -> TaskKeyset.positionOf(window.get(i)), hasNext);
+    }
+
+    private static Sort.Order[] knownOrders(List<Sort.Order> orders) {
+        return orders.stream().filter(order -> SORT_PROPERTIES.contains(order.getProperty())).toArray(Sort.Order[]::new);
+    }
+
+    // only called under the lock; the rows come out in storage order
+    private int[] matchingRows(Boolean state, String priority, String text, IntPredicate extra) {
+        int wantedPriority = ANY_PRIORITY;
+        if (priority != null) {
+            wantedPriority = TaskRows.NULL_PRIORITY;
+            for (Priority candidate : PRIORITIES) {
+                if (candidate.name().equalsIgnoreCase(priority)) {
+                    wantedPriority = candidate.ordinal();
+                }
+            }
+            if (wantedPriority == TaskRows.NULL_PRIORITY) {
+                return new int[0];
+            }
+        }
+        String lowerText = text == null ? null : text.toLowerCase();
+        byte[] asciiNeedle = lowerText == null ? null : TaskTextArena.asciiNeedle(lowerText);
+        int[] matching = new int[16];
+        int count = 0;
+        int size = rows.size();
+        for (int row = 0; row < size; row++) {
+            if ((state == null || rows.state(row) == state)
+                    && (wantedPriority == ANY_PRIORITY || rows.priority(row) == wantedPriority)
+                    && (lowerText == null || rows.textContains(row, lowerText, asciiNeedle))
+                    && extra.test(row)) {
+                if (count == matching.length) {
+                    matching = Arrays.copyOf(matching, count * 2);
+                }
+                matching[count++] = row;
+            }
+        }
+        return Arrays.copyOf(matching, count);
+    }
+
+    // merge sort over row numbers, reading the keys straight from the rows
+    private void sortRows(int[] matching, Sort.Order[] orders) {
+        int[] buffer = new int[matching.length];
+        int[] from = matching;
+        int[] to = buffer;
+        for (int width = 1; width < matching.length; width *= 2) {
+            for (int start = 0; start < matching.length; start += 2 * width) {
+                int middle = Math.min(start + width, matching.length);
+                int end = Math.min(start + 2 * width, matching.length);
+                int left = start;
+                int right = middle;
+                for (int i = start; i < end; i++) {
+                    if (left < middle && (right >= end || compareRows(orders, from[left], from[right]) <= 0)) {
+                        to[i] = from[left++];
+                    } else {
+                        to[i] = from[right++];
+                    }
+                }
+            }
+            int[] swap = from;
+            from = to;
+            to = swap;
+        }
+        if (from != matching) {
+            System.arraycopy(from, 0, matching, 0, matching.length);
+        }
+    }
+
+    private int compareRows(Sort.Order[] orders, int a, int b) {
+        return compare(orders, rows.id(a), dueDateKey(rows.dueDate(a)), priorityKey(rows.priority(a)),
+                rows.id(b), dueDateKey(rows.dueDate(b)), priorityKey(rows.priority(b)));
+    }
+
+    private static int compare(Sort.Order[] orders, int idA, long dueDateA, int priorityA, int idB, long dueDateB, int priorityB) {
+        for (Sort.Order order : orders) {
+            int result = switch (order.getProperty()) {
+                case "id" -> Integer.compare(idA, idB);
+                case "priority" -> Integer.compare(priorityA, priorityB);
+                case "dueDate" -> Long.compare(dueDateA, dueDateB);
+                default -> dueDateA != dueDateB ? Long.compare(dueDateA, dueDateB) : Integer.compare(priorityA, priorityB);
+            };
+            if (result != 0) {
+                return order.isDescending() ? -result : result;
+            }
+        }
+        return Integer.compare(idA, idB);
+    }
+
+    // sort keys that put null after every value
+    private static long dueDateKey(long dueDate) {
+        return dueDate == TaskRows.NULL_TIME ? Long.MAX_VALUE : dueDate;
+    }
+
+    private static int priorityKey(byte priority) {
+        return priority == TaskRows.NULL_PRIORITY ? Integer.MAX_VALUE : priority;
+    }
+}
@@ -0,0 +1,97 @@
+package com.encora.todolist_app.repository;
+
+import java.util.Arrays;
+
+// task id to row with linear probing in two int arrays; a removed id pulls the later ids of its run back into the gap,
+// so lookups stop at the first empty slot without tombstones
+final class IdRowIndex {
+
+    static final int MISSING = -1;
+
+    private int[] ids = new int[16];
+    private int[] rows = newRows(16);
+    private int size;
+
+    int get(int id) {
+        int mask = ids.length - 1;
+        for (int slot = slotOf(id, mask); rows[slot] != MISSING; slot = (slot + 1) & mask) {
+            if (ids[slot] == id) {
+                return rows[slot];
+            }
+        }
+        return MISSING;
+    }
+
+    void put(int id, int row) {
+        // kept at most three quarters full, longer runs would make every lookup probe further
+        if ((size + 1) * 4L > ids.length * 3L) {
+            resize(ids.length * 2);
+        }
+        int mask = ids.length - 1;
+        int slot = slotOf(id, mask);
+        while (rows[slot] != MISSING && ids[slot] != id) {
+            slot = (slot + 1) & mask;
+        }
+        if (rows[slot] == MISSING) {
+            size++;
+        }
+        ids[slot] = id;
+        rows[slot] = row;
+    }
+
+    void remove(int id) {
+        int mask = ids.length - 1;
+        int hole = slotOf(id, mask);
+        while (rows[hole] != MISSING && ids[hole] != id) {
+            hole = (hole + 1) & mask;
+        }
+        if (rows[hole] == MISSING) {
+            return;
+        }
+        for (int next = (hole + 1) & mask; rows[next] != MISSING; next = (next + 1) & mask) {
+            // an id can only move back if the gap is not before the slot it hashes to
+            int home = slotOf(ids[next], mask);
+            if (((next - home) & mask) >= ((next - hole) & mask)) {
+                ids[hole] = ids[next];
+                rows[hole] = rows[next];
+                hole = next;
+            }
+        }
+        rows[hole] = MISSING;
+        size--;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void resize(int capacity) {
+        int[] oldIds = ids;
+        int[] oldRows = rows;
+        ids = new int[capacity];
+        rows = newRows(capacity);
+        int mask = capacity - 1;
+        for (int i = 0; i < oldIds.length; i++) {
+            if (oldRows[i] != MISSING) {
+                int slot = slotOf(oldIds[i], mask);
+                while (rows[slot] != MISSING) {
+                    slot = (slot + 1) & mask;
+                }
+                ids[slot] = oldIds[i];
+                rows[slot] = oldRows[i];
+            }
+        }
+    }
+
+    // ids are mostly consecutive, the multiplication spreads them over the whole table
+    private static int slotOf(int id, int mask) {
+        int hash = id * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    private static int[] newRows(int capacity) {
+        int[] rows = new int[capacity];
+        Arrays.fill(rows, MISSING);
+        return rows;
+    }
+}
@@ -1,112 +1,582 @@
 package com.encora.todolist_app.repository;
 
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.journal.TaskJournal;
 import com.encora.todolist_app.utils.comparators.UrgentTaskComparator;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.stereotype.Repository;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
-@Repository
 public class InMemoryTaskRepository implements TaskRepository {
 
-    Map<Integer, Task> taskMap = new HashMap<>();
-    private Integer nextId = 0;
+    private static final int ENTRY_LOCKS = 256;
+    // pages that end within the first quarter of the matches are picked out with a bounded heap instead of a full sort
+    private static final int TOP_TASKS_RATIO = 4;
+
+    private static final Map<String, Comparator<Task>> SORT_PROPERTIES = Map.of(
+            "id", Comparator.comparing(Task::getId),
+            "priority", Comparator.comparing(Task::getPriority, Comparator.nullsLast(Comparator.naturalOrder())),
+            "dueDate", Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())),
+            "urgency", new UrgentTaskComparator());
+
+    private static final Sort ID_ORDER = Sort.by("id");
+
+    final IntObjectMap<Task> taskMap = new IntObjectMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    private final AtomicLong version = new AtomicLong();
+    private final StatePriorityIndex statePriorityIndex = new StatePriorityIndex();
+    private final TrigramIndex trigramIndex = new TrigramIndex();
+    private final Map<String, SortedTaskIndex> sortedIndexes = SORT_PROPERTIES.entrySet().stream()
+            .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, entry -> new SortedTaskIndex(entry.getValue())));
+    private final TaskJournal journal;
+    // writers share the read side, a checkpoint takes the write side only while the journal switches generation
+    private final ReentrantReadWriteLock generationLock = new ReentrantReadWriteLock();
+    private final Lock checkpointLock = new ReentrantLock();
+    // writers of one id are serialized here, so the journal and the indexes are written outside the map's own lock;
+    // these are not monitors, a virtual thread waiting under a monitor would pin its carrier thread
+    private final Lock[] entryLocks = new Lock[ENTRY_LOCKS];
+    // tasks visited against tasks that passed the filter, for the full filter and for the walk of a sorted index
+    private final DistributionSummary filterScanned;
+    private final DistributionSummary filterMatched;
+    private final DistributionSummary indexScanned;
+    private final DistributionSummary indexMatched;
+    private final Timer sortTimer;
+    // building the page out of the sorted matches; a walk of a sorted index builds the page as it scans,
+    // its time is the time of the whole query
+    private final Timer pageTimer;
+    // filters over at least parallelThreshold candidates and sorts of at least as many matches are split over this
+    // pool, sized apart from the request threads; null when queries always run on the calling thread
+    private final ForkJoinPool queryPool;
+    private final int parallelThreshold;
+
+    public InMemoryTaskRepository() {
+        this(TaskJournal.NONE);
+    }
+
+    // the meters of a composite registry without registries record nothing
+    public InMemoryTaskRepository(TaskJournal journal) {
+        this(journal, new CompositeMeterRegistry());
+    }
+
+    public InMemoryTaskRepository(TaskJournal journal, MeterRegistry meterRegistry) {
+        this(journal, meterRegistry, 1, Integer.MAX_VALUE);
+    }
+
+    // a parallelism below 2 keeps every query on the calling thread
+    public InMemoryTaskRepository(TaskJournal journal, MeterRegistry meterRegistry, int parallelism, int parallelThreshold) {
+        for (int i = 0; i < entryLocks.length; i++) {
+            entryLocks[i] = new ReentrantLock();
+        }
+        this.journal = journal;
+        this.filterScanned = DistributionSummary.builder("todolist.repository.query.scanned").tag("path", "filter").register(meterRegistry);
+        this.filterMatched = DistributionSummary.builder("todolist.repository.query.matched").tag("path", "filter").register(meterRegistry);
+        this.indexScanned = DistributionSummary.builder("todolist.repository.query.scanned").tag("path", "sortedIndex").register(meterRegistry);
+        this.indexMatched = DistributionSummary.builder("todolist.repository.query.matched").tag("path", "sortedIndex").register(meterRegistry);
+        this.sortTimer = Timer.builder("todolist.repository.query.sort").register(meterRegistry);
+        this.pageTimer = Timer.builder("todolist.repository.query.page").register(meterRegistry);
+        this.queryPool = parallelism < 2 ? null : new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("task-query-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        this.parallelThreshold = parallelThreshold;
+        journal.replay(this::restore);
+    }
+
+    public void close() {
+        if (queryPool != null) {
+            queryPool.shutdown();
+        }
+    }
+
+    private void restore(Integer id, Task task) {
+        Task current = task != null ? taskMap.put(id, task) : taskMap.remove(id);
+        if (current != null) {
+            unindex(id, current);
+        }
+        if (task != null) {
+            index(id, task);
+            nextId.accumulateAndGet(id + 1, Math::max);
+        }
+    }
+
+    public void checkpoint() {
+        checkpointLock.lock();
+        try {
+            long generation;
+            generationLock.writeLock().lock();
+            try {
+                generation = journal.rotate();
+            } finally {
+                generationLock.writeLock().unlock();
+            }
+            if (generation >= 0) {
+                journal.snapshot(generation, taskMap.stream()::iterator);
+            }
+        } finally {
+            checkpointLock.unlock();
+        }
+    }
 
     @Override
     public Task save(Task task) {
-        if (task.getId() == null) {
-            task.setId(nextId++);
-        }else{
-            if (taskMap.containsKey(task.getId())){
-                return null;
+        boolean stored;
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            stored = store(task, LocalDateTime.now());
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        if (stored) {
+            journal.sync();
+        }
+        return stored ? task : null;
+    }
+
+    // one lock acquisition and one journal sync for the whole batch
+    @Override
+    public List<Task> saveAll(List<Task> tasks) {
+        LocalDateTime creationDate = LocalDateTime.now();
+        List<Task> saved = new ArrayList<>(tasks.size());
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            for (Task task : tasks) {
+                if (store(task, creationDate)) {
+                    saved.add(task);
+                }
             }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        if (!saved.isEmpty()) {
+            journal.sync();
+        }
+        return saved;
+    }
+
+    private boolean store(Task task, LocalDateTime creationDate) {
+        task.setCreationDate(creationDate);
+        if (task.getId() != null) {
+            return insert(task);
+        }
+        // generated ids may collide with ids that were saved explicitly, keep drawing until one is free
+        do {
+            task.setId(nextId.getAndIncrement());
+        } while (!insert(task));
+        return true;
+    }
+
+    private boolean insert(Task task) {
+        Integer id = task.getId();
+        Lock entryLock = entryLock(id);
+        entryLock.lock();
+        try {
+            if (taskMap.containsKey(id)) {
+                return false;
+            }
+            journal.put(task);
+            index(id, task);
+            taskMap.put(id, task);
+            version.incrementAndGet();
+            return true;
+        } finally {
+            entryLock.unlock();
         }
-        task.setCreationDate(LocalDateTime.now());
-        taskMap.put(task.getId(), task);
-        return task;
     }
 
 
+    // stored tasks are shared between request threads, callers get their own copy to modify
     @Override
     public Optional<Task> findById(Integer id) {
-        return Optional.ofNullable(taskMap.get(id));
+        return Optional.ofNullable(taskMap.get(id)).map(Task::new);
     }
 
 
     @Override
     public Page<Task> findAll(Pageable pageable) {
-        List<Task> allTasks = new ArrayList<>(taskMap.values());
-        if (pageable.getSort().isSorted()) {
-            Comparator<Task> comparator = getTaskComparator(pageable);
-            if (comparator != null) {
-                allTasks.sort(comparator);
-            }
-        }
-        return getPagedResult(allTasks, pageable);
+        return findAllByStateAndPriorityAndText(null, null, null, pageable);
     }
 
     @Override
     public List<Task> getAllTask(){
-        Collection<Task> collectionTask = taskMap.values();
-        return new ArrayList<>(collectionTask);
+        return taskMap.values();
     }
 
+    // weakly consistent: tasks changed while the stream is consumed may show up in either version
     @Override
-    public void deleteById(Integer id) {
-        taskMap.remove(id);
+    public Stream<Task> streamAll() {
+        return taskMap.stream();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    @Override
+    public Task deleteById(Integer id) {
+        Task deleted = null;
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            Lock entryLock = entryLock(id);
+            entryLock.lock();
+            try {
+                Task current = taskMap.get(id);
+                if (current != null) {
+                    journal.delete(id);
+                    unindex(id, current);
+                    taskMap.remove(id);
+                    version.incrementAndGet();
+                    deleted = current;
+                }
+            } finally {
+                entryLock.unlock();
+            }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        if (deleted != null) {
+            journal.sync();
+        }
+        return deleted;
     }
 
     @Override
     public Task replaceTask(Integer id, Task task) {
-        Task taskAux = taskMap.get(id);
-        if (taskAux != null){
-            task.setCreationDate(taskAux.getCreationDate());
-            taskMap.replace(id,task);
-            return taskMap.get(id);
+        Task replaced;
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            replaced = replace(id, current -> true, current -> task) != null ? task : null;
+        } finally {
+            generationLock.readLock().unlock();
         }
-        return null;
+        if (replaced != null) {
+            journal.sync();
+        }
+        return replaced;
+    }
+
+    @Override
+    public boolean replaceTask(Integer id, Task expected, Task task) {
+        task.setCreationDate(expected.getCreationDate());
+        boolean replaced;
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            replaced = replace(id, current -> current.equals(expected), current -> task) != null;
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        if (replaced) {
+            journal.sync();
+        }
+        return replaced;
+    }
+
+    @Override
+    public List<TaskChange> updateAll(List<Integer> ids, UnaryOperator<Task> change) {
+        return update(ids, task -> true, change);
+    }
+
+    @Override
+    public List<TaskChange> updateAllByStateAndPriorityAndText(Boolean state, String priority, String text, UnaryOperator<Task> change) {
+        int[] slots = statePriorityIndex.slots(state, priority);
+        String lowerText = text == null ? null : text.toLowerCase();
+        List<Integer> ids = filterTasks(state, priority, lowerText, false).stream().map(Task::getId).toList();
+        // a task can change between the filter and its update, it is only updated if it still matches
+        return update(ids, task -> containsSlot(slots, StatePriorityIndex.slotOf(task)) && containsText(task, lowerText), change);
+    }
 
+    // one lock acquisition and one journal sync for the whole batch, each task still changes atomically with its indexes
+    private List<TaskChange> update(List<Integer> ids, Predicate<Task> filter, UnaryOperator<Task> change) {
+        List<TaskChange> changes = new ArrayList<>(ids.size());
+        boolean changed = false;
+        journal.awaitCapacity();
+        generationLock.readLock().lock();
+        try {
+            for (Integer id : ids) {
+                TaskChange taskChange = replace(id, filter, change);
+                if (taskChange != null) {
+                    changes.add(taskChange);
+                    changed |= taskChange.after() != taskChange.before();
+                }
+            }
+        } finally {
+            generationLock.readLock().unlock();
+        }
+        if (changed) {
+            journal.sync();
+        }
+        return changes;
+    }
+
+    // null when the task is missing or does not pass the filter
+    private TaskChange replace(Integer id, Predicate<Task> filter, UnaryOperator<Task> change) {
+        Lock entryLock = entryLock(id);
+        entryLock.lock();
+        try {
+            Task current = taskMap.get(id);
+            if (current == null || !filter.test(current)) {
+                return null;
+            }
+            Task task = change.apply(current);
+            if (task != current) {
+                task.setCreationDate(current.getCreationDate());
+                journal.put(task);
+                reindex(id, current, task);
+                taskMap.put(id, task);
+                version.incrementAndGet();
+            }
+            return new TaskChange(current, task);
+        } finally {
+            entryLock.unlock();
+        }
+    }
+
+    private Lock entryLock(Integer id) {
+        return entryLocks[id & (ENTRY_LOCKS - 1)];
+    }
+
+    // only called while holding the entry lock, so the indexes change atomically with the task they describe;
+    // the journal is written first, a record that cannot be logged leaves the map and indexes untouched
+    private void index(Integer id, Task task) {
+        statePriorityIndex.add(id, task);
+        trigramIndex.add(id, task.getText());
+        sortedIndexes.values().forEach(index -> index.add(id, task));
+    }
+
+    private void unindex(Integer id, Task task) {
+        statePriorityIndex.remove(id, task);
+        trigramIndex.remove(id, task.getText());
+        sortedIndexes.values().forEach(index -> index.remove(id, task));
+    }
+
+    private void reindex(Integer id, Task current, Task task) {
+        statePriorityIndex.remove(id, current);
+        statePriorityIndex.add(id, task);
+        sortedIndexes.values().forEach(index -> {
+            index.remove(id, current);
+            index.add(id, task);
+        });
+        if (!Objects.equals(current.getText(), task.getText())) {
+            trigramIndex.remove(id, current.getText());
+            trigramIndex.add(id, task.getText());
+        }
     }
 
     @Override
     public Page<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Pageable pageable) {
-        List<Task> filteredTasks = taskMap.values().stream()
-                .filter(task -> state == null || task.isState() == state)
-                .filter(task -> priority == null || task.getPriority().toString().equalsIgnoreCase(priority))
-                .filter(task -> text == null || (task.getText() != null && task.getText().toLowerCase().contains(text.toLowerCase())))
-                .collect(Collectors.toList());
-        if (pageable.getSort().isSorted()) {
-            Comparator<Task> comparator = getTaskComparator(pageable);
-            if (comparator != null) {
-                filteredTasks.sort(comparator);
+        // without a sort the pages come in id order, as they do from the database, rather than in bucket order
+        Sort sort = pageable.getSort().isSorted() ? pageable.getSort() : ID_ORDER;
+        Sort.Order order = singleIndexedOrder(sort);
+        if (order != null && text == null) {
+            int[] slots = statePriorityIndex.slots(state, priority);
+            int total = statePriorityIndex.count(slots);
+            if (total == 0) {
+                return new PageImpl<>(List.of(), pageable, 0);
+            }
+            // the walk only visits tasks of the requested slots, it pays off while the page ends before the matches do
+            if (pageable.getOffset() + pageable.getPageSize() <= total) {
+                return walkSortedIndex(sortedIndexes.get(order.getProperty()), order.isDescending(), slots, total, pageable);
+            }
+        }
+        Comparator<Task> comparator = getTaskComparator(sort);
+        List<Task> filteredTasks = filterTasks(state, priority, text == null ? null : text.toLowerCase(), true);
+        long window = pageable.getOffset() + pageable.getPageSize();
+        if (window * TOP_TASKS_RATIO <= filteredTasks.size()) {
+            List<Task> firstTasks = sortTimer.record(() -> TopTasks.of(filteredTasks, comparator, (int) window));
+            return pageTimer.record(() -> new PageImpl<>(firstTasks.subList((int) pageable.getOffset(), firstTasks.size()), pageable, filteredTasks.size()));
+        }
+        if (isParallel(filteredTasks.size())) {
+            Task[] sortedTasks = filteredTasks.toArray(Task[]::new);
+            // run from a worker of the pool, the sort forks its tasks there rather than in the common pool
+            sortTimer.record(() -> queryPool.submit(() -> Arrays.parallelSort(sortedTasks, comparator)).join());
+            return pageTimer.record(() -> getPagedResult(Arrays.asList(sortedTasks), pageable));
+        }
+        sortTimer.record(() -> filteredTasks.sort(comparator));
+        return pageTimer.record(() -> getPagedResult(filteredTasks, pageable));
+    }
+
+    @Override
+    public Window<Task> scrollByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int limit) {
+        Sort.Order order = sort.isUnsorted() ? Sort.Order.asc("id") : singleIndexedOrder(sort);
+        if (order == null) {
+            return null;
+        }
+        SortedTaskIndex index = sortedIndexes.get(order.getProperty());
+        int[] slots = statePriorityIndex.slots(state, priority);
+        // seeks into the sets of the requested slots only, so without text a window costs about size seeks and steps
+        // however selective the filter or deep the cursor; a text filter still steps past the tasks it rejects
+        Iterator<SortedTaskIndex.Entry> entries = position.isInitial()
+                ? index.iterator(order.isDescending(), slots)
+                : index.iteratorAfter(TaskKeyset.positionTask(position), order.isDescending(), slots);
+        String lowerText = text == null ? null : text.toLowerCase();
+        List<Task> tasks = new ArrayList<>(limit + 1);
+        while (tasks.size() <= limit && entries.hasNext()) {
+            SortedTaskIndex.Entry entry = entries.next();
+            if (taskMap.get(entry.id()) == entry.task() && containsText(entry.task(), lowerText)) {
+                tasks.add(entry.task());
             }
         }
-        return getPagedResult(filteredTasks, pageable);
+        boolean hasNext = tasks.size() > limit;
+        List<Task> window = hasNext ? tasks.subList(0, limit) : tasks;
+        return Window.from(window, i -> TaskKeyset.positionOf(window.get(i)), hasNext);
+    }
+
+    private static Sort.Order singleIndexedOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        if (orders.size() == 1 && SORT_PROPERTIES.containsKey(orders.get(0).getProperty())) {
+            return orders.get(0);
+        }
+        return null;
+    }
+
+    private Page<Task> walkSortedIndex(SortedTaskIndex index, boolean descending, int[] slots, int total, Pageable pageable) {
+        List<Task> pagedTasks = new ArrayList<>(pageable.getPageSize());
+        long toSkip = pageable.getOffset();
+        long scanned = 0;
+        Iterator<SortedTaskIndex.Entry> entries = index.iterator(descending, slots);
+        while (pagedTasks.size() < pageable.getPageSize() && entries.hasNext()) {
+            SortedTaskIndex.Entry entry = entries.next();
+            scanned++;
+            // entries of a task that is being replaced are skipped until the map holds the same instance
+            if (taskMap.get(entry.id()) == entry.task()) {
+                if (toSkip > 0) {
+                    toSkip--;
+                } else {
+                    pagedTasks.add(entry.task());
+                }
+            }
+        }
+        indexScanned.record(scanned);
+        indexMatched.record(pageable.getOffset() - toSkip + pagedTasks.size());
+        return new PageImpl<>(pagedTasks, pageable, total);
+    }
+
+    // only a query that sorts the matches afterwards may filter in parallel, the pool collects them in no fixed order
+    // and an unsorted page has to come out the same on every request
+    private List<Task> filterTasks(Boolean state, String priority, String lowerText, boolean sorted) {
+        int[] slots = statePriorityIndex.slots(state, priority);
+        List<Task> filteredTasks = new ArrayList<>();
+        long scanned = 0;
+        if (TrigramIndex.canNarrow(lowerText)) {
+            List<Set<Integer>> postings = trigramIndex.postings(lowerText);
+            if (postings.isEmpty()) {
+                return recordScan(filteredTasks, scanned);
+            }
+            if (postings.get(0).size() < statePriorityIndex.count(slots)) {
+                for (Integer id : postings.get(0)) {
+                    scanned++;
+                    if (inAll(postings, id)) {
+                        Task task = taskMap.get(id);
+                        if (task != null && containsSlot(slots, StatePriorityIndex.slotOf(task)) && containsText(task, lowerText)) {
+                            filteredTasks.add(task);
+                        }
+                    }
+                }
+                return recordScan(filteredTasks, scanned);
+            }
+        }
+        int candidates = statePriorityIndex.count(slots);
+        if (sorted && isParallel(candidates)) {
+            return recordScan(filterInQueryPool(slots, lowerText), candidates);
+        }
+        for (int slot : slots) {
+            for (Integer id : statePriorityIndex.ids(slot)) {
+                scanned++;
+                Task task = taskMap.get(id);
+                // a task moved to another bucket after we read its id is picked up from that bucket only
+                if (task != null && StatePriorityIndex.slotOf(task) == slot && containsText(task, lowerText)) {
+                    filteredTasks.add(task);
+                }
+            }
+        }
+        return recordScan(filteredTasks, scanned);
+    }
+
+    // the same scan split over the query pool a bucket at a time
+    private List<Task> filterInQueryPool(int[] slots, String lowerText) {
+        return queryPool.submit(() -> {
+            List<Task> filteredTasks = new ArrayList<>();
+            for (int slot : slots) {
+                filteredTasks.addAll(statePriorityIndex.ids(slot).parallelStream()
+                        .map(id -> taskMap.get(id))
+                        .filter(task -> task != null && StatePriorityIndex.slotOf(task) == slot && containsText(task, lowerText))
+                        .toList());
+            }
+            return filteredTasks;
+        }).join();
+    }
+
+    private boolean isParallel(int count) {
+        return queryPool != null && count >= parallelThreshold;
+    }
+
+    private List<Task> recordScan(List<Task> filteredTasks, long scanned) {
+        filterScanned.record(scanned);
+        filterMatched.record(filteredTasks.size());
+        return filteredTasks;
+    }
+
+    private static boolean inAll(List<Set<Integer>> postings, Integer id) {
+        for (int i = 1; i < postings.size(); i++) {
+            if (!postings.get(i).contains(id)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean containsSlot(int[] slots, int slot) {
+        for (int candidate : slots) {
+            if (candidate == slot) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean containsText(Task task, String lowerText) {
+        return lowerText == null || (task.getText() != null && task.getText().toLowerCase().contains(lowerText));
     }
 
     private Page<Task> getPagedResult(List<Task> tasks, Pageable pageable) {
         int pageSize = pageable.getPageSize();
         int currentPage = pageable.getPageNumber();
-        int start = currentPage * pageSize;
+        int start = Math.min(currentPage * pageSize, tasks.size());
         int end = Math.min(start + pageSize, tasks.size());
         List<Task> pagedTasks = tasks.subList(start, end);
         return new PageImpl<>(pagedTasks, pageable, tasks.size());
     }
-    private static Comparator<Task> getTaskComparator(Pageable pageable) {
+    private static Comparator<Task> getTaskComparator(Sort sort) {
         Comparator<Task> comparator = null;
-        for (Sort.Order order : pageable.getSort()) {
-            Comparator<Task> currentComparator = switch (order.getProperty()) {
-                case "priority" -> Comparator.comparing(Task::getPriority);
-                case "dueDate" -> Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder()));
-                case "urgency" -> new UrgentTaskComparator();
-                default -> null;
-            };
+        for (Sort.Order order : sort) {
+            Comparator<Task> currentComparator = SORT_PROPERTIES.get(order.getProperty());
             if (currentComparator != null) {
                 if (order.getDirection() == Sort.Direction.DESC) {
                     currentComparator = currentComparator.reversed();
@@ -118,6 +588,9 @@ public class InMemoryTaskRepository implements TaskRepository {
                 }
             }
         }
-        return comparator;
+        // ties are broken by id so the sorted indexes and a full sort agree on every page, a sort on nothing it knows
+        // falls back to id order
+        Comparator<Task> byId = SORT_PROPERTIES.get("id");
+        return comparator == null ? byId : comparator.thenComparing(byId);
     }
-}
\ No newline at end of file
+}
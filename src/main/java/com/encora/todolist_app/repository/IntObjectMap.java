@@ -0,0 +1,270 @@
+package com.encora.todolist_app.repository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// int keys to values with linear probing in an int array and an object array, so neither the key nor an entry is
+// ever boxed; a removed key leaves a tombstone that lookups probe past and inserts reuse, unless it ends its run, and
+// the table is rebuilt once values and tombstones fill three quarters of it. Lookups read optimistically without
+// locking and only retry under the read lock when a write got in between; writes are serialized
+final class IntObjectMap<V> {
+
+    private static final Object TOMBSTONE = new Object();
+    private static final int STREAM_BATCH_SLOTS = 1024;
+
+    private final StampedLock lock = new StampedLock();
+    // an empty slot holds null, a removed one TOMBSTONE
+    private int[] keys;
+    private Object[] values;
+    private int size;
+    private int tombstones;
+
+    IntObjectMap() {
+        this(16);
+    }
+
+    IntObjectMap(int expectedSize) {
+        int capacity = tableSizeFor(expectedSize);
+        keys = new int[capacity];
+        values = new Object[capacity];
+    }
+
+    V get(int key) {
+        long stamp = lock.tryOptimisticRead();
+        if (stamp != 0) {
+            // the arrays may be replaced or written while they are read, nothing read is trusted before validate
+            Object value = find(keys, values, key);
+            if (lock.validate(stamp)) {
+                return value(value);
+            }
+        }
+        stamp = lock.readLock();
+        try {
+            return value(find(keys, values, key));
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    boolean containsKey(int key) {
+        return get(key) != null;
+    }
+
+    // returns the value it replaced, null when the key was absent; null values are not allowed
+    V put(int key, V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key);
+            if (slot >= 0) {
+                V previous = value(values[slot]);
+                values[slot] = value;
+                return previous;
+            }
+            if ((size + tombstones + 1) * 4L > keys.length * 3L) {
+                // twice the size unless mostly tombstones are filling it, then the same size without them
+                rehash((size + 1) * 2L > keys.length ? keys.length * 2 : keys.length);
+            }
+            insert(key, value);
+            return null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    V remove(int key) {
+        long stamp = lock.writeLock();
+        try {
+            int slot = slotOf(key);
+            if (slot < 0) {
+                return null;
+            }
+            V previous = value(values[slot]);
+            values[slot] = TOMBSTONE;
+            size--;
+            tombstones++;
+            // tombstones that end a run are not needed to reach anything, empty them so they do not add up to a rehash
+            int mask = keys.length - 1;
+            while (values[(slot + 1) & mask] == null && values[slot] == TOMBSTONE) {
+                values[slot] = null;
+                tombstones--;
+                slot = (slot - 1) & mask;
+            }
+            return previous;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    int size() {
+        long stamp = lock.tryOptimisticRead();
+        int current = size;
+        if (lock.validate(stamp)) {
+            return current;
+        }
+        stamp = lock.readLock();
+        try {
+            return size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // a copy, in table order; writers wait for the whole copy, stream does not hold them off
+    List<V> values() {
+        long stamp = lock.readLock();
+        try {
+            List<V> copy = new ArrayList<>(size);
+            for (Object value : values) {
+                if (value != null && value != TOMBSTONE) {
+                    copy.add(value(value));
+                }
+            }
+            return copy;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    // weakly consistent: the slots are read a batch at a time, each batch under a short hold of the read lock, so writers
+    // only ever wait for one batch. A value present for the whole stream comes out exactly once, since values keep
+    // their slot until removed; a rehash leaves the table the stream started on as it was, and the stream finishes on
+    // it. Values put or removed while the stream is consumed may or may not come out
+    Stream<V> stream() {
+        Object[] table;
+        int expectedSize;
+        long stamp = lock.readLock();
+        try {
+            table = values;
+            expectedSize = size;
+        } finally {
+            lock.unlockRead(stamp);
+        }
+        Spliterator<V> spliterator = new Spliterators.AbstractSpliterator<>(expectedSize, Spliterator.NONNULL) {
+            private final Object[] batch = new Object[STREAM_BATCH_SLOTS];
+            private int batchSize;
+            private int batchPosition;
+            private int nextSlot;
+
+            @Override
+            public boolean tryAdvance(Consumer<? super V> action) {
+                while (batchPosition == batchSize) {
+                    if (nextSlot == table.length) {
+                        return false;
+                    }
+                    readBatch();
+                }
+                V value = value(batch[batchPosition]);
+                batch[batchPosition++] = null;
+                action.accept(value);
+                return true;
+            }
+
+            private void readBatch() {
+                int to = Math.min(nextSlot + STREAM_BATCH_SLOTS, table.length);
+                batchSize = 0;
+                batchPosition = 0;
+                long stamp = lock.readLock();
+                try {
+                    for (; nextSlot < to; nextSlot++) {
+                        Object value = table[nextSlot];
+                        if (value != null && value != TOMBSTONE) {
+                            batch[batchSize++] = value;
+                        }
+                    }
+                } finally {
+                    lock.unlockRead(stamp);
+                }
+            }
+        };
+        return StreamSupport.stream(spliterator, false);
+    }
+
+    // stops at the first empty slot or after a full round, which only a table changing under an optimistic read needs,
+    // as do arrays of different lengths when one was read before a rehash and the other after
+    private static Object find(int[] keys, Object[] values, int key) {
+        if (keys.length != values.length) {
+            return null;
+        }
+        int mask = values.length - 1;
+        int slot = hash(key) & mask;
+        for (int probes = 0; probes <= mask; probes++) {
+            Object value = values[slot];
+            if (value == null) {
+                return null;
+            }
+            if (value != TOMBSTONE && keys[slot] == key) {
+                return value;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    // only called under the write lock; -1 when the key is absent
+    private int slotOf(int key) {
+        int mask = keys.length - 1;
+        for (int slot = hash(key) & mask; values[slot] != null; slot = (slot + 1) & mask) {
+            if (values[slot] != TOMBSTONE && keys[slot] == key) {
+                return slot;
+            }
+        }
+        return -1;
+    }
+
+    // the key is known to be absent, it takes the first tombstone or else the empty slot that ends its run
+    private void insert(int key, Object value) {
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (values[slot] != null && values[slot] != TOMBSTONE) {
+            slot = (slot + 1) & mask;
+        }
+        if (values[slot] == TOMBSTONE) {
+            tombstones--;
+        }
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+    }
+
+    private void rehash(int capacity) {
+        int[] oldKeys = keys;
+        Object[] oldValues = values;
+        keys = new int[capacity];
+        values = new Object[capacity];
+        size = 0;
+        tombstones = 0;
+        for (int slot = 0; slot < oldValues.length; slot++) {
+            if (oldValues[slot] != null && oldValues[slot] != TOMBSTONE) {
+                insert(oldKeys[slot], oldValues[slot]);
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <V> V value(Object value) {
+        return (V) value;
+    }
+
+    // ids are mostly consecutive, the multiplication spreads them over the table and the shift mixes in the high bits
+    private static int hash(int key) {
+        int h = key * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    private static int tableSizeFor(int expectedSize) {
+        int capacity = 16;
+        while (capacity * 3L < expectedSize * 4L) {
+            capacity *= 2;
+        }
+        return capacity;
+    }
+}
@@ -0,0 +1,488 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.TypedQuery;
+import org.hibernate.Session;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+// filters, sorts and pages run in the database with the same ordering rules as InMemoryTaskRepository:
+// nulls last when ascending, reversed as a whole when descending, ties broken by ascending id
+public class JpaTaskRepository implements TaskRepository {
+
+    private static final Map<String, List<String>> SORT_PROPERTIES = Map.of(
+            "id", List.of("id"),
+            "priority", List.of("priority"),
+            "dueDate", List.of("dueDate"),
+            "urgency", List.of("dueDate", "priority"));
+
+    // the same as hibernate.jdbc.batch_size in application-jpa.properties, so every flush is one JDBC batch
+    private static final int BATCH_SIZE = 500;
+    private static final String UNIQUE_VIOLATION = "23505";
+    private static final String INSERT = "insert into task (id, text, creation_date, due_date, done_date, time_frame, priority, state) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final EntityManager entityManager;
+    // ids are assigned here rather than by an identity column, which would stop Hibernate from batching inserts.
+    // An id handed out stays in drawnIds, as runs from start to end exclusive, until its transaction ends: the row is
+    // only flushed at commit, so until then an explicit id has no other way to tell it is taken
+    private final Lock idLock = new ReentrantLock();
+    private int nextId;
+    private final NavigableMap<Integer, Integer> drawnIds = new TreeMap<>();
+    // only counts changes made through this instance, other writers to the same database are not seen
+    private final AtomicLong version = new AtomicLong();
+
+    public JpaTaskRepository(EntityManager entityManager) {
+        this.entityManager = entityManager;
+        Integer maxId = entityManager.createQuery("select max(t.id) from Task t", Integer.class).getSingleResult();
+        nextId = maxId == null ? 0 : maxId + 1;
+    }
+
+    @Override
+    @Transactional
+    public Task save(Task task) {
+        // the column keeps microseconds, the saved task must be equal to what is read back
+        return persist(task, LocalDateTime.now().truncatedTo(ChronoUnit.MICROS)) ? task : null;
+    }
+
+    @Override
+    @Transactional
+    public List<Task> saveAll(List<Task> tasks) {
+        LocalDateTime creationDate = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        List<Task> saved = new ArrayList<>(tasks.size());
+        for (Task task : tasks) {
+            if (persist(task, creationDate)) {
+                saved.add(task);
+                if (saved.size() % BATCH_SIZE == 0) {
+                    entityManager.flush();
+                    entityManager.clear();
+                }
+            }
+        }
+        return saved;
+    }
+
+    private boolean persist(Task task, LocalDateTime creationDate) {
+        task.setCreationDate(creationDate);
+        if (task.getId() != null) {
+            // find also sees tasks persisted earlier in this transaction and not flushed yet
+            if (entityManager.find(Task.class, task.getId()) != null || !claimId(task.getId()) || !insert(task)) {
+                return false;
+            }
+        } else {
+            task.setId(drawId());
+            entityManager.persist(task);
+        }
+        modified();
+        return true;
+    }
+
+    private int drawId() {
+        idLock.lock();
+        try {
+            int id = nextId++;
+            List<int[]> runs = transactionDrawnIds();
+            int[] last = runs.isEmpty() ? null : runs.get(runs.size() - 1);
+            if (last != null && last[1] == id) {
+                drawnIds.put(last[0], ++last[1]);
+            } else {
+                runs.add(new int[]{id, id + 1});
+                drawnIds.put(id, id + 1);
+            }
+            return id;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // moves the next drawn id past this one, false when an open transaction has already drawn it
+    private boolean claimId(int id) {
+        idLock.lock();
+        try {
+            nextId = Math.max(nextId, id + 1);
+            Map.Entry<Integer, Integer> run = drawnIds.floorEntry(id);
+            return run == null || run.getValue() <= id;
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // only called under idLock; the runs leave drawnIds once the transaction has ended
+    @SuppressWarnings("unchecked")
+    private List<int[]> transactionDrawnIds() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return new ArrayList<>();
+        }
+        List<int[]> runs = (List<int[]>) TransactionSynchronizationManager.getResource(drawnIds);
+        if (runs == null) {
+            List<int[]> newRuns = new ArrayList<>();
+            TransactionSynchronizationManager.bindResource(drawnIds, newRuns);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    TransactionSynchronizationManager.unbindResourceIfPossible(drawnIds);
+                    idLock.lock();
+                    try {
+                        newRuns.forEach(run -> drawnIds.remove(run[0]));
+                    } finally {
+                        idLock.unlock();
+                    }
+                }
+            });
+            runs = newRuns;
+        }
+        return runs;
+    }
+
+    // a concurrent transaction can insert the same id between find and insert. Hibernate would mark the whole
+    // transaction rollback-only on the constraint violation, so the row goes in through plain JDBC on the transaction's
+    // connection behind a savepoint, and losing the race only rolls back that row
+    private boolean insert(Task task) {
+        return entityManager.unwrap(Session.class).doReturningWork(connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try (PreparedStatement statement = connection.prepareStatement(INSERT)) {
+                statement.setInt(1, task.getId());
+                statement.setString(2, task.getText());
+                statement.setObject(3, task.getCreationDate());
+                statement.setObject(4, task.getDueDate());
+                statement.setObject(5, task.getDoneDate());
+                // bound the way Hibernate maps them: a Duration as its nanoseconds, the priority as its ordinal
+                statement.setObject(6, task.getTimeFrame() == null ? null : task.getTimeFrame().toNanos());
+                statement.setObject(7, task.getPriority() == null ? null : task.getPriority().ordinal());
+                statement.setBoolean(8, task.isState());
+                statement.executeUpdate();
+            } catch (SQLException e) {
+                if (!UNIQUE_VIOLATION.equals(e.getSQLState())) {
+                    throw e;
+                }
+                connection.rollback(savepoint);
+                return false;
+            }
+            connection.releaseSavepoint(savepoint);
+            return true;
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Optional<Task> findById(Integer id) {
+        return Optional.ofNullable(entityManager.find(Task.class, id));
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return findAllByStateAndPriorityAndText(null, null, null, pageable);
+    }
+
+    @Override
+    @Transactional
+    public Task deleteById(Integer id) {
+        Task current = entityManager.find(Task.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (current != null) {
+            entityManager.remove(current);
+            modified();
+        }
+        return current;
+    }
+
+    @Override
+    @Transactional
+    public Task replaceTask(Integer id, Task task) {
+        Task current = entityManager.find(Task.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (current == null) {
+            return null;
+        }
+        task.setId(id);
+        task.setCreationDate(current.getCreationDate());
+        entityManager.merge(task);
+        modified();
+        return task;
+    }
+
+    @Override
+    @Transactional
+    public boolean replaceTask(Integer id, Task expected, Task task) {
+        Task current = entityManager.find(Task.class, id, LockModeType.PESSIMISTIC_WRITE);
+        if (current == null || !current.equals(expected)) {
+            return false;
+        }
+        task.setId(id);
+        task.setCreationDate(expected.getCreationDate());
+        entityManager.merge(task);
+        modified();
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public List<TaskChange> updateAll(List<Integer> ids, UnaryOperator<Task> change) {
+        List<TaskChange> changes = new ArrayList<>(ids.size());
+        // bounded IN lists, rows are locked in id order so concurrent batches cannot deadlock
+        List<Integer> sortedIds = ids.stream().distinct().sorted().toList();
+        for (int from = 0; from < sortedIds.size(); from += BATCH_SIZE) {
+            List<Task> tasks = entityManager.createQuery("select t from Task t where t.id in :ids order by t.id", Task.class)
+                    .setParameter("ids", sortedIds.subList(from, Math.min(from + BATCH_SIZE, sortedIds.size())))
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            apply(tasks, change, changes);
+        }
+        return changes;
+    }
+
+    @Override
+    @Transactional
+    public List<TaskChange> updateAllByStateAndPriorityAndText(Boolean state, String priority, String text, UnaryOperator<Task> change) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(state, priority, text, parameters);
+        if (where == null) {
+            return List.of();
+        }
+        // chunks in id order, each starting past the last id of the one before, so a broad filter never loads every
+        // matching row at once; the locks taken are still held until commit
+        String chunkWhere = (where.isEmpty() ? " where " : where + " and ") + "t.id >= :from";
+        List<TaskChange> changes = new ArrayList<>();
+        int from = Integer.MIN_VALUE;
+        List<Task> tasks;
+        do {
+            TypedQuery<Task> query = entityManager.createQuery("select t from Task t" + chunkWhere + " order by t.id", Task.class);
+            parameters.forEach(query::setParameter);
+            tasks = query.setParameter("from", from)
+                    .setMaxResults(BATCH_SIZE)
+                    .setLockMode(LockModeType.PESSIMISTIC_WRITE)
+                    .getResultList();
+            apply(tasks, change, changes);
+            if (!tasks.isEmpty()) {
+                from = tasks.get(tasks.size() - 1).getId() + 1;
+            }
+        } while (tasks.size() == BATCH_SIZE && from != Integer.MIN_VALUE);
+        return changes;
+    }
+
+    // each chunk is flushed and cleared like a saveAll batch, so the persistence context only ever holds one of them
+    private void apply(List<Task> tasks, UnaryOperator<Task> change, List<TaskChange> changes) {
+        for (Task current : tasks) {
+            // merge copies onto the managed instance, so the version before the change is kept apart
+            Task before = new Task(current);
+            Task after = change.apply(before);
+            if (after == before) {
+                changes.add(new TaskChange(before, before));
+                continue;
+            }
+            after.setId(current.getId());
+            after.setCreationDate(current.getCreationDate());
+            entityManager.merge(after);
+            modified();
+            changes.add(new TaskChange(before, after));
+        }
+        entityManager.flush();
+        entityManager.clear();
+    }
+
+    @Override
+    public long version() {
+        return version.get();
+    }
+
+    // counted once per transaction after it has ended, before that readers in other transactions still see the old rows
+    private void modified() {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version.incrementAndGet();
+            return;
+        }
+        if (TransactionSynchronizationManager.hasResource(version)) {
+            return;
+        }
+        TransactionSynchronizationManager.bindResource(version, Boolean.TRUE);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(version);
+                version.incrementAndGet();
+            }
+        });
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Task> getAllTask() {
+        return entityManager.createQuery("select t from Task t", Task.class).getResultList();
+    }
+
+    // read in id order a batch per query, so no transaction or persistence context stays open while the caller consumes it
+    @Override
+    public Stream<Task> streamAll() {
+        Iterator<Task> tasks = new Iterator<>() {
+            private Iterator<Task> batch = Collections.emptyIterator();
+            private Integer lastId;
+            private boolean exhausted;
+
+            @Override
+            public boolean hasNext() {
+                if (!batch.hasNext() && !exhausted) {
+                    TypedQuery<Task> query = lastId == null
+                            ? entityManager.createQuery("select t from Task t order by t.id", Task.class)
+                            : entityManager.createQuery("select t from Task t where t.id > :lastId order by t.id", Task.class).setParameter("lastId", lastId);
+                    List<Task> next = query.setMaxResults(BATCH_SIZE).getResultList();
+                    exhausted = next.size() < BATCH_SIZE;
+                    lastId = next.isEmpty() ? lastId : next.get(next.size() - 1).getId();
+                    batch = next.iterator();
+                }
+                return batch.hasNext();
+            }
+
+            @Override
+            public Task next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return batch.next();
+            }
+        };
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(tasks, Spliterator.ORDERED | Spliterator.NONNULL), false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Page<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Pageable pageable) {
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(state, priority, text, parameters);
+        if (where == null) {
+            return new PageImpl<>(List.of(), pageable, 0);
+        }
+        TypedQuery<Long> count = entityManager.createQuery("select count(t) from Task t" + where, Long.class);
+        parameters.forEach(count::setParameter);
+        long total = count.getSingleResult();
+        if (total <= pageable.getOffset()) {
+            return new PageImpl<>(List.of(), pageable, total);
+        }
+        TypedQuery<Task> query = entityManager.createQuery("select t from Task t" + where + orderBy(pageable.getSort().toList()), Task.class);
+        parameters.forEach(query::setParameter);
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize());
+        return new PageImpl<>(query.getResultList(), pageable, total);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Window<Task> scrollByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int limit) {
+        List<Sort.Order> orders = sort.isUnsorted() ? List.of(Sort.Order.asc("id")) : sort.toList();
+        if (orders.size() != 1 || !SORT_PROPERTIES.containsKey(orders.get(0).getProperty())) {
+            return null;
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        String where = where(state, priority, text, parameters);
+        if (where == null) {
+            return Window.from(List.of(), i -> position);
+        }
+        if (!position.isInitial()) {
+            where += (where.isEmpty() ? " where " : " and ") + after(orders.get(0), TaskKeyset.positionTask(position), parameters);
+        }
+        TypedQuery<Task> query = entityManager.createQuery("select t from Task t" + where + orderBy(orders), Task.class);
+        parameters.forEach(query::setParameter);
+        query.setMaxResults(limit + 1);
+        List<Task> tasks = query.getResultList();
+        boolean hasNext = tasks.size() > limit;
+        List<Task> window = hasNext ? tasks.subList(0, limit) : tasks;
+        return Window.from(window, i -> TaskKeyset.positionOf(window.get(i)), hasNext);
+    }
+
+    // null when the priority matches no value, so nothing can match
+    private static String where(Boolean state, String priority, String text, Map<String, Object> parameters) {
+        List<String> conditions = new ArrayList<>();
+        if (state != null) {
+            conditions.add("t.state = :state");
+            parameters.put("state", state);
+        }
+        if (priority != null) {
+            Priority value = null;
+            for (Priority candidate : Priority.values()) {
+                if (candidate.name().equalsIgnoreCase(priority)) {
+                    value = candidate;
+                }
+            }
+            if (value == null) {
+                return null;
+            }
+            conditions.add("t.priority = :priority");
+            parameters.put("priority", value);
+        }
+        if (text != null) {
+            conditions.add("lower(t.text) like :text escape '\\'");
+            parameters.put("text", "%" + text.toLowerCase().replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%");
+        }
+        return conditions.isEmpty() ? "" : " where " + String.join(" and ", conditions);
+    }
+
+    private static String orderBy(List<Sort.Order> orders) {
+        List<String> columns = new ArrayList<>();
+        for (Sort.Order order : orders) {
+            for (String property : SORT_PROPERTIES.getOrDefault(order.getProperty(), List.of())) {
+                columns.add("t." + property + (order.isDescending() ? " desc nulls first" : " asc nulls last"));
+            }
+        }
+        columns.add("t.id asc");
+        return " order by " + String.join(", ", columns);
+    }
+
+    // tasks after the position in the order: a greater first key, or an equal first key and a greater rest, down to the id
+    private static String after(Sort.Order order, Task position, Map<String, Object> parameters) {
+        List<String> properties = SORT_PROPERTIES.get(order.getProperty());
+        String condition = order.getProperty().equals("id") && order.isDescending() ? "t.id < :afterId" : "t.id > :afterId";
+        parameters.put("afterId", position.getId());
+        for (int i = properties.size() - 1; i >= 0; i--) {
+            String property = properties.get(i);
+            if (property.equals("id")) {
+                continue;
+            }
+            Object value = property.equals("dueDate") ? position.getDueDate() : position.getPriority();
+            String column = "t." + property;
+            String parameter = ":after" + i;
+            String greater;
+            String equal;
+            if (value == null) {
+                // null sorts after every value ascending, before every value descending
+                greater = order.isDescending() ? column + " is not null" : null;
+                equal = column + " is null";
+            } else {
+                parameters.put("after" + i, value);
+                greater = order.isDescending() ? column + " < " + parameter : "(" + column + " > " + parameter + " or " + column + " is null)";
+                equal = column + " = " + parameter;
+            }
+            condition = "(" + (greater == null ? "" : greater + " or ") + "(" + equal + " and " + condition + "))";
+        }
+        return condition;
+    }
+}
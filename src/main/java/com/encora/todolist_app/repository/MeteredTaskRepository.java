@@ -0,0 +1,143 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+// times every operation of the repository it wraps; the timers are looked up once, recording is two clock reads
+public class MeteredTaskRepository implements TaskRepository {
+
+    static final String TIMER = "todolist.repository.operations";
+    static final String LOOKUPS = "todolist.repository.lookups";
+
+    private final TaskRepository delegate;
+    private final MeterRegistry meterRegistry;
+    // an in-memory lookup by id takes less time than the two clock reads that would time it, so it is only counted
+    private final boolean timeLookups;
+    private final Counter lookups;
+    private final Timer save;
+    private final Timer saveAll;
+    private final Timer findById;
+    private final Timer findAll;
+    private final Timer deleteById;
+    private final Timer replaceTask;
+    private final Timer compareAndReplaceTask;
+    private final Timer updateAll;
+    private final Timer updateAllByStateAndPriorityAndText;
+    private final Timer getAllTask;
+    private final Timer streamAll;
+    private final Timer findAllByStateAndPriorityAndText;
+    private final Timer scrollByStateAndPriorityAndText;
+
+    public MeteredTaskRepository(TaskRepository delegate, MeterRegistry meterRegistry, boolean timeLookups) {
+        this.delegate = delegate;
+        this.meterRegistry = meterRegistry;
+        this.timeLookups = timeLookups;
+        this.lookups = Counter.builder(LOOKUPS).register(meterRegistry);
+        this.save = timer("save");
+        this.saveAll = timer("saveAll");
+        this.findById = timeLookups ? timer("findById") : null;
+        this.findAll = timer("findAll");
+        this.deleteById = timer("deleteById");
+        this.replaceTask = timer("replaceTask");
+        this.compareAndReplaceTask = timer("compareAndReplaceTask");
+        this.updateAll = timer("updateAll");
+        this.updateAllByStateAndPriorityAndText = timer("updateAllByStateAndPriorityAndText");
+        this.getAllTask = timer("getAllTask");
+        this.streamAll = timer("streamAll");
+        this.findAllByStateAndPriorityAndText = timer("findAllByStateAndPriorityAndText");
+        this.scrollByStateAndPriorityAndText = timer("scrollByStateAndPriorityAndText");
+    }
+
+    private Timer timer(String operation) {
+        return Timer.builder(TIMER).tag("operation", operation).register(meterRegistry);
+    }
+
+    @Override
+    public Task save(Task task) {
+        return save.record(() -> delegate.save(task));
+    }
+
+    @Override
+    public List<Task> saveAll(List<Task> tasks) {
+        return saveAll.record(() -> delegate.saveAll(tasks));
+    }
+
+    @Override
+    public Optional<Task> findById(Integer id) {
+        if (!timeLookups) {
+            lookups.increment();
+            return delegate.findById(id);
+        }
+        return findById.record(() -> delegate.findById(id));
+    }
+
+    @Override
+    public Page<Task> findAll(Pageable pageable) {
+        return findAll.record(() -> delegate.findAll(pageable));
+    }
+
+    @Override
+    public Task deleteById(Integer id) {
+        return deleteById.record(() -> delegate.deleteById(id));
+    }
+
+    @Override
+    public Task replaceTask(Integer id, Task task) {
+        return replaceTask.record(() -> delegate.replaceTask(id, task));
+    }
+
+    @Override
+    public boolean replaceTask(Integer id, Task expected, Task task) {
+        return compareAndReplaceTask.record(() -> delegate.replaceTask(id, expected, task));
+    }
+
+    @Override
+    public List<TaskChange> updateAll(List<Integer> ids, UnaryOperator<Task> change) {
+        return updateAll.record(() -> delegate.updateAll(ids, change));
+    }
+
+    @Override
+    public List<TaskChange> updateAllByStateAndPriorityAndText(Boolean state, String priority, String text, UnaryOperator<Task> change) {
+        return updateAllByStateAndPriorityAndText.record(() -> delegate.updateAllByStateAndPriorityAndText(state, priority, text, change));
+    }
+
+    @Override
+    public List<Task> getAllTask() {
+        return getAllTask.record(delegate::getAllTask);
+    }
+
+    // timed until the stream is closed, which includes the time the caller spends consuming it
+    @Override
+    public Stream<Task> streamAll() {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return delegate.streamAll().onClose(() -> sample.stop(streamAll));
+    }
+
+    // read before every cached or conditional GET, a single field read is not worth two clock reads
+    @Override
+    public long version() {
+        return delegate.version();
+    }
+
+    @Override
+    public Page<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Pageable pageable) {
+        return findAllByStateAndPriorityAndText.record(() -> delegate.findAllByStateAndPriorityAndText(state, priority, text, pageable));
+    }
+
+    @Override
+    public Window<Task> scrollByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int limit) {
+        return scrollByStateAndPriorityAndText.record(() -> delegate.scrollByStateAndPriorityAndText(state, priority, text, sort, position, limit));
+    }
+}
@@ -0,0 +1,9 @@
+package com.encora.todolist_app.repository;
+
+// the columnar repository with its rows and texts in direct memory outside the heap; only the id index stays on it
+public class OffHeapTaskRepository extends ColumnarTaskRepository {
+
+    public OffHeapTaskRepository() {
+        super(new OffHeapTaskRows());
+    }
+}
@@ -0,0 +1,152 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.Duration;
+import java.util.Arrays;
+
+// fixed-width records in direct buffers outside the heap, a chunk of 65536 records at a time so growing never copies
+// them, and the texts in a direct arena; all the collector sees are the buffer objects
+final class OffHeapTaskRows implements TaskRows {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_ROWS = 1 << CHUNK_BITS;
+    // id, priority and state, then the creation, due and done dates, the time frame and the text handle
+    private static final int ID = 0;
+    private static final int PRIORITY = 4;
+    private static final int STATE = 5;
+    private static final int CREATION_DATE = 8;
+    private static final int DUE_DATE = 16;
+    private static final int DONE_DATE = 24;
+    private static final int TIME_FRAME = 32;
+    private static final int TEXT = 40;
+    private static final int RECORD_BYTES = 48;
+
+    private final TaskTextArena textArena = new TaskTextArena(true);
+    private final TaskTextArena.Handles textHandles = new TaskTextArena.Handles() {
+        @Override
+        public long get(int row) {
+            return chunk(row).getLong(offset(row) + TEXT);
+        }
+
+        @Override
+        public void set(int row, long handle) {
+            chunk(row).putLong(offset(row) + TEXT, handle);
+        }
+    };
+    private ByteBuffer[] chunks = new ByteBuffer[0];
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int add(Task task) {
+        if (size == chunks.length * CHUNK_ROWS) {
+            chunks = Arrays.copyOf(chunks, chunks.length + 1);
+            chunks[chunks.length - 1] = ByteBuffer.allocateDirect(CHUNK_ROWS * RECORD_BYTES).order(ByteOrder.nativeOrder());
+        }
+        int row = size++;
+        chunk(row).putLong(offset(row) + TEXT, TaskTextArena.NULL);
+        set(row, task);
+        return row;
+    }
+
+    @Override
+    public void set(int row, Task task) {
+        ByteBuffer chunk = chunk(row);
+        int offset = offset(row);
+        textArena.release(chunk.getLong(offset + TEXT));
+        chunk.putInt(offset + ID, task.getId());
+        chunk.put(offset + PRIORITY, task.getPriority() == null ? NULL_PRIORITY : (byte) task.getPriority().ordinal());
+        chunk.put(offset + STATE, (byte) (task.isState() ? 1 : 0));
+        chunk.putLong(offset + CREATION_DATE, TaskRows.micros(task.getCreationDate()));
+        chunk.putLong(offset + DUE_DATE, TaskRows.micros(task.getDueDate()));
+        chunk.putLong(offset + DONE_DATE, TaskRows.micros(task.getDoneDate()));
+        chunk.putLong(offset + TIME_FRAME, task.getTimeFrame() == null ? NULL_TIME : task.getTimeFrame().toNanos());
+        chunk.putLong(offset + TEXT, textArena.add(task.getText()));
+        compactTexts();
+    }
+
+    @Override
+    public void remove(int row) {
+        textArena.release(chunk(row).getLong(offset(row) + TEXT));
+        int last = --size;
+        if (row != last) {
+            chunk(row).put(offset(row), chunk(last), offset(last), RECORD_BYTES);
+        }
+        // an empty last chunk is only given back once the one before is half empty too, so a task saved and
+        // deleted again at the boundary does not allocate a chunk each time
+        if (chunks.length > 0 && size <= (chunks.length - 1) * CHUNK_ROWS - CHUNK_ROWS / 2) {
+            chunks = Arrays.copyOf(chunks, chunks.length - 1);
+        }
+        compactTexts();
+    }
+
+    @Override
+    public int id(int row) {
+        return chunk(row).getInt(offset(row) + ID);
+    }
+
+    @Override
+    public long creationDate(int row) {
+        return chunk(row).getLong(offset(row) + CREATION_DATE);
+    }
+
+    @Override
+    public long dueDate(int row) {
+        return chunk(row).getLong(offset(row) + DUE_DATE);
+    }
+
+    @Override
+    public byte priority(int row) {
+        return chunk(row).get(offset(row) + PRIORITY);
+    }
+
+    @Override
+    public boolean state(int row) {
+        return chunk(row).get(offset(row) + STATE) != 0;
+    }
+
+    @Override
+    public boolean textContains(int row, String lowerText, byte[] asciiNeedle) {
+        return textArena.contains(chunk(row).getLong(offset(row) + TEXT), lowerText, asciiNeedle);
+    }
+
+    @Override
+    public Task task(int row) {
+        ByteBuffer chunk = chunk(row);
+        int offset = offset(row);
+        byte priority = chunk.get(offset + PRIORITY);
+        long timeFrame = chunk.getLong(offset + TIME_FRAME);
+        return new Task(
+                chunk.getInt(offset + ID),
+                textArena.get(chunk.getLong(offset + TEXT)),
+                TaskRows.dateOf(chunk.getLong(offset + CREATION_DATE)),
+                TaskRows.dateOf(chunk.getLong(offset + DUE_DATE)),
+                TaskRows.dateOf(chunk.getLong(offset + DONE_DATE)),
+                timeFrame == NULL_TIME ? null : Duration.ofNanos(timeFrame),
+                priority == NULL_PRIORITY ? null : PRIORITIES[priority],
+                chunk.get(offset + STATE) != 0);
+    }
+
+    private ByteBuffer chunk(int row) {
+        return chunks[row >>> CHUNK_BITS];
+    }
+
+    private static int offset(int row) {
+        return (row & (CHUNK_ROWS - 1)) * RECORD_BYTES;
+    }
+
+    private void compactTexts() {
+        if (textArena.needsCompaction()) {
+            textArena.compact(size, textHandles);
+        }
+    }
+}
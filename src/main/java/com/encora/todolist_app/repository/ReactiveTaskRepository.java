@@ -0,0 +1,46 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+import java.util.stream.Stream;
+
+// the repository blocks, so it is only called on the given scheduler; lists are read one keyset window at a time
+// as the subscriber asks for more, a slow or cancelled client never makes the repository read ahead of it
+public class ReactiveTaskRepository {
+
+    private static final int WINDOW_SIZE = 500;
+
+    private final TaskRepository taskRepository;
+    private final Scheduler scheduler;
+
+    public ReactiveTaskRepository(TaskRepository taskRepository, Scheduler scheduler) {
+        this.taskRepository = taskRepository;
+        this.scheduler = scheduler;
+    }
+
+    // fails with IllegalArgumentException when the sort is not one the repository can scroll by
+    public Flux<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort) {
+        return scroll(state, priority, text, sort, ScrollPosition.keyset())
+                .expand(window -> window.hasNext()
+                        ? scroll(state, priority, text, sort, (KeysetScrollPosition) window.positionAt(window.size() - 1))
+                        : Mono.empty())
+                .concatMapIterable(Window::getContent);
+    }
+
+    public Flux<Task> findAll() {
+        return Flux.using(taskRepository::streamAll, Flux::fromStream, Stream::close).subscribeOn(scheduler);
+    }
+
+    private Mono<Window<Task>> scroll(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position) {
+        return Mono.fromCallable(() -> taskRepository.scrollByStateAndPriorityAndText(state, priority, text, sort, position, WINDOW_SIZE))
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException("Cannot scroll tasks sorted by " + sort)))
+                .subscribeOn(scheduler);
+    }
+}
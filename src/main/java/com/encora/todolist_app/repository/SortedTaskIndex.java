@@ -0,0 +1,151 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.ConcurrentSkipListSet;
+
+// one ordered set per StatePriorityIndex slot, a task sits in the set of its own slot; iterating the slots of a
+// filter merges only their sets, so every entry that comes out matches the state and priority
+class SortedTaskIndex {
+
+    record Entry(Task task, int id) {
+    }
+
+    private final Comparator<Entry> ascending;
+    private final Comparator<Entry> descending;
+    private final NavigableSet<Entry>[] slots;
+
+    @SuppressWarnings("unchecked")
+    SortedTaskIndex(Comparator<Task> order) {
+        this.ascending = Comparator.comparing(Entry::task, order).thenComparingInt(Entry::id);
+        this.descending = Comparator.comparing(Entry::task, order.reversed()).thenComparingInt(Entry::id);
+        this.slots = new NavigableSet[StatePriorityIndex.SLOTS];
+        for (int slot = 0; slot < slots.length; slot++) {
+            slots[slot] = new ConcurrentSkipListSet<>(ascending);
+        }
+    }
+
+    void add(Integer id, Task task) {
+        slots[StatePriorityIndex.slotOf(task)].add(new Entry(task, id));
+    }
+
+    void remove(Integer id, Task task) {
+        slots[StatePriorityIndex.slotOf(task)].remove(new Entry(task, id));
+    }
+
+    // ties on the sort key always come out in ascending id order, in both directions
+    Iterator<Entry> iterator(boolean descending, int[] slots) {
+        Iterator<Entry>[] iterators = iterators(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            NavigableSet<Entry> entries = this.slots[slots[i]];
+            iterators[i] = descending ? new DescendingRuns(entries) : entries.iterator();
+        }
+        return merge(iterators, descending);
+    }
+
+    Iterator<Entry> iteratorAfter(Task position, boolean descending, int[] slots) {
+        Entry after = new Entry(position, position.getId());
+        Iterator<Entry>[] iterators = iterators(slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            NavigableSet<Entry> entries = this.slots[slots[i]];
+            if (!descending) {
+                iterators[i] = entries.tailSet(after, false).iterator();
+            } else {
+                DescendingRuns runs = new DescendingRuns(entries);
+                runs.runFloor = new Entry(position, Integer.MIN_VALUE);
+                runs.run = entries.subSet(after, false, new Entry(position, Integer.MAX_VALUE), true).iterator();
+                iterators[i] = runs;
+            }
+        }
+        return merge(iterators, descending);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Iterator<Entry>[] iterators(int count) {
+        return new Iterator[count];
+    }
+
+    private Iterator<Entry> merge(Iterator<Entry>[] iterators, boolean descending) {
+        return iterators.length == 1 ? iterators[0] : new Merge(iterators, descending ? this.descending : ascending);
+    }
+
+    // the next entry of every slot in a heap, the smallest is taken and replaced by the next one of its slot
+    private static final class Merge implements Iterator<Entry> {
+
+        private record Head(Entry entry, Iterator<Entry> rest) {
+        }
+
+        private final PriorityQueue<Head> heads;
+
+        Merge(Iterator<Entry>[] iterators, Comparator<Entry> order) {
+            heads = new PriorityQueue<>(Math.max(1, iterators.length), Comparator.comparing(Head::entry, order));
+            for (Iterator<Entry> iterator : iterators) {
+                if (iterator.hasNext()) {
+                    heads.add(new Head(iterator.next(), iterator));
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !heads.isEmpty();
+        }
+
+        @Override
+        public Entry next() {
+            Head head = heads.poll();
+            if (head == null) {
+                throw new NoSuchElementException();
+            }
+            if (head.rest().hasNext()) {
+                heads.add(new Head(head.rest().next(), head.rest()));
+            }
+            return head.entry();
+        }
+    }
+
+    private static final class DescendingRuns implements Iterator<Entry> {
+
+        private final NavigableSet<Entry> entries;
+        private Entry runFloor;
+        private Iterator<Entry> run = Collections.emptyIterator();
+        private boolean exhausted;
+
+        DescendingRuns(NavigableSet<Entry> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (!run.hasNext() && !exhausted) {
+                Entry top = runFloor == null ? last() : entries.lower(runFloor);
+                if (top == null) {
+                    exhausted = true;
+                } else {
+                    runFloor = new Entry(top.task(), Integer.MIN_VALUE);
+                    run = entries.subSet(runFloor, true, new Entry(top.task(), Integer.MAX_VALUE), true).iterator();
+                }
+            }
+            return run.hasNext();
+        }
+
+        @Override
+        public Entry next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return run.next();
+        }
+
+        private Entry last() {
+            Iterator<Entry> descending = entries.descendingIterator();
+            return descending.hasNext() ? descending.next() : null;
+        }
+    }
+}
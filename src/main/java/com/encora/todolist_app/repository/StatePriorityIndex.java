@@ -0,0 +1,64 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.IntStream;
+
+class StatePriorityIndex {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+    // tasks without a priority get their own slot after the enum values
+    private static final int PRIORITY_SLOTS = PRIORITIES.length + 1;
+    static final int SLOTS = 2 * PRIORITY_SLOTS;
+
+    private final Set<Integer>[] buckets;
+
+    @SuppressWarnings("unchecked")
+    StatePriorityIndex() {
+        buckets = new Set[SLOTS];
+        for (int i = 0; i < buckets.length; i++) {
+            buckets[i] = ConcurrentHashMap.newKeySet();
+        }
+    }
+
+    static int slotOf(Task task) {
+        int prioritySlot = task.getPriority() == null ? PRIORITIES.length : task.getPriority().ordinal();
+        return (task.isState() ? PRIORITY_SLOTS : 0) + prioritySlot;
+    }
+
+    void add(Integer id, Task task) {
+        buckets[slotOf(task)].add(id);
+    }
+
+    void remove(Integer id, Task task) {
+        buckets[slotOf(task)].remove(id);
+    }
+
+    Set<Integer> ids(int slot) {
+        return buckets[slot];
+    }
+
+    int[] slots(Boolean state, String priority) {
+        IntStream states = state == null ? IntStream.of(0, PRIORITY_SLOTS) : IntStream.of(state ? PRIORITY_SLOTS : 0);
+        if (priority == null) {
+            return states.flatMap(base -> IntStream.range(base, base + PRIORITY_SLOTS)).toArray();
+        }
+        for (Priority candidate : PRIORITIES) {
+            if (candidate.name().equalsIgnoreCase(priority)) {
+                return states.map(base -> base + candidate.ordinal()).toArray();
+            }
+        }
+        return new int[0];
+    }
+
+    int count(int[] slots) {
+        int count = 0;
+        for (int slot : slots) {
+            count += buckets[slot].size();
+        }
+        return count;
+    }
+}
@@ -0,0 +1,7 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+
+// before and after are the stored versions, after is the same instance as before when nothing changed
+public record TaskChange(Task before, Task after) {
+}
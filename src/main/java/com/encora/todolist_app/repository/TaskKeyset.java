@@ -0,0 +1,30 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+final class TaskKeyset {
+
+    private TaskKeyset() {
+    }
+
+    // every sort key is made of id, dueDate and priority, so those three locate any task in any order
+    static KeysetScrollPosition positionOf(Task task) {
+        Map<String, Object> keys = new LinkedHashMap<>();
+        keys.put("id", task.getId());
+        keys.put("dueDate", task.getDueDate());
+        keys.put("priority", task.getPriority());
+        return ScrollPosition.forward(keys);
+    }
+
+    static Task positionTask(KeysetScrollPosition position) {
+        Map<String, Object> keys = position.getKeys();
+        return new Task((Integer) keys.get("id"), null, null, (LocalDateTime) keys.get("dueDate"), null, null, (Priority) keys.get("priority"), false);
+    }
+}
@@ -2,20 +2,35 @@ package com.encora.todolist_app.repository;
 
 
 import com.encora.todolist_app.models.Task;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 public interface TaskRepository {
 
     Task save(Task task);
+    // the tasks that were saved, tasks whose explicit id is already taken are left out
+    List<Task> saveAll(List<Task> tasks);
     Optional<Task> findById(Integer id);
     Page<Task> findAll(Pageable pageable);
-    void deleteById(Integer id);
+    Task deleteById(Integer id);
     Task replaceTask(Integer id,Task task);
+    boolean replaceTask(Integer id, Task expected, Task task);
+    // change must not modify its argument, returning it as is leaves the task untouched
+    List<TaskChange> updateAll(List<Integer> ids, UnaryOperator<Task> change);
+    List<TaskChange> updateAllByStateAndPriorityAndText(Boolean state, String priority, String text, UnaryOperator<Task> change);
     List<Task> getAllTask();
+    Stream<Task> streamAll();
+    // increases after every change is visible to readers, a result read after seeing a version is at least that recent
+    long version();
 
     Page<Task> findAllByStateAndPriorityAndText(Boolean state, String priority, String text, Pageable pageable);
-}
\ No newline at end of file
+    Window<Task> scrollByStateAndPriorityAndText(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int limit);
+}
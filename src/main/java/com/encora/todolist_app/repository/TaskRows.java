@@ -0,0 +1,53 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+// the storage behind ColumnarTaskRepository, a task per row numbered from 0 to size() - 1, only used under the
+// repository's lock; dates are microseconds since 1970-01-01T00:00 and time frames nanoseconds, NULL_TIME stands for null
+interface TaskRows {
+
+    long NULL_TIME = Long.MIN_VALUE;
+    byte NULL_PRIORITY = -1;
+
+    int size();
+
+    // returns the new row, which is the last one
+    int add(Task task);
+
+    void set(int row, Task task);
+
+    // the last row takes the place of the removed one
+    void remove(int row);
+
+    int id(int row);
+
+    long creationDate(int row);
+
+    long dueDate(int row);
+
+    byte priority(int row);
+
+    boolean state(int row);
+
+    boolean textContains(int row, String lowerText, byte[] asciiNeedle);
+
+    Task task(int row);
+
+    // dates are kept to the microsecond, like the jpa backend does
+    static long micros(LocalDateTime date) {
+        if (date == null) {
+            return NULL_TIME;
+        }
+        return Math.addExact(Math.multiplyExact(date.toEpochSecond(ZoneOffset.UTC), 1_000_000L), date.getNano() / 1000);
+    }
+
+    static LocalDateTime dateOf(long micros) {
+        if (micros == NULL_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000L), (int) Math.floorMod(micros, 1_000_000L) * 1000, ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,156 @@
+package com.encora.todolist_app.repository;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+// the texts of all tasks as UTF-8 in one shared buffer, on the heap or direct; a handle holds the offset, the length
+// and whether the text is plain ASCII, which can be searched byte by byte; replaced texts stay behind as garbage
+// until compact
+final class TaskTextArena {
+
+    static final long NULL = -1;
+
+    // where the rows keep their handles, so compact can move the texts and rewrite them
+    interface Handles {
+        long get(int row);
+
+        void set(int row, long handle);
+    }
+
+    private final boolean direct;
+    private ByteBuffer bytes;
+    private int used;
+    private int garbage;
+
+    TaskTextArena() {
+        this(false);
+    }
+
+    TaskTextArena(boolean direct) {
+        this.direct = direct;
+        this.bytes = allocate(4096);
+    }
+
+    long add(String text) {
+        if (text == null) {
+            return NULL;
+        }
+        byte[] encoded = text.getBytes(StandardCharsets.UTF_8);
+        if (bytes.capacity() - used < encoded.length) {
+            grow(encoded.length);
+        }
+        bytes.put(used, encoded);
+        long handle = handle(used, encoded.length, isAscii(encoded));
+        used += encoded.length;
+        return handle;
+    }
+
+    void release(long handle) {
+        if (handle != NULL) {
+            garbage += lengthOf(handle);
+        }
+    }
+
+    String get(long handle) {
+        if (handle == NULL) {
+            return null;
+        }
+        byte[] text = new byte[lengthOf(handle)];
+        bytes.get(offsetOf(handle), text);
+        return new String(text, isAscii(handle) ? StandardCharsets.ISO_8859_1 : StandardCharsets.UTF_8);
+    }
+
+    // null when the lowercase text has other than ASCII characters and every task has to be decoded to compare it
+    static byte[] asciiNeedle(String lowerText) {
+        byte[] needle = lowerText.getBytes(StandardCharsets.UTF_8);
+        return isAscii(needle) ? needle : null;
+    }
+
+    // the same as text.toLowerCase().contains(lowerText), without decoding texts that are ASCII
+    boolean contains(long handle, String lowerText, byte[] asciiNeedle) {
+        if (handle == NULL) {
+            return false;
+        }
+        if (asciiNeedle == null || !isAscii(handle)) {
+            return get(handle).toLowerCase().contains(lowerText);
+        }
+        int offset = offsetOf(handle);
+        int last = offset + lengthOf(handle) - asciiNeedle.length;
+        for (int start = offset; start <= last; start++) {
+            int matched = 0;
+            while (matched < asciiNeedle.length && toLower(bytes.get(start + matched)) == asciiNeedle[matched]) {
+                matched++;
+            }
+            if (matched == asciiNeedle.length) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean needsCompaction() {
+        return garbage > 1 << 20 && garbage > used / 2;
+    }
+
+    // copies the live texts to a new buffer in row order and rewrites their handles
+    void compact(int count, Handles handles) {
+        ByteBuffer compacted = allocate(Math.max(4096, used - garbage + (used - garbage) / 2));
+        int position = 0;
+        for (int row = 0; row < count; row++) {
+            long handle = handles.get(row);
+            if (handle != NULL) {
+                int length = lengthOf(handle);
+                compacted.put(position, bytes, offsetOf(handle), length);
+                handles.set(row, handle(position, length, isAscii(handle)));
+                position += length;
+            }
+        }
+        bytes = compacted;
+        used = position;
+        garbage = 0;
+    }
+
+    // a direct buffer that was replaced is only freed once the collector finds it unreachable
+    private void grow(int needed) {
+        long capacity = Math.max((long) bytes.capacity() + (bytes.capacity() >> 1), (long) used + needed);
+        if (capacity > Integer.MAX_VALUE - 8) {
+            throw new IllegalStateException("Task texts exceed " + (Integer.MAX_VALUE - 8) + " bytes");
+        }
+        ByteBuffer grown = allocate((int) capacity);
+        grown.put(0, bytes, 0, used);
+        bytes = grown;
+    }
+
+    private ByteBuffer allocate(int capacity) {
+        return direct ? ByteBuffer.allocateDirect(capacity) : ByteBuffer.allocate(capacity);
+    }
+
+    private static long handle(int offset, int length, boolean ascii) {
+        return ((long) offset << 32) | ((long) length << 1) | (ascii ? 1 : 0);
+    }
+
+    private static int offsetOf(long handle) {
+        return (int) (handle >>> 32);
+    }
+
+    private static int lengthOf(long handle) {
+        return (int) handle >>> 1;
+    }
+
+    private static boolean isAscii(long handle) {
+        return (handle & 1) != 0;
+    }
+
+    private static boolean isAscii(byte[] bytes) {
+        for (byte b : bytes) {
+            if (b < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static byte toLower(byte b) {
+        return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+    }
+}
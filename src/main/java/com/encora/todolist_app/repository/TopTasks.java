@@ -0,0 +1,66 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Task;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+// the first count tasks in order without sorting them all: a heap of the count smallest so far, the largest of them at
+// the root, so a task that does not belong costs a single comparison. With a comparator that orders every pair of
+// tasks, as getTaskComparator does by ending on the id, the result is exactly the start of a full sort
+final class TopTasks {
+
+    private TopTasks() {
+    }
+
+    static List<Task> of(Collection<Task> tasks, Comparator<Task> order, int count) {
+        Task[] heap = new Task[Math.min(count, tasks.size())];
+        if (heap.length == 0) {
+            return List.of();
+        }
+        int size = 0;
+        for (Task task : tasks) {
+            if (size < heap.length) {
+                heap[size] = task;
+                siftUp(heap, size++, order);
+            } else if (order.compare(task, heap[0]) < 0) {
+                heap[0] = task;
+                siftDown(heap, size, order);
+            }
+        }
+        Arrays.sort(heap, order);
+        return Arrays.asList(heap);
+    }
+
+    private static void siftUp(Task[] heap, int index, Comparator<Task> order) {
+        Task task = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (order.compare(task, heap[parent]) <= 0) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = task;
+    }
+
+    private static void siftDown(Task[] heap, int size, Comparator<Task> order) {
+        Task task = heap[0];
+        int index = 0;
+        int child;
+        while ((child = 2 * index + 1) < size) {
+            if (child + 1 < size && order.compare(heap[child + 1], heap[child]) > 0) {
+                child++;
+            }
+            if (order.compare(task, heap[child]) >= 0) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = task;
+    }
+}
@@ -0,0 +1,64 @@
+package com.encora.todolist_app.repository;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+class TrigramIndex {
+
+    private final Map<Long, Set<Integer>> postings = new ConcurrentHashMap<>();
+
+    void add(Integer id, String text) {
+        if (text == null) {
+            return;
+        }
+        for (long trigram : trigrams(text.toLowerCase())) {
+            postings.compute(trigram, (key, ids) -> {
+                Set<Integer> result = ids == null ? ConcurrentHashMap.newKeySet() : ids;
+                result.add(id);
+                return result;
+            });
+        }
+    }
+
+    void remove(Integer id, String text) {
+        if (text == null) {
+            return;
+        }
+        for (long trigram : trigrams(text.toLowerCase())) {
+            postings.computeIfPresent(trigram, (key, ids) -> {
+                ids.remove(id);
+                return ids.isEmpty() ? null : ids;
+            });
+        }
+    }
+
+    static boolean canNarrow(String lowerText) {
+        return lowerText != null && lowerText.length() >= 3;
+    }
+
+    // posting lists of every trigram in the query, smallest first; empty when some trigram is not indexed at all
+    List<Set<Integer>> postings(String lowerText) {
+        List<Set<Integer>> result = new ArrayList<>();
+        for (long trigram : trigrams(lowerText)) {
+            Set<Integer> ids = postings.get(trigram);
+            if (ids == null) {
+                return List.of();
+            }
+            result.add(ids);
+        }
+        result.sort(Comparator.comparingInt(Set::size));
+        return result;
+    }
+
+    private static long[] trigrams(String lowerText) {
+        long[] trigrams = new long[Math.max(0, lowerText.length() - 2)];
+        for (int i = 0; i < trigrams.length; i++) {
+            trigrams[i] = ((long) lowerText.charAt(i) << 32) | ((long) lowerText.charAt(i + 1) << 16) | lowerText.charAt(i + 2);
+        }
+        return trigrams;
+    }
+}
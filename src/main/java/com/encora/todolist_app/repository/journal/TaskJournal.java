@@ -0,0 +1,60 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Task;
+
+import java.io.Closeable;
+import java.util.function.BiConsumer;
+
+public interface TaskJournal extends Closeable {
+
+    TaskJournal NONE = new TaskJournal() {
+        @Override
+        public void replay(BiConsumer<Integer, Task> apply) {
+        }
+
+        @Override
+        public void put(Task task) {
+        }
+
+        @Override
+        public void delete(Integer id) {
+        }
+
+        @Override
+        public void sync() {
+        }
+
+        @Override
+        public long rotate() {
+            return -1;
+        }
+
+        @Override
+        public void snapshot(long generation, Iterable<Task> tasks) {
+        }
+
+        @Override
+        public void close() {
+        }
+    };
+
+    // hands every logged task to apply in log order, a null task means the id was deleted
+    void replay(BiConsumer<Integer, Task> apply);
+
+    // put and delete run while the repository holds a map entry, so they never wait for the disk; callers wait
+    // here instead, before taking any entry, when too much is still unwritten
+    default void awaitCapacity() {
+    }
+
+    void put(Task task);
+    void delete(Integer id);
+
+    // waits until everything appended before the call is on disk, when the journal is configured to wait at all
+    void sync();
+
+    // starts a new generation and returns it, or -1 when nothing was appended since the last one
+    long rotate();
+
+    // writes the tasks as the starting point of that generation and drops everything older
+    void snapshot(long generation, Iterable<Task> tasks);
+}
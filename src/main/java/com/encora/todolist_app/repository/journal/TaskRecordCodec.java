@@ -0,0 +1,149 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+final class TaskRecordCodec {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private static final int STATE = 1;
+    private static final int TEXT = 1 << 1;
+    private static final int CREATION_DATE = 1 << 2;
+    private static final int DUE_DATE = 1 << 3;
+    private static final int DONE_DATE = 1 << 4;
+    private static final int TIME_FRAME = 1 << 5;
+
+    // seconds plus nanos, so a decoded task is equal to the one that was encoded
+    private static final int INSTANT_BYTES = Long.BYTES + Integer.BYTES;
+
+    // fixed layout used by snapshots: every field has its slot whether it is set or not, the text follows its length
+    static final int FIXED_BYTES = Integer.BYTES + 2 + 4 * INSTANT_BYTES + Integer.BYTES;
+    static final int FIXED_TEXT_LENGTH_OFFSET = FIXED_BYTES - Integer.BYTES;
+
+    private TaskRecordCodec() {
+    }
+
+    static byte[] textBytes(Task task) {
+        return task.getText() == null ? null : task.getText().getBytes(StandardCharsets.UTF_8);
+    }
+
+    static int size(Task task, byte[] text) {
+        int size = Integer.BYTES + 2;
+        size += task.getCreationDate() == null ? 0 : INSTANT_BYTES;
+        size += task.getDueDate() == null ? 0 : INSTANT_BYTES;
+        size += task.getDoneDate() == null ? 0 : INSTANT_BYTES;
+        size += task.getTimeFrame() == null ? 0 : INSTANT_BYTES;
+        size += text == null ? 0 : Integer.BYTES + text.length;
+        return size;
+    }
+
+    static void write(ByteBuffer buffer, Task task, byte[] text) {
+        buffer.putInt(task.getId());
+        buffer.put((byte) flags(task, text));
+        buffer.put((byte) (task.getPriority() == null ? -1 : task.getPriority().ordinal()));
+        writeDate(buffer, task.getCreationDate());
+        writeDate(buffer, task.getDueDate());
+        writeDate(buffer, task.getDoneDate());
+        if (task.getTimeFrame() != null) {
+            buffer.putLong(task.getTimeFrame().getSeconds());
+            buffer.putInt(task.getTimeFrame().getNano());
+        }
+        if (text != null) {
+            buffer.putInt(text.length);
+            buffer.put(text);
+        }
+    }
+
+    static Task read(ByteBuffer buffer) {
+        Task task = new Task();
+        task.setId(buffer.getInt());
+        int flags = buffer.get();
+        int priority = buffer.get();
+        task.setState((flags & STATE) != 0);
+        task.setPriority(priority < 0 ? null : PRIORITIES[priority]);
+        task.setCreationDate((flags & CREATION_DATE) == 0 ? null : readDate(buffer));
+        task.setDueDate((flags & DUE_DATE) == 0 ? null : readDate(buffer));
+        task.setDoneDate((flags & DONE_DATE) == 0 ? null : readDate(buffer));
+        if ((flags & TIME_FRAME) != 0) {
+            task.setTimeFrame(Duration.ofSeconds(buffer.getLong(), buffer.getInt()));
+        }
+        if ((flags & TEXT) != 0) {
+            byte[] text = new byte[buffer.getInt()];
+            buffer.get(text);
+            task.setText(new String(text, StandardCharsets.UTF_8));
+        }
+        return task;
+    }
+
+    static void writeFixed(ByteBuffer buffer, Task task, byte[] text) {
+        buffer.putInt(task.getId());
+        buffer.put((byte) flags(task, text));
+        buffer.put((byte) (task.getPriority() == null ? -1 : task.getPriority().ordinal()));
+        writeFixedDate(buffer, task.getCreationDate());
+        writeFixedDate(buffer, task.getDueDate());
+        writeFixedDate(buffer, task.getDoneDate());
+        buffer.putLong(task.getTimeFrame() == null ? 0 : task.getTimeFrame().getSeconds());
+        buffer.putInt(task.getTimeFrame() == null ? 0 : task.getTimeFrame().getNano());
+        buffer.putInt(text == null ? 0 : text.length);
+        if (text != null) {
+            buffer.put(text);
+        }
+    }
+
+    static Task readFixed(ByteBuffer buffer) {
+        Task task = new Task();
+        task.setId(buffer.getInt());
+        int flags = buffer.get();
+        int priority = buffer.get();
+        task.setState((flags & STATE) != 0);
+        task.setPriority(priority < 0 ? null : PRIORITIES[priority]);
+        task.setCreationDate(readFixedDate(buffer, (flags & CREATION_DATE) != 0));
+        task.setDueDate(readFixedDate(buffer, (flags & DUE_DATE) != 0));
+        task.setDoneDate(readFixedDate(buffer, (flags & DONE_DATE) != 0));
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        task.setTimeFrame((flags & TIME_FRAME) == 0 ? null : Duration.ofSeconds(seconds, nanos));
+        byte[] text = new byte[buffer.getInt()];
+        buffer.get(text);
+        task.setText((flags & TEXT) == 0 ? null : new String(text, StandardCharsets.UTF_8));
+        return task;
+    }
+
+    private static int flags(Task task, byte[] text) {
+        return (task.isState() ? STATE : 0)
+                | (text == null ? 0 : TEXT)
+                | (task.getCreationDate() == null ? 0 : CREATION_DATE)
+                | (task.getDueDate() == null ? 0 : DUE_DATE)
+                | (task.getDoneDate() == null ? 0 : DONE_DATE)
+                | (task.getTimeFrame() == null ? 0 : TIME_FRAME);
+    }
+
+    private static void writeFixedDate(ByteBuffer buffer, LocalDateTime date) {
+        buffer.putLong(date == null ? 0 : date.toEpochSecond(ZoneOffset.UTC));
+        buffer.putInt(date == null ? 0 : date.getNano());
+    }
+
+    private static LocalDateTime readFixedDate(ByteBuffer buffer, boolean present) {
+        long seconds = buffer.getLong();
+        int nanos = buffer.getInt();
+        return present ? LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC) : null;
+    }
+
+    private static void writeDate(ByteBuffer buffer, LocalDateTime date) {
+        if (date != null) {
+            buffer.putLong(date.toEpochSecond(ZoneOffset.UTC));
+            buffer.putInt(date.getNano());
+        }
+    }
+
+    private static LocalDateTime readDate(ByteBuffer buffer) {
+        return LocalDateTime.ofEpochSecond(buffer.getLong(), buffer.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,132 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Task;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// [magic][version][generation] then one [1][fixed task][text] per task, closed by [0][count][crc32c of all task bytes]
+final class TaskSnapshot {
+
+    static final int DEFAULT_REGION_BYTES = 64 << 20;
+
+    private static final int MAGIC = 0x54534e50;
+    private static final int VERSION = 1;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES + Long.BYTES;
+    private static final byte TASK = 1;
+    private static final byte END = 0;
+
+    private TaskSnapshot() {
+    }
+
+    static int write(Path file, long generation, Iterable<Task> tasks, int regionBytes) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            Regions regions = new Regions(channel, FileChannel.MapMode.READ_WRITE, regionBytes, Long.MAX_VALUE);
+            MappedByteBuffer region = regions.ensure(HEADER_BYTES);
+            region.putInt(MAGIC).putInt(VERSION).putLong(generation);
+            CRC32C crc = new CRC32C();
+            int count = 0;
+            for (Task task : tasks) {
+                byte[] text = TaskRecordCodec.textBytes(task);
+                int length = 1 + TaskRecordCodec.FIXED_BYTES + (text == null ? 0 : text.length);
+                region = regions.ensure(length);
+                int start = region.position();
+                region.put(TASK);
+                TaskRecordCodec.writeFixed(region, task, text);
+                crc.update(region.slice(start, length));
+                count++;
+            }
+            region = regions.ensure(1 + 2 * Integer.BYTES);
+            region.put(END).putInt(count).putInt((int) crc.getValue());
+            region.force();
+            channel.truncate(regions.position());
+            channel.force(true);
+            return count;
+        }
+    }
+
+    static long read(Path file, BiConsumer<Integer, Task> apply) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            Regions regions = new Regions(channel, FileChannel.MapMode.READ_ONLY, DEFAULT_REGION_BYTES, channel.size());
+            MappedByteBuffer region = regions.ensure(HEADER_BYTES);
+            if (region.getInt() != MAGIC || region.getInt() != VERSION) {
+                throw corrupt(file);
+            }
+            long generation = region.getLong();
+            CRC32C crc = new CRC32C();
+            int count = 0;
+            while (true) {
+                region = regions.ensure(1);
+                if (region.get(region.position()) != TASK) {
+                    break;
+                }
+                region = regions.ensure(1 + TaskRecordCodec.FIXED_BYTES);
+                int start = region.position();
+                int length = 1 + TaskRecordCodec.FIXED_BYTES + region.getInt(start + 1 + TaskRecordCodec.FIXED_TEXT_LENGTH_OFFSET);
+                region = regions.ensure(length);
+                crc.update(region.slice(start, length));
+                region.get();
+                Task task = TaskRecordCodec.readFixed(region);
+                apply.accept(task.getId(), task);
+                count++;
+            }
+            region = regions.ensure(1 + 2 * Integer.BYTES);
+            region.get();
+            if (region.getInt() != count || region.getInt() != (int) crc.getValue()) {
+                throw corrupt(file);
+            }
+            return generation;
+        } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+            throw corrupt(file);
+        }
+    }
+
+    private static IllegalStateException corrupt(Path file) {
+        return new IllegalStateException("Snapshot " + file + " is corrupt");
+    }
+
+    // maps the file a region at a time; a record that does not fit in what is left of the region starts the next one
+    private static final class Regions {
+
+        private final FileChannel channel;
+        private final FileChannel.MapMode mode;
+        private final int regionBytes;
+        private final long limit;
+        private long regionStart;
+        private MappedByteBuffer region;
+
+        Regions(FileChannel channel, FileChannel.MapMode mode, int regionBytes, long limit) {
+            this.channel = channel;
+            this.mode = mode;
+            this.regionBytes = regionBytes;
+            this.limit = limit;
+        }
+
+        MappedByteBuffer ensure(int bytes) throws IOException {
+            if (region != null && region.remaining() >= bytes) {
+                return region;
+            }
+            if (region != null) {
+                if (mode == FileChannel.MapMode.READ_WRITE) {
+                    region.force();
+                }
+                regionStart += region.position();
+            }
+            long size = Math.min(Math.max(regionBytes, bytes), limit - regionStart);
+            if (size < bytes) {
+                throw new IndexOutOfBoundsException("Need " + bytes + " bytes at " + regionStart);
+            }
+            region = channel.map(mode, regionStart, size);
+            return region;
+        }
+
+        long position() {
+            return regionStart + region.position();
+        }
+    }
+}
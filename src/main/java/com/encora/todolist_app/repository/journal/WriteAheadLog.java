@@ -0,0 +1,435 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Task;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32C;
+
+// records are [length][crc32c][op][payload], a PUT carries the whole task so replay never depends on earlier records of the same id.
+// The log is split in generations: tasks-<n>.wal holds what was appended after snapshot-<n>.snap was started
+public class WriteAheadLog implements TaskJournal {
+
+    private static final Pattern FILE_NAME = Pattern.compile("(tasks|snapshot)-(\\d+)\\.(wal|snap)");
+    private static final String LEGACY_FILE_NAME = "tasks.wal";
+
+    private static final byte PUT = 1;
+    private static final byte DELETE = 2;
+    private static final int HEADER_BYTES = 2 * Integer.BYTES;
+    private static final int MAX_RECORD_BYTES = 64 << 20;
+    private static final int MAX_PENDING_BYTES = 16 << 20;
+
+    private final Path directory;
+    private final long flushIntervalNanos;
+    private final int batchSize;
+    private final boolean fsync;
+    private final boolean awaitSync;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appendedCondition = lock.newCondition();
+    private final Condition flushedCondition = lock.newCondition();
+    private ByteBuffer pending = ByteBuffer.allocate(1 << 16);
+    private ByteBuffer flushing = ByteBuffer.allocate(1 << 16);
+    private int pendingRecords;
+    private long appended;
+    private long durable;
+    private int waiting;
+    private boolean writing;
+    private IOException failure;
+    private boolean closed;
+    private FileChannel channel;
+    private long generation;
+    private long appendedInGeneration;
+    private final Thread flusher;
+
+    public WriteAheadLog(Path directory, Duration flushInterval, int batchSize, boolean fsync, boolean awaitSync) throws IOException {
+        Files.createDirectories(directory);
+        if (Files.exists(directory.resolve(LEGACY_FILE_NAME))) {
+            Files.move(directory.resolve(LEGACY_FILE_NAME), directory.resolve(segmentName(0)));
+        }
+        this.directory = directory;
+        this.generation = Math.max(0, Math.max(lastGeneration(listGenerations("tasks")), lastGeneration(listGenerations("snapshot"))));
+        this.channel = openSegment(generation);
+        this.flushIntervalNanos = flushInterval.toNanos();
+        this.batchSize = Math.max(1, batchSize);
+        this.fsync = fsync;
+        this.awaitSync = awaitSync;
+        this.flusher = new Thread(this::flushLoop, "task-wal-flusher");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    @Override
+    public void replay(BiConsumer<Integer, Task> apply) {
+        try {
+            List<Long> snapshots = listGenerations("snapshot");
+            long from = 0;
+            if (!snapshots.isEmpty()) {
+                from = TaskSnapshot.read(directory.resolve(snapshotName(lastGeneration(snapshots))), apply);
+            }
+            for (long segment : listGenerations("tasks")) {
+                if (segment >= from) {
+                    replaySegment(segment, apply);
+                }
+            }
+            deleteBefore(from);
+            try (Stream<Path> files = Files.list(directory)) {
+                for (Path file : files.filter(file -> file.getFileName().toString().endsWith(".snap.tmp")).toList()) {
+                    Files.delete(file);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void replaySegment(long segment, BiConsumer<Integer, Task> apply) throws IOException {
+        try (FileChannel segmentChannel = FileChannel.open(directory.resolve(segmentName(segment)), StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = segmentChannel.size();
+            long readPosition = 0;
+            long valid = 0;
+            ByteBuffer buffer = ByteBuffer.allocate(1 << 20);
+            CRC32C crc = new CRC32C();
+            records:
+            while (true) {
+                int read = segmentChannel.read(buffer, readPosition);
+                if (read > 0) {
+                    readPosition += read;
+                }
+                buffer.flip();
+                while (buffer.remaining() >= HEADER_BYTES) {
+                    int start = buffer.position();
+                    int length = buffer.getInt(start);
+                    if (length <= 0 || length > MAX_RECORD_BYTES) {
+                        break records;
+                    }
+                    if (buffer.remaining() < HEADER_BYTES + length) {
+                        break;
+                    }
+                    crc.reset();
+                    crc.update(buffer.slice(start + HEADER_BYTES, length));
+                    if ((int) crc.getValue() != buffer.getInt(start + Integer.BYTES)) {
+                        break records;
+                    }
+                    apply(buffer.slice(start + HEADER_BYTES, length), apply);
+                    buffer.position(start + HEADER_BYTES + length);
+                    valid += HEADER_BYTES + length;
+                }
+                if (readPosition >= size) {
+                    break;
+                }
+                buffer.compact();
+                if (!buffer.hasRemaining()) {
+                    buffer = grow(buffer.flip(), buffer.capacity());
+                }
+            }
+            // whatever follows the last intact record was torn by a crash mid-write and was never acknowledged
+            if (valid < size) {
+                segmentChannel.truncate(valid);
+            }
+        }
+        if (segment == generation) {
+            channel.position(channel.size());
+        }
+    }
+
+    private static void apply(ByteBuffer record, BiConsumer<Integer, Task> apply) {
+        if (record.get() == PUT) {
+            Task task = TaskRecordCodec.read(record);
+            apply.accept(task.getId(), task);
+        } else {
+            apply.accept(record.getInt(), null);
+        }
+    }
+
+    @Override
+    public void put(Task task) {
+        byte[] text = TaskRecordCodec.textBytes(task);
+        ByteBuffer record = newRecord(PUT, TaskRecordCodec.size(task, text));
+        TaskRecordCodec.write(record, task, text);
+        append(record);
+    }
+
+    @Override
+    public void delete(Integer id) {
+        ByteBuffer record = newRecord(DELETE, Integer.BYTES);
+        record.putInt(id);
+        append(record);
+    }
+
+    private static ByteBuffer newRecord(byte op, int payloadBytes) {
+        ByteBuffer record = ByteBuffer.allocate(HEADER_BYTES + 1 + payloadBytes);
+        record.putInt(1 + payloadBytes);
+        record.putInt(0);
+        record.put(op);
+        return record;
+    }
+
+    // the bound is soft: writers that passed it together can each still append their records
+    @Override
+    public void awaitCapacity() {
+        lock.lock();
+        try {
+            while (pending.position() >= MAX_PENDING_BYTES && failure == null && !closed) {
+                flushedCondition.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // records are encoded by the caller, the lock only covers copying them into the pending batch
+    private void append(ByteBuffer record) {
+        CRC32C crc = new CRC32C();
+        crc.update(record.array(), HEADER_BYTES, record.capacity() - HEADER_BYTES);
+        record.putInt(Integer.BYTES, (int) crc.getValue());
+        record.flip();
+        lock.lock();
+        try {
+            checkWritable();
+            if (pending.remaining() < record.remaining()) {
+                pending = grow(pending.flip(), record.remaining());
+            }
+            pending.put(record);
+            appended++;
+            appendedInGeneration++;
+            pendingRecords++;
+            if (pendingRecords == 1 || pendingRecords >= batchSize) {
+                appendedCondition.signal();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void sync() {
+        if (!awaitSync) {
+            return;
+        }
+        lock.lock();
+        try {
+            long target = appended;
+            waiting++;
+            appendedCondition.signal();
+            while (durable < target && failure == null) {
+                flushedCondition.awaitUninterruptibly();
+            }
+            waiting--;
+            if (failure != null) {
+                throw new UncheckedIOException("Write-ahead log is not writable", failure);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // group commit: one write and one fsync for everything appended while the previous batch was on its way to disk
+    private void flushLoop() {
+        lock.lock();
+        try {
+            while (true) {
+                while (pendingRecords == 0 && !closed) {
+                    appendedCondition.awaitUninterruptibly();
+                }
+                if (pendingRecords == 0) {
+                    return;
+                }
+                long remaining = flushIntervalNanos;
+                while (pendingRecords < batchSize && waiting == 0 && !closed && remaining > 0) {
+                    try {
+                        remaining = appendedCondition.awaitNanos(remaining);
+                    } catch (InterruptedException e) {
+                        remaining = 0;
+                    }
+                }
+                ByteBuffer batch = pending;
+                pending = flushing;
+                flushing = batch;
+                long upTo = appended;
+                FileChannel target = channel;
+                pendingRecords = 0;
+                writing = true;
+                lock.unlock();
+                IOException error = null;
+                try {
+                    write(target, batch.flip());
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                }
+                writing = false;
+                batch.clear();
+                if (error != null) {
+                    failure = error;
+                    flushedCondition.signalAll();
+                    return;
+                }
+                durable = upTo;
+                flushedCondition.signalAll();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void write(FileChannel target, ByteBuffer batch) throws IOException {
+        while (batch.hasRemaining()) {
+            target.write(batch);
+        }
+        if (fsync) {
+            target.force(false);
+        }
+    }
+
+    // callers keep writers out while rotating, so the old segment ends exactly where the snapshot's view of the map starts
+    @Override
+    public long rotate() {
+        lock.lock();
+        try {
+            checkWritable();
+            if (appendedInGeneration == 0) {
+                return -1;
+            }
+            long target = appended;
+            waiting++;
+            appendedCondition.signal();
+            while ((durable < target || writing) && failure == null) {
+                flushedCondition.awaitUninterruptibly();
+            }
+            waiting--;
+            checkWritable();
+            try {
+                channel.force(false);
+                channel.close();
+                channel = openSegment(generation + 1);
+            } catch (IOException e) {
+                failure = e;
+                throw new UncheckedIOException("Write-ahead log is not writable", e);
+            }
+            generation++;
+            appendedInGeneration = 0;
+            return generation;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // the tasks may keep changing while they are written, replaying the segment of this generation on top makes them consistent
+    @Override
+    public void snapshot(long snapshotGeneration, Iterable<Task> tasks) {
+        Path temporary = directory.resolve(snapshotName(snapshotGeneration) + ".tmp");
+        try {
+            Files.deleteIfExists(temporary);
+            TaskSnapshot.write(temporary, snapshotGeneration, tasks, TaskSnapshot.DEFAULT_REGION_BYTES);
+            Files.move(temporary, directory.resolve(snapshotName(snapshotGeneration)), StandardCopyOption.ATOMIC_MOVE);
+            try (FileChannel directoryChannel = FileChannel.open(directory, StandardOpenOption.READ)) {
+                directoryChannel.force(true);
+            } catch (IOException e) {
+                // not every platform can sync a directory, the rename is still atomic
+            }
+            deleteBefore(snapshotGeneration);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void deleteBefore(long snapshotGeneration) throws IOException {
+        for (long segment : listGenerations("tasks")) {
+            if (segment < snapshotGeneration) {
+                Files.deleteIfExists(directory.resolve(segmentName(segment)));
+            }
+        }
+        for (long snapshot : listGenerations("snapshot")) {
+            if (snapshot < snapshotGeneration) {
+                Files.deleteIfExists(directory.resolve(snapshotName(snapshot)));
+            }
+        }
+    }
+
+    private List<Long> listGenerations(String kind) throws IOException {
+        List<Long> generations = new ArrayList<>();
+        try (Stream<Path> files = Files.list(directory)) {
+            files.forEach(file -> {
+                Matcher matcher = FILE_NAME.matcher(file.getFileName().toString());
+                if (matcher.matches() && matcher.group(1).equals(kind)) {
+                    generations.add(Long.parseLong(matcher.group(2)));
+                }
+            });
+        }
+        generations.sort(null);
+        return generations;
+    }
+
+    private static long lastGeneration(List<Long> generations) {
+        return generations.isEmpty() ? -1 : generations.get(generations.size() - 1);
+    }
+
+    private FileChannel openSegment(long segment) throws IOException {
+        FileChannel segmentChannel = FileChannel.open(directory.resolve(segmentName(segment)), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        segmentChannel.position(segmentChannel.size());
+        return segmentChannel;
+    }
+
+    static String segmentName(long segment) {
+        return String.format("tasks-%020d.wal", segment);
+    }
+
+    static String snapshotName(long snapshot) {
+        return String.format("snapshot-%020d.snap", snapshot);
+    }
+
+    private void checkWritable() {
+        if (failure != null) {
+            throw new UncheckedIOException("Write-ahead log is not writable", failure);
+        }
+        if (closed) {
+            throw new IllegalStateException("Write-ahead log is closed");
+        }
+    }
+
+    private static ByteBuffer grow(ByteBuffer content, int extra) {
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(content.capacity() * 2, content.remaining() + extra));
+        grown.put(content);
+        return grown;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appendedCondition.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (channel.isOpen()) {
+            channel.force(true);
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.utils.histograms.DurationHistogram;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+class CompletionTimeStatistics {
+
+    private static final Priority[] PRIORITIES = Priority.values();
+
+    private final Totals total = new Totals();
+    private final Totals[] byPriority = new Totals[PRIORITIES.length];
+    // increases after the totals have changed, tasks that are not done leave it as it is
+    private final AtomicLong version = new AtomicLong();
+
+    CompletionTimeStatistics() {
+        for (int i = 0; i < byPriority.length; i++) {
+            byPriority[i] = new Totals();
+        }
+    }
+
+    void replace(Task before, Task after) {
+        boolean recorded = before != null && record(before, -1);
+        recorded |= after != null && record(after, 1);
+        if (recorded) {
+            version.incrementAndGet();
+        }
+    }
+
+    private boolean record(Task task, int sign) {
+        if (!task.isState() || task.getTimeFrame() == null) {
+            return false;
+        }
+        total.add(task.getTimeFrame(), sign);
+        if (task.getPriority() != null) {
+            byPriority[task.getPriority().ordinal()].add(task.getTimeFrame(), sign);
+        }
+        return true;
+    }
+
+    long version() {
+        return version.get();
+    }
+
+    Map<String, CompletionTimeStatsDTO> distributions() {
+        if (total.count.sum() <= 0) {
+            return null;
+        }
+        Map<String, CompletionTimeStatsDTO> stats = new LinkedHashMap<>();
+        stats.put("total", total.toStats());
+        for (Priority priority : PRIORITIES) {
+            stats.put(priority.name(), byPriority[priority.ordinal()].toStats());
+        }
+        return stats;
+    }
+
+    Map<String, Duration> averages() {
+        if (total.count.sum() <= 0) {
+            return null;
+        }
+        Map<String, Duration> mapAvgTimes = new HashMap<>();
+        mapAvgTimes.put("AvgTotalTime", total.average());
+        mapAvgTimes.put("avgTimeLowPriority", byPriority[Priority.LOW.ordinal()].average());
+        mapAvgTimes.put("avgTimeMediumPriority", byPriority[Priority.MEDIUM.ordinal()].average());
+        mapAvgTimes.put("avgTimeHighPriority", byPriority[Priority.HIGH.ordinal()].average());
+        return mapAvgTimes;
+    }
+
+    private static final class Totals {
+        // a sum in nanoseconds would wrap after 292 years of completion time, around a million tasks of a few hours;
+        // whole seconds and the nanoseconds within them are summed apart and only put together as a Duration
+        private final LongAdder seconds = new LongAdder();
+        private final LongAdder nanos = new LongAdder();
+        private final LongAdder count = new LongAdder();
+        private final DurationHistogram histogram = new DurationHistogram();
+
+        void add(Duration timeFrame, int sign) {
+            seconds.add(sign * timeFrame.getSeconds());
+            nanos.add(sign * timeFrame.getNano());
+            count.add(sign);
+            histogram.add(timeFrame, sign);
+        }
+
+        CompletionTimeStatsDTO toStats() {
+            return new CompletionTimeStatsDTO(Math.max(0, count.sum()), average(),
+                    histogram.getValueAtPercentile(50), histogram.getValueAtPercentile(90), histogram.getValueAtPercentile(99));
+        }
+
+        Duration average() {
+            long amount = count.sum();
+            return amount > 0 ? Duration.ofSeconds(seconds.sum(), nanos.sum()).dividedBy(amount) : Duration.ZERO;
+        }
+    }
+}
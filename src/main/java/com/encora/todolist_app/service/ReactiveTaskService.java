@@ -0,0 +1,116 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.StateTaskDTO;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.repository.ReactiveTaskRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// changes still go through TaskService so the completion time statistics stay in step with either web stack
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveTaskService {
+
+    private static final int EVENT_BATCH_SIZE = 256;
+
+    private final TaskService taskService;
+    private final ReactiveTaskRepository reactiveTaskRepository;
+    private final Scheduler scheduler = Schedulers.boundedElastic();
+
+    @Autowired
+    public ReactiveTaskService(TaskService taskService, ReactiveTaskRepository reactiveTaskRepository) {
+        this.taskService = taskService;
+        this.reactiveTaskRepository = reactiveTaskRepository;
+    }
+
+    public Flux<Task> getAllTasks(Boolean state, String priority, String text, Sort sort) {
+        return reactiveTaskRepository.findAllByStateAndPriorityAndText(state, priority, text, sort);
+    }
+
+    public Flux<Task> exportTasks() {
+        return reactiveTaskRepository.findAll();
+    }
+
+    // events are polled only as far as the client has asked for them, the rest wait coalesced in the subscription
+    public Flux<TaskEventDTO> streamEvents(Long after) {
+        return Flux.create(sink -> {
+            AtomicInteger draining = new AtomicInteger();
+            TaskEventFeed.Subscription[] subscription = new TaskEventFeed.Subscription[1];
+            Runnable drain = () -> {
+                if (draining.getAndIncrement() != 0) {
+                    return;
+                }
+                do {
+                    if (subscription[0] != null) {
+                        long requested;
+                        List<TaskEventDTO> events;
+                        while ((requested = sink.requestedFromDownstream()) > 0
+                                && !(events = subscription[0].poll((int) Math.min(requested, EVENT_BATCH_SIZE))).isEmpty()) {
+                            events.forEach(sink::next);
+                        }
+                    }
+                } while (draining.decrementAndGet() != 0);
+            };
+            long resumeAfter = after != null ? after : taskService.currentEventSequence();
+            subscription[0] = taskService.subscribeToEvents(resumeAfter, () -> scheduler.schedule(drain));
+            sink.onRequest(requested -> drain.run());
+            sink.onDispose(subscription[0]::close);
+            drain.run();
+        });
+    }
+
+    public Mono<Task> addTask(Task task) {
+        return call(() -> taskService.addTask(task));
+    }
+
+    public Mono<Integer> addTasks(List<Task> tasks) {
+        return call(() -> taskService.addTasks(tasks));
+    }
+
+    public Mono<Task> updateTask(Integer id, Task task) {
+        return call(() -> taskService.updateTask(id, task));
+    }
+
+    public Mono<Void> deleteTask(Integer id) {
+        return Mono.fromRunnable(() -> taskService.deleteTask(id)).subscribeOn(scheduler).then();
+    }
+
+    public Mono<Map<String, Duration>> avgTimesAllTask() {
+        return Mono.fromSupplier(taskService::avgTimesAllTask);
+    }
+
+    public Mono<Map<String, CompletionTimeStatsDTO>> completionTimeStats() {
+        return Mono.fromSupplier(taskService::completionTimeStats);
+    }
+
+    public Mono<StateTaskDTO> updateStatusDoneTask(int id) {
+        return call(() -> taskService.updateStatusDoneTask(id));
+    }
+
+    public Mono<StateTaskDTO> updateStatusUndoneTask(int id) {
+        return call(() -> taskService.updateStatusUndoneTask(id));
+    }
+
+    public Mono<List<StateTaskDTO>> updateStatusTasks(List<Integer> ids, Boolean state, String priority, String text, boolean done) {
+        return call(() -> taskService.updateStatusTasks(ids, state, priority, text, done));
+    }
+
+    // a null result completes the Mono empty
+    private <T> Mono<T> call(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(scheduler);
+    }
+}
@@ -0,0 +1,260 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.models.TaskEventType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// numbers every task change and hands it to the subscribers; the recent history lets a client that reconnects
+// resume after the last sequence it saw, and a subscriber that falls behind gets its pending events coalesced
+// per task, or replaced by a single RESET once it lags by more tasks than its buffer holds
+@Component
+public class TaskEventFeed implements AutoCloseable {
+
+    static final int HISTORY_SIZE = 4096;
+    static final int SUBSCRIBER_BUFFER_SIZE = 1024;
+    private static final int ID_LOCKS = 256;
+
+    private final TaskEventDTO[] history = new TaskEventDTO[HISTORY_SIZE];
+    private long sequence;
+    // orders sequence numbers with the history and every subscriber buffer, so no client sees them out of order
+    private final Lock publishLock = new ReentrantLock();
+    private final Lock[] idLocks = new Lock[ID_LOCKS];
+    // changes begun so far and still open; a change that overlapped no other one can only have written the latest
+    // state of its tasks, every other change reads them again
+    private final Lock changesLock = new ReentrantLock();
+    private volatile long changesBegun;
+    private int changesOpen;
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+    // senders may block on slow clients, a virtual thread each keeps that off the request threads
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+
+    public TaskEventFeed() {
+        for (int i = 0; i < idLocks.length; i++) {
+            idLocks[i] = new ReentrantLock();
+        }
+    }
+
+    // a change made outside beginChange always has its task read again
+    public void publish(TaskEventType type, Integer id, Supplier<Task> currentTask) {
+        publish(null, type, id, null, currentTask);
+    }
+
+    // the written task is only trusted when no other change began before this one closed: two changes of one task
+    // racing to publish could otherwise let the older state carry the later sequence, so the task is read again under
+    // the id lock then; a task that is gone is published as DELETED
+    public void publish(Change change, TaskEventType type, Integer id, Task written, Supplier<Task> currentTask) {
+        Lock idLock = idLocks[id & (ID_LOCKS - 1)];
+        idLock.lock();
+        try {
+            Task task = change != null && change.alone && change.begun == changesBegun ? written : currentTask.get();
+            TaskEventType resolvedType = task == null ? TaskEventType.DELETED : type == TaskEventType.DELETED ? TaskEventType.UPDATED : type;
+            publishLock.lock();
+            try {
+                TaskEventDTO event = new TaskEventDTO(++sequence, resolvedType, id, task);
+                history[(int) (event.getSequence() % HISTORY_SIZE)] = event;
+                subscriptions.forEach(subscription -> subscription.offer(event));
+            } finally {
+                publishLock.unlock();
+            }
+        } finally {
+            idLock.unlock();
+        }
+    }
+
+    // opened before the repository is written and closed after the last publish of the change
+    public Change beginChange() {
+        changesLock.lock();
+        try {
+            return new Change(++changesBegun, changesOpen++ == 0);
+        } finally {
+            changesLock.unlock();
+        }
+    }
+
+    public long currentSequence() {
+        publishLock.lock();
+        try {
+            return sequence;
+        } finally {
+            publishLock.unlock();
+        }
+    }
+
+    // listener is called whenever the subscription goes from empty to having events, possibly before this
+    // returns, and must not block; events after the given sequence still in the history are waiting on return
+    public Subscription subscribe(long after, Runnable listener) {
+        Subscription subscription = new Subscription(listener);
+        publishLock.lock();
+        try {
+            long oldest = Math.max(1, sequence - HISTORY_SIZE + 1);
+            if (after < oldest - 1 || after > sequence) {
+                subscription.reset(sequence);
+            } else {
+                for (long s = after + 1; s <= sequence; s++) {
+                    subscription.offer(history[(int) (s % HISTORY_SIZE)]);
+                }
+            }
+            subscriptions.add(subscription);
+        } finally {
+            publishLock.unlock();
+        }
+        return subscription;
+    }
+
+    // pushes the events to the sender one at a time from a virtual thread, until the sender fails or the
+    // subscription is closed
+    public Subscription subscribe(long after, EventSender sender) {
+        // held until the subscription is assigned, so an early listener call cannot start a drain without it
+        AtomicBoolean draining = new AtomicBoolean(true);
+        Subscription[] subscription = new Subscription[1];
+        Runnable drain = () -> senders.execute(() -> {
+            do {
+                List<TaskEventDTO> events;
+                while (!(events = subscription[0].poll(SUBSCRIBER_BUFFER_SIZE)).isEmpty()) {
+                    try {
+                        for (TaskEventDTO event : events) {
+                            sender.send(event);
+                        }
+                    } catch (IOException | RuntimeException e) {
+                        subscription[0].close();
+                        return;
+                    }
+                }
+                draining.set(false);
+            } while (subscription[0].hasEvents() && draining.compareAndSet(false, true));
+        });
+        Runnable listener = () -> {
+            if (draining.compareAndSet(false, true)) {
+                drain.run();
+            }
+        };
+        subscription[0] = subscribe(after, listener);
+        draining.set(false);
+        if (subscription[0].hasEvents()) {
+            listener.run();
+        }
+        return subscription[0];
+    }
+
+    @Override
+    public void close() {
+        senders.shutdownNow();
+    }
+
+    @FunctionalInterface
+    public interface EventSender {
+        void send(TaskEventDTO event) throws IOException;
+    }
+
+    public class Change implements AutoCloseable {
+
+        private final long begun;
+        private final boolean alone;
+
+        private Change(long begun, boolean alone) {
+            this.begun = begun;
+            this.alone = alone;
+        }
+
+        @Override
+        public void close() {
+            changesLock.lock();
+            try {
+                changesOpen--;
+            } finally {
+                changesLock.unlock();
+            }
+        }
+    }
+
+    public class Subscription implements AutoCloseable {
+
+        private final Runnable listener;
+        private final Lock lock = new ReentrantLock();
+        // pending events keyed by task in sequence order, a newer event for a task replaces the older one
+        private final LinkedHashMap<Integer, TaskEventDTO> pending = new LinkedHashMap<>();
+        private TaskEventDTO reset;
+
+        private Subscription(Runnable listener) {
+            this.listener = listener;
+        }
+
+        private void offer(TaskEventDTO event) {
+            boolean wasEmpty;
+            lock.lock();
+            try {
+                wasEmpty = reset == null && pending.isEmpty();
+                pending.remove(event.getId());
+                if (pending.size() == SUBSCRIBER_BUFFER_SIZE) {
+                    pending.clear();
+                    reset = new TaskEventDTO(event.getSequence(), TaskEventType.RESET, null, null);
+                } else {
+                    pending.put(event.getId(), event);
+                }
+            } finally {
+                lock.unlock();
+            }
+            if (wasEmpty) {
+                listener.run();
+            }
+        }
+
+        private void reset(long upTo) {
+            lock.lock();
+            try {
+                pending.clear();
+                reset = new TaskEventDTO(upTo, TaskEventType.RESET, null, null);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public List<TaskEventDTO> poll(int max) {
+            lock.lock();
+            try {
+                List<TaskEventDTO> events = new ArrayList<>(Math.min(max, pending.size() + 1));
+                if (reset != null && max > 0) {
+                    events.add(reset);
+                    reset = null;
+                }
+                Iterator<TaskEventDTO> iterator = pending.values().iterator();
+                while (events.size() < max && iterator.hasNext()) {
+                    events.add(iterator.next());
+                    iterator.remove();
+                }
+                return events;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public boolean hasEvents() {
+            lock.lock();
+            try {
+                return reset != null || !pending.isEmpty();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        @Override
+        public void close() {
+            subscriptions.remove(this);
+        }
+    }
+}
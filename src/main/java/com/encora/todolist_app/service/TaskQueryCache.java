@@ -0,0 +1,52 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.QueryCacheStatsDTO;
+import com.encora.todolist_app.models.Task;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+// pages of GET /todos tagged with the repository version they were read at; any change to the tasks moves the
+// version on, so an entry is never served after a change and is replaced by the next read of its key
+public class TaskQueryCache {
+
+    private final Cache<Key, Entry> pages;
+    // a stale entry is a hit for Caffeine, so hits and misses are counted here
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public TaskQueryCache(long maximumSize) {
+        this.pages = Caffeine.newBuilder().maximumSize(maximumSize).recordStats().build();
+    }
+
+    Page<Task> get(Boolean state, String priority, String text, Pageable pageable, long version, Supplier<Page<Task>> loader) {
+        Key key = new Key(state, priority, text, pageable);
+        Entry entry = pages.getIfPresent(key);
+        if (entry != null && entry.version() == version) {
+            hits.increment();
+            return entry.page();
+        }
+        misses.increment();
+        // loaded outside of the cache, concurrent misses of one key may query twice but never wait on each other
+        Page<Task> page = loader.get();
+        if (page != null) {
+            pages.asMap().merge(key, new Entry(version, page), (current, loaded) -> current.version() > loaded.version() ? current : loaded);
+        }
+        return page;
+    }
+
+    public QueryCacheStatsDTO stats() {
+        pages.cleanUp();
+        return new QueryCacheStatsDTO(hits.sum(), misses.sum(), pages.stats().evictionCount(), pages.estimatedSize());
+    }
+
+    private record Key(Boolean state, String priority, String text, Pageable pageable) {
+    }
+
+    private record Entry(long version, Page<Task> page) {
+    }
+}
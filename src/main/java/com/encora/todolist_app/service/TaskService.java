@@ -1,121 +1,196 @@
 package com.encora.todolist_app.service;
 
-import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.QueryCacheStatsDTO;
 import com.encora.todolist_app.models.StateTaskDTO;
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventType;
+import com.encora.todolist_app.repository.TaskChange;
 import com.encora.todolist_app.repository.TaskRepository;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 @Service
 public class TaskService {
 
     private final TaskRepository taskRepository;
+    private final TaskEventFeed taskEventFeed;
+    private final TaskQueryCache queryCache;
+    private final CompletionTimeStatistics statistics = new CompletionTimeStatistics();
 
     @Autowired
-    public TaskService(TaskRepository taskRepository) {
+    public TaskService(TaskRepository taskRepository, TaskEventFeed taskEventFeed, TaskQueryCache queryCache) {
         this.taskRepository = taskRepository;
+        this.taskEventFeed = taskEventFeed;
+        this.queryCache = queryCache;
+        taskRepository.getAllTask().forEach(task -> statistics.replace(null, task));
     }
 
+    // the version is read before the query, so a cached page is never older than the version it is kept under
     public Page<Task> getAllTasks(Boolean state, String priority, String text, Pageable pageable) {
-        return taskRepository.findAllByStateAndPriorityAndText(state, priority, text, pageable);
+        return queryCache.get(state, priority, text, pageable, taskRepository.version(),
+                () -> taskRepository.findAllByStateAndPriorityAndText(state, priority, text, pageable));
+    }
+
+    public QueryCacheStatsDTO queryCacheStats() {
+        return queryCache.stats();
+    }
+
+    public Window<Task> getTasksAfter(Boolean state, String priority, String text, Sort sort, KeysetScrollPosition position, int size) {
+        return taskRepository.scrollByStateAndPriorityAndText(state, priority, text, sort, position, size);
     }
 
     public Task addTask(Task task) {
-        return taskRepository.save(task);
+        try (TaskEventFeed.Change change = taskEventFeed.beginChange()) {
+            Task savedTask = taskRepository.save(task);
+            if (savedTask != null) {
+                statistics.replace(null, savedTask);
+                publish(change, TaskEventType.INSERTED, savedTask.getId(), savedTask);
+            }
+            return savedTask;
+        }
     }
 
-    public Task updateTask(Integer id, Task task) {
-        if (taskRepository.findById(id).isPresent()) {
-            task.setId(id);
-            return taskRepository.replaceTask(id,task);
+    public int addTasks(List<Task> tasks) {
+        try (TaskEventFeed.Change change = taskEventFeed.beginChange()) {
+            List<Task> savedTasks = taskRepository.saveAll(tasks);
+            savedTasks.forEach(task -> {
+                statistics.replace(null, task);
+                publish(change, TaskEventType.INSERTED, task.getId(), task);
+            });
+            return savedTasks.size();
         }
-        return null; // Considera lanzar una excepción si no se encuentra
+    }
+
+    public Stream<Task> exportTasks() {
+        return taskRepository.streamAll();
+    }
+
+    public Task updateTask(Integer id, Task task) {
+        task.setId(id);
+        return replaceTask(id, TaskEventType.UPDATED, current -> task);
     }
 
     public void deleteTask(Integer id) {
-        taskRepository.deleteById(id);
+        try (TaskEventFeed.Change change = taskEventFeed.beginChange()) {
+            Task deletedTask = taskRepository.deleteById(id);
+            if (deletedTask != null) {
+                statistics.replace(deletedTask, null);
+                publish(change, TaskEventType.DELETED, id, null);
+            }
+        }
+    }
+
+    public long currentEventSequence() {
+        return taskEventFeed.currentSequence();
+    }
+
+    public TaskEventFeed.Subscription subscribeToEvents(long after, Runnable listener) {
+        return taskEventFeed.subscribe(after, listener);
+    }
+
+    public TaskEventFeed.Subscription subscribeToEvents(long after, TaskEventFeed.EventSender sender) {
+        return taskEventFeed.subscribe(after, sender);
     }
 
     public Map<String, Duration> avgTimesAllTask() {
+        return statistics.averages();
+    }
 
-        List<Task> allTasks = taskRepository.getAllTask();
-        if(allTasks.isEmpty()){
-            return null;
-        }
+    public Map<String, CompletionTimeStatsDTO> completionTimeStats() {
+        return statistics.distributions();
+    }
+
+    public long tasksVersion() {
+        return taskRepository.version();
+    }
+
+    // the statistics are updated after the repository, so they carry their own version
+    public long statisticsVersion() {
+        return statistics.version();
+    }
+
+    public StateTaskDTO updateStatusDoneTask(int id) {
+        LocalDateTime doneDate = LocalDateTime.now();
+        Task task = replaceTask(id, TaskEventType.DONE, current -> done(current, doneDate));
+        return task != null ? new StateTaskDTO(task.getId(), task.isState()) : null; // Considera lanzar una excepción si no se encuentra
+    }
+
+    public StateTaskDTO updateStatusUndoneTask(int id) {
+        Task task = replaceTask(id, TaskEventType.UNDONE, TaskService::undone);
+        return task != null ? new StateTaskDTO(task.getId(), task.isState()) : null; // Considera lanzar una excepción si no se encuentra
+    }
 
-        Map<String,Duration> mapAvgTimes = new HashMap<>();
-        Duration avgTotalTime = Duration.ZERO;
-        Duration avgTimeLowP = Duration.ZERO;
-        Duration avgTimeMediumP = Duration.ZERO;
-        Duration avgTimeHighP = Duration.ZERO;
-
-        int totalTask= 0;
-        int amountLowTask = 0;
-        int amountMediumTask = 0;
-        int amountHighTask=0;
-
-        for (Task task:allTasks) {
-            if (task.isState()){
-                totalTask++;
-                avgTotalTime = avgTotalTime.plus(task.getTimeFrame());
-                if(task.getPriority() == Priority.LOW){
-                    avgTimeLowP = avgTimeLowP.plus(task.getTimeFrame());
-                    amountLowTask++;
-                } else if (task.getPriority() == Priority.MEDIUM) {
-                    avgTimeMediumP = avgTimeMediumP.plus(task.getTimeFrame());
-                    amountMediumTask++;
-                }else{
-                    avgTimeHighP = avgTimeHighP.plus(task.getTimeFrame());
-                    amountHighTask++;
+    // ids take precedence over the filter; every task is stamped with the same done date and tasks already
+    // in the requested state are reported as they are, keeping their original done date
+    public List<StateTaskDTO> updateStatusTasks(List<Integer> ids, Boolean state, String priority, String text, boolean done) {
+        LocalDateTime doneDate = LocalDateTime.now();
+        UnaryOperator<Task> change = current -> current.isState() == done ? current : done ? done(current, doneDate) : undone(current);
+        try (TaskEventFeed.Change feedChange = taskEventFeed.beginChange()) {
+            List<TaskChange> changes = ids != null
+                    ? taskRepository.updateAll(new ArrayList<>(new LinkedHashSet<>(ids)), change)
+                    : taskRepository.updateAllByStateAndPriorityAndText(state, priority, text, change);
+            List<StateTaskDTO> states = new ArrayList<>(changes.size());
+            for (TaskChange taskChange : changes) {
+                if (taskChange.after() != taskChange.before()) {
+                    statistics.replace(taskChange.before(), taskChange.after());
+                    publish(feedChange, done ? TaskEventType.DONE : TaskEventType.UNDONE, taskChange.after().getId(), taskChange.after());
                 }
+                states.add(new StateTaskDTO(taskChange.after().getId(), taskChange.after().isState()));
             }
+            return states;
         }
+    }
 
-        if(totalTask == 0){
-            return null;
-        }
-
-        mapAvgTimes.put("AvgTotalTime", avgTotalTime.dividedBy(totalTask));
-        mapAvgTimes.put("avgTimeLowPriority",amountLowTask != 0 ? avgTimeLowP.dividedBy(amountLowTask): Duration.ZERO);
-        mapAvgTimes.put("avgTimeMediumPriority",amountMediumTask != 0? avgTimeMediumP.dividedBy(amountMediumTask): Duration.ZERO);
-        mapAvgTimes.put("avgTimeHighPriority",amountHighTask != 0? avgTimeHighP.dividedBy(amountHighTask): Duration.ZERO);
+    // the written task goes out as it is unless another change overlapped, only then is it read back
+    private void publish(TaskEventFeed.Change change, TaskEventType type, Integer id, Task written) {
+        taskEventFeed.publish(change, type, id, written, () -> taskRepository.findById(id).orElse(null));
+    }
 
-        return mapAvgTimes;
+    private static Task done(Task current, LocalDateTime doneDate) {
+        Task doneTask = new Task(current);
+        doneTask.setState(true);
+        doneTask.setDoneDate(doneDate);
+        doneTask.setTimeFrame(Duration.between(doneTask.getCreationDate(), doneTask.getDoneDate()));
+        return doneTask;
     }
 
-    public StateTaskDTO updateStatusDoneTask(int id) {
-        Optional<Task> taskOptional = taskRepository.findById(id);
-        if (taskOptional.isPresent()) {
-            Task task = taskOptional.get();
-            task.setState(true);
-            task.setDoneDate(LocalDateTime.now());
-            task.setTimeFrame(Duration.between(task.getCreationDate(),task.getDoneDate()));
-            taskRepository.replaceTask(id,task);
-            return new StateTaskDTO(task.getId(), task.isState());
-        }
-        return null; // Considera lanzar una excepción si no se encuentra
+    private static Task undone(Task current) {
+        Task undoneTask = new Task(current);
+        undoneTask.setState(false);
+        undoneTask.setDoneDate(null);
+        undoneTask.setTimeFrame(null);
+        return undoneTask;
     }
 
-    public StateTaskDTO updateStatusUndoneTask(int id) {
-        Optional<Task> taskOptional = taskRepository.findById(id);
-        if (taskOptional.isPresent()) {
-            Task task = taskOptional.get();
-            task.setState(false);
-            task.setDoneDate(null);
-            task.setTimeFrame(null);
-            taskRepository.replaceTask(id,task);
-            return new StateTaskDTO(task.getId(), task.isState());
+    // compare-and-replace, so the statistics see every transition exactly once even when requests race on a task
+    private Task replaceTask(int id, TaskEventType type, UnaryOperator<Task> change) {
+        try (TaskEventFeed.Change feedChange = taskEventFeed.beginChange()) {
+            Optional<Task> current;
+            while ((current = taskRepository.findById(id)).isPresent()) {
+                Task task = change.apply(current.get());
+                if (taskRepository.replaceTask(id, current.get(), task)) {
+                    statistics.replace(current.get(), task);
+                    publish(feedChange, type, id, task);
+                    return task;
+                }
+            }
+            return null;
         }
-        return null; // Considera lanzar una excepción si no se encuentra
     }
-}
\ No newline at end of file
+}
@@ -2,17 +2,18 @@ package com.encora.todolist_app.utils.comparators;
 
 import com.encora.todolist_app.models.Task;
 
+import java.time.LocalDateTime;
 import java.util.Comparator;
 
 public class UrgentTaskComparator implements Comparator<Task> {
+
+    // tasks without a due date go last, the same as when sorting by dueDate, so the order stays transitive
+    private static final Comparator<Task> URGENCY = Comparator
+            .comparing(Task::getDueDate, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder()))
+            .thenComparing(Task::getPriority, Comparator.nullsLast(Comparator.naturalOrder()));
+
     @Override
     public int compare(Task t1, Task t2) {
-        if(t1.getDueDate() != null && t2.getDueDate() != null) {
-            int dateSoon = t1.getDueDate().compareTo(t2.getDueDate());
-            if (dateSoon != 0) {
-                return dateSoon;
-            }
-        }
-        return t1.getPriority().compareTo(t2.getPriority());
+        return URGENCY.compare(t1, t2);
     }
 }
@@ -0,0 +1,49 @@
+package com.encora.todolist_app.utils.cursors;
+
+import com.encora.todolist_app.models.Priority;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.ScrollPosition;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+public final class TaskCursorCodec {
+
+    private static final String SEPARATOR = "|";
+
+    private TaskCursorCodec() {
+    }
+
+    public static String encode(KeysetScrollPosition position) {
+        Map<String, Object> keys = position.getKeys();
+        String raw = keys.get("id") + SEPARATOR + toText(keys.get("dueDate")) + SEPARATOR + toText(keys.get("priority"));
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // an empty cursor starts from the first task, a cursor that cannot be read gives null
+    public static KeysetScrollPosition decode(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return ScrollPosition.keyset();
+        }
+        try {
+            String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|", -1);
+            if (parts.length != 3) {
+                return null;
+            }
+            Map<String, Object> keys = new LinkedHashMap<>();
+            keys.put("id", Integer.valueOf(parts[0]));
+            keys.put("dueDate", parts[1].isEmpty() ? null : LocalDateTime.parse(parts[1]));
+            keys.put("priority", parts[2].isEmpty() ? null : Priority.valueOf(parts[2]));
+            return ScrollPosition.forward(keys);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static String toText(Object value) {
+        return value == null ? "" : value.toString();
+    }
+}
@@ -0,0 +1,74 @@
+package com.encora.todolist_app.utils.histograms;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public class DurationHistogram {
+
+    // 64 linear sub-buckets per power of two keep every reported value within 1/64 of the recorded one
+    private static final int SUB_BUCKET_BITS = 6;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+    private final LongAdder totalCount = new LongAdder();
+
+    public void record(Duration duration) {
+        add(duration, 1);
+    }
+
+    public void remove(Duration duration) {
+        add(duration, -1);
+    }
+
+    public void add(Duration duration, int occurrences) {
+        counts.addAndGet(indexOf(Math.max(0, duration.toNanos())), occurrences);
+        totalCount.add(occurrences);
+    }
+
+    public long getCount() {
+        return totalCount.sum();
+    }
+
+    public Duration getValueAtPercentile(double percentile) {
+        long total = getCount();
+        if (total <= 0) {
+            return Duration.ZERO;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long seen = 0;
+        int last = 0;
+        for (int index = 0; index < BUCKETS; index++) {
+            long count = counts.get(index);
+            if (count > 0) {
+                seen += count;
+                last = index;
+                if (seen >= rank) {
+                    break;
+                }
+            }
+        }
+        return Duration.ofNanos(medianOf(last));
+    }
+
+    static int indexOf(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) nanos;
+        }
+        int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(nanos);
+        int bucket = exponent - SUB_BUCKET_BITS + 1;
+        int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) - SUB_BUCKETS;
+        return bucket * SUB_BUCKETS + subBucket;
+    }
+
+    static long medianOf(int index) {
+        if (index < SUB_BUCKETS) {
+            return index;
+        }
+        int bucket = index / SUB_BUCKETS;
+        long lowest = (long) (SUB_BUCKETS + index % SUB_BUCKETS) << (bucket - 1);
+        long width = 1L << (bucket - 1);
+        return lowest + width / 2;
+    }
+}
@@ -0,0 +1,184 @@
+package com.encora.todolist_app.controller;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.StateTaskDTO;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.models.TaskEventType;
+import com.encora.todolist_app.service.ReactiveTaskService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebFluxTest(ReactiveTaskController.class)
+public class ReactiveTaskControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveTaskService taskService;
+
+    private final LocalDateTime now = LocalDateTime.now();
+
+    private Task createTask(Integer id, String text, Priority priority, boolean state) {
+        return new Task(id, text, now, null, null, null, priority, state);
+    }
+
+    @Test
+    void allTasks_shouldStreamTheFilteredTasksInTheRequestedOrder() {
+        when(taskService.getAllTasks(false, "HIGH", "report", Sort.by(Sort.Direction.DESC, "dueDate")))
+                .thenReturn(Flux.just(createTask(2, "Write report", Priority.HIGH, false), createTask(1, "Read report", Priority.HIGH, false)));
+
+        webTestClient.get().uri("/todos?state=false&priority=HIGH&text=report&sort=dueDate,desc")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.length()").isEqualTo(2)
+                .jsonPath("$[0].id").isEqualTo(2)
+                .jsonPath("$[1].text").isEqualTo("Read report");
+    }
+
+    @Test
+    void allTasks_withUnsupportedSort_shouldReturnBadRequest() {
+        when(taskService.getAllTasks(isNull(), isNull(), isNull(), any(Sort.class)))
+                .thenReturn(Flux.error(new IllegalArgumentException("Cannot scroll tasks sorted by text")));
+
+        webTestClient.get().uri("/todos?sort=text")
+                .exchange()
+                .expectStatus().isBadRequest();
+    }
+
+    @Test
+    void exportTasks_asNdjson_shouldWriteOneTaskPerLine() {
+        when(taskService.exportTasks()).thenReturn(Flux.just(createTask(1, "Task 1", Priority.LOW, false), createTask(2, "Task 2", Priority.HIGH, true)));
+
+        String body = webTestClient.get().uri("/todos/export")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        List<String> lines = body.lines().toList();
+        assertEquals(2, lines.size());
+        assertTrue(lines.get(1).contains("\"id\":2"));
+    }
+
+    @Test
+    void streamEvents_shouldSendEachEventWithItsSequenceAsId() {
+        when(taskService.streamEvents(5L)).thenReturn(Flux.just(
+                new TaskEventDTO(6, TaskEventType.INSERTED, 3, createTask(3, "Task 3", Priority.LOW, false)),
+                new TaskEventDTO(7, TaskEventType.DELETED, 3, null)));
+
+        String body = webTestClient.get().uri("/todos/stream?after=5")
+                .accept(MediaType.TEXT_EVENT_STREAM)
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class)
+                .returnResult().getResponseBody();
+
+        assertTrue(body.startsWith("id:6\ndata:{\"sequence\":6,\"type\":\"INSERTED\""));
+        assertTrue(body.contains("id:7\ndata:{\"sequence\":7,\"type\":\"DELETED\",\"id\":3,\"task\":null}"));
+    }
+
+    @Test
+    void insertTasks_shouldSaveInBatchesAndCountRejectedTasks() {
+        when(taskService.addTasks(anyList())).thenAnswer(invocation -> Mono.just(invocation.<List<Task>>getArgument(0).size() - 1));
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 1_500; i++) {
+            body.append("{\"text\":\"Task ").append(i).append("\"}\n");
+        }
+
+        webTestClient.post().uri("/todos/bulk")
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .bodyValue(body.toString())
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.imported").isEqualTo(1_498)
+                .jsonPath("$.rejected").isEqualTo(2);
+        verify(taskService, times(2)).addTasks(anyList());
+    }
+
+    @Test
+    void insertTasks_withMalformedBody_shouldReturnBadRequestWithCounts() {
+        webTestClient.post().uri("/todos/bulk")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"text\":\"Task 1\"},{\"text\":")
+                .exchange()
+                .expectStatus().isBadRequest()
+                .expectBody()
+                .jsonPath("$.imported").isEqualTo(0);
+        verify(taskService, never()).addTasks(anyList());
+    }
+
+    @Test
+    void insertTask_whenNotSaved_shouldReturnNotAcceptable() {
+        when(taskService.addTask(any(Task.class))).thenReturn(Mono.empty());
+
+        webTestClient.post().uri("/todos")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"id\":1,\"text\":\"Taken\"}")
+                .exchange()
+                .expectStatus().isEqualTo(406);
+    }
+
+    @Test
+    void updateStatusDoneTask_shouldReturnUpdatedStateOrNotFound() {
+        when(taskService.updateStatusDoneTask(1)).thenReturn(Mono.just(new StateTaskDTO(1, true)));
+        when(taskService.updateStatusDoneTask(2)).thenReturn(Mono.empty());
+
+        webTestClient.patch().uri("/todos/1/done")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$.status").isEqualTo(true);
+        webTestClient.patch().uri("/todos/2/done")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void updateStatusUndoneTasks_withEmptyRequest_shouldReturnBadRequest() {
+        webTestClient.patch().uri("/todos/undone")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{}")
+                .exchange()
+                .expectStatus().isBadRequest();
+        verify(taskService, never()).updateStatusTasks(any(), any(), any(), any(), anyBoolean());
+    }
+
+    @Test
+    void timeTask_withoutDoneTasks_shouldReturnNoContent() {
+        when(taskService.avgTimesAllTask()).thenReturn(Mono.empty());
+
+        webTestClient.get().uri("/todos/time")
+                .exchange()
+                .expectStatus().isNoContent();
+    }
+
+    @Test
+    void deleteTask_shouldReturnNoContent() {
+        when(taskService.deleteTask(1)).thenReturn(Mono.empty());
+
+        webTestClient.delete().uri("/todos/1")
+                .exchange()
+                .expectStatus().isNoContent();
+        verify(taskService, times(1)).deleteTask(1);
+    }
+}
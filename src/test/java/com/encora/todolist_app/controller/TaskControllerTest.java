@@ -1,33 +1,49 @@
 package com.encora.todolist_app.controller;
 
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
 import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.QueryCacheStatsDTO;
 import com.encora.todolist_app.models.StateTaskDTO;
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.models.TaskEventType;
+import com.encora.todolist_app.service.TaskEventFeed;
 import com.encora.todolist_app.service.TaskService;
+import com.encora.todolist_app.utils.cursors.TaskCursorCodec;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.stream.Stream;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(TaskController.class)
@@ -70,6 +86,51 @@ public class TaskControllerTest {
         verify(taskService, times(1)).getAllTasks(eq(false), eq("MEDIUM"), eq("Task"), any(Pageable.class));
     }
 
+    @Test
+    void allTasks_withCurrentETag_shouldAnswerNotModifiedWithoutQuerying() throws Exception {
+        when(taskService.tasksVersion()).thenReturn(7L);
+        when(taskService.getAllTasks(any(), any(), any(), any(Pageable.class))).thenReturn(new PageImpl<>(List.of(), PageRequest.of(0, 10), 0));
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/todos"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos").header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        verify(taskService, times(1)).getAllTasks(any(), any(), any(), any(Pageable.class));
+
+        when(taskService.tasksVersion()).thenReturn(8L);
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+        verify(taskService, times(2)).getAllTasks(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void timeTask_withCurrentETag_shouldAnswerNotModifiedWithoutComputingAverages() throws Exception {
+        when(taskService.statisticsVersion()).thenReturn(3L);
+        when(taskService.avgTimesAllTask()).thenReturn(Map.of("AvgTotalTime", Duration.ofMinutes(30)));
+        String etag = mockMvc.perform(MockMvcRequestBuilders.get("/todos/time"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos/time").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+        verify(taskService, times(1)).avgTimesAllTask();
+    }
+
+    @Test
+    void queryCacheStats_shouldReturnTheCounters() throws Exception {
+        when(taskService.queryCacheStats()).thenReturn(new QueryCacheStatsDTO(90, 10, 2, 8));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos/cache/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits", is(90)))
+                .andExpect(jsonPath("$.misses", is(10)))
+                .andExpect(jsonPath("$.evictions", is(2)))
+                .andExpect(jsonPath("$.size", is(8)));
+    }
+
     @Test
     void timeTask_shouldReturnOkAndMapOfDurations() throws Exception {
         Map<String, Duration> avgTimes = Map.of("AvgTotalTime", Duration.ofMinutes(30));
@@ -97,6 +158,119 @@ public class TaskControllerTest {
         verify(taskService, times(2)).avgTimesAllTask();
     }
 
+    @Test
+    void timeStats_shouldReturnPercentilesPerPriority() throws Exception {
+        CompletionTimeStatsDTO stats = new CompletionTimeStatsDTO(3, Duration.ofMinutes(20), Duration.ofMinutes(15), Duration.ofMinutes(40), Duration.ofMinutes(45));
+        when(taskService.completionTimeStats()).thenReturn(Map.of("total", stats));
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos/time/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total.count", is(3)))
+                .andExpect(jsonPath("$.total.p50", is("PT15M")))
+                .andExpect(jsonPath("$.total.p99", is("PT45M")));
+    }
+
+    @Test
+    void timeStats_shouldReturnNoContentIfNoTaskIsDone() throws Exception {
+        when(taskService.completionTimeStats()).thenReturn(null);
+
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos/time/stats"))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void insertTasks_withJsonArray_shouldSaveInBatchesAndReportCounts() throws Exception {
+        StringBuilder body = new StringBuilder("[");
+        for (int i = 0; i < 2500; i++) {
+            body.append(i == 0 ? "" : ",").append("{\"text\":\"Task ").append(i).append("\",\"priority\":\"LOW\"}");
+        }
+        body.append("]");
+        when(taskService.addTasks(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size() - 1);
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(body.toString()))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported", is(2497)))
+                .andExpect(jsonPath("$.rejected", is(3)));
+
+        verify(taskService, times(3)).addTasks(anyList());
+    }
+
+    @Test
+    void insertTasks_withNdjson_shouldParseEveryLine() throws Exception {
+        when(taskService.addTasks(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        mockMvc.perform(MockMvcRequestBuilders.post("/todos/bulk")
+                        .contentType("application/x-ndjson")
+                        .content("{\"text\":\"First\",\"dueDate\":\"2025-04-20T12:00:00\",\"priority\":\"HIGH\"}\n{\"text\":\"Second\"}\n"))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.imported", is(2)));
+
+        verify(taskService).addTasks(argThat(tasks -> tasks.size() == 2
+                && tasks.get(0).getDueDate().equals(LocalDateTime.of(2025, 4, 20, 12, 0))
+                && tasks.get(1).getText().equals("Second")));
+    }
+
+    @Test
+    void insertTasks_withMalformedBody_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.post("/todos/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"text\":\"First\"}, 42]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.imported", is(0)));
+
+        verify(taskService, never()).addTasks(anyList());
+    }
+
+    @Test
+    void exportTasks_shouldStreamAJsonArray() throws Exception {
+        when(taskService.exportTasks()).thenReturn(Stream.of(createTask(1, "Task 1", Priority.LOW, false), createTask(2, "Task 2", Priority.HIGH, true)));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/todos/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].text", is("Task 2")));
+    }
+
+    @Test
+    void streamEvents_shouldResumeAfterTheLastEventIdAndCloseWithTheConnection() throws Exception {
+        TaskEventFeed.Subscription subscription = mock(TaskEventFeed.Subscription.class);
+        when(taskService.subscribeToEvents(eq(5L), any(TaskEventFeed.EventSender.class))).thenAnswer(invocation -> {
+            TaskEventFeed.EventSender sender = invocation.getArgument(1);
+            sender.send(new TaskEventDTO(6, TaskEventType.DONE, 3, createTask(3, "Task 3", Priority.LOW, true)));
+            return subscription;
+        });
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/todos/stream").header("Last-Event-ID", "5"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = result.getResponse().getContentAsString();
+        assertTrue(body.startsWith("id:6\ndata:{\"sequence\":6,\"type\":\"DONE\",\"id\":3,"));
+        verify(taskService, never()).currentEventSequence();
+        result.getRequest().getAsyncContext().complete();
+        verify(subscription, times(1)).close();
+    }
+
+    @Test
+    void exportTasks_asNdjson_shouldWriteOneTaskPerLine() throws Exception {
+        when(taskService.exportTasks()).thenReturn(Stream.of(createTask(1, "Task 1", Priority.LOW, false), createTask(2, "Task 2", Priority.HIGH, true)));
+
+        MvcResult result = mockMvc.perform(MockMvcRequestBuilders.get("/todos/export").accept("application/x-ndjson"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result)).andExpect(status().isOk());
+
+        String[] lines = result.getResponse().getContentAsString().split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("Task 2", objectMapper.readValue(lines[1], Task.class).getText());
+    }
+
     @Test
     void insertTask_shouldReturnCreatedAndInsertedTask() throws Exception {
         Task newTask = createTask(null, "New Task", Priority.LOW, false);
@@ -147,6 +321,38 @@ public class TaskControllerTest {
         verify(taskService, times(1)).updateStatusDoneTask(1);
     }
 
+    @Test
+    void updateStatusDoneTasks_shouldReturnTheStateOfEveryTask() throws Exception {
+        when(taskService.updateStatusTasks(List.of(1, 2), null, null, null, true))
+                .thenReturn(List.of(new StateTaskDTO(1, true), new StateTaskDTO(2, true)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/todos/done")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"ids\":[1,2]}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[1].id", is(2)))
+                .andExpect(jsonPath("$[1].status", is(true)));
+        verify(taskService, times(1)).updateStatusTasks(List.of(1, 2), null, null, null, true);
+    }
+
+    @Test
+    void updateStatusUndoneTasks_shouldPassTheFilterAndRejectAnEmptyRequest() throws Exception {
+        when(taskService.updateStatusTasks(null, true, "HIGH", "report", false)).thenReturn(List.of(new StateTaskDTO(3, false)));
+
+        mockMvc.perform(MockMvcRequestBuilders.patch("/todos/undone")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"state\":true,\"priority\":\"HIGH\",\"text\":\"report\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].id", is(3)))
+                .andExpect(jsonPath("$[0].status", is(false)));
+        mockMvc.perform(MockMvcRequestBuilders.patch("/todos/undone")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{}"))
+                .andExpect(status().isBadRequest());
+        verify(taskService, times(1)).updateStatusTasks(any(), any(), any(), any(), anyBoolean());
+    }
+
     @Test
     void updateStatusTask_shouldReturnOkAndUpdatedState() throws Exception {
         StateTaskDTO updatedState = new StateTaskDTO(2, false);
@@ -206,4 +412,39 @@ public class TaskControllerTest {
                 .andExpect(status().isNoContent());
         verify(taskService, times(1)).deleteTask(1);
     }
-}
\ No newline at end of file
+
+    @Test
+    void tasksAfter_shouldReturnTasksAndCursorForNextWindow() throws Exception {
+        Task task1 = createTask(1, "Task 1", Priority.MEDIUM, false);
+        Task task2 = createTask(2, "Task 2", Priority.HIGH, false);
+        Window<Task> window = Window.from(List.of(task1, task2), i -> ScrollPosition.forward(Map.of("id", i + 1)), true);
+        when(taskService.getTasksAfter(isNull(), isNull(), isNull(), any(Sort.class), any(KeysetScrollPosition.class), eq(2))).thenReturn(window);
+
+        String cursor = objectMapper.readTree(mockMvc.perform(MockMvcRequestBuilders.get("/todos")
+                        .param("after", "")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(2)))
+                .andExpect(jsonPath("$.content[1].id", is(2)))
+                .andExpect(jsonPath("$.nextCursor").isString())
+                .andReturn().getResponse().getContentAsString()).get("nextCursor").asText();
+
+        when(taskService.getTasksAfter(isNull(), isNull(), isNull(), any(Sort.class), eq(TaskCursorCodec.decode(cursor)), eq(2)))
+                .thenReturn(Window.from(List.of(), i -> ScrollPosition.keyset(), false));
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos")
+                        .param("after", cursor)
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(0)))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+        verify(taskService, never()).getAllTasks(any(), any(), any(), any(Pageable.class));
+    }
+
+    @Test
+    void tasksAfter_withUnreadableCursor_shouldReturnBadRequest() throws Exception {
+        mockMvc.perform(MockMvcRequestBuilders.get("/todos")
+                        .param("after", "not-a-cursor"))
+                .andExpect(status().isBadRequest());
+        verify(taskService, never()).getTasksAfter(any(), any(), any(), any(), any(), anyInt());
+    }
+}
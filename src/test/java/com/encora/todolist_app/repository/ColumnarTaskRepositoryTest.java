@@ -0,0 +1,244 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.utils.comparators.UrgentTaskComparator;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ColumnarTaskRepositoryTest {
+    private ColumnarTaskRepository taskRepository;
+    private Task task1;
+    private Task task2;
+    private Task task3;
+    // dates are kept to the microsecond
+    LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = createRepository();
+        task1 = new Task(null, "Task 1", null, null, null, null, Priority.MEDIUM, false);
+        task2 = new Task(null, "Task 2", null, now.plusDays(2), null, null, Priority.HIGH, false);
+        task3 = new Task(null, "Find this urgent", null, now.plusDays(1), null, null, Priority.LOW, false);
+        taskRepository.save(task1);
+        taskRepository.save(task2);
+        taskRepository.save(task3);
+    }
+
+    ColumnarTaskRepository createRepository() {
+        return new ColumnarTaskRepository();
+    }
+
+    @Test
+    void findById_shouldReturnAnEqualTaskForEveryField() {
+        Task task = new Task(null, "Überprüfen ✓", null, now, now.minusHours(3), Duration.ofMinutes(90), null, true);
+        taskRepository.save(task);
+
+        Task found = taskRepository.findById(task.getId()).get();
+
+        assertEquals(task, found);
+        assertEquals(task.getDoneDate(), found.getDoneDate());
+        assertNotSame(task, found);
+        assertEquals(task1, taskRepository.findById(task1.getId()).get());
+    }
+
+    @Test
+    void saveAll_shouldSaveEveryTaskExceptTakenIds() {
+        List<Task> saved = taskRepository.saveAll(List.of(
+                new Task(null, "Bulk 1", null, null, null, null, Priority.LOW, false),
+                new Task(task1.getId(), "Taken", null, null, null, null, Priority.LOW, false),
+                new Task(100, "Bulk 2", null, null, null, null, Priority.HIGH, true)));
+
+        assertEquals(List.of("Bulk 1", "Bulk 2"), saved.stream().map(Task::getText).toList());
+        assertNotNull(saved.get(0).getCreationDate());
+        assertEquals("Task 1", taskRepository.findById(task1.getId()).get().getText());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, "HIGH", "bulk", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(5, taskRepository.streamAll().count());
+    }
+
+    @Test
+    void deleteById_shouldKeepEveryOtherTaskReachable() {
+        List<Integer> ids = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            ids.add(taskRepository.save(new Task(null, "Generated " + i, null, null, null, null, Priority.LOW, false)).getId());
+        }
+
+        assertEquals("Task 1", taskRepository.deleteById(task1.getId()).getText());
+        assertNull(taskRepository.deleteById(task1.getId()));
+        for (int i = 0; i < ids.size(); i += 2) {
+            taskRepository.deleteById(ids.get(i));
+        }
+
+        assertTrue(taskRepository.findById(task1.getId()).isEmpty());
+        for (int i = 0; i < ids.size(); i++) {
+            assertEquals(i % 2 == 1, taskRepository.findById(ids.get(i)).isPresent(), "id " + ids.get(i));
+        }
+        assertEquals(252, taskRepository.getAllTask().size());
+        assertEquals(252, taskRepository.findAll(PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_withFilters_shouldReturnMatchingTasks() {
+        taskRepository.save(new Task(null, "ÜBER urgent", null, null, null, null, null, true));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertEquals(List.of(task3.getId()), taskRepository.findAllByStateAndPriorityAndText(false, "low", "URGENT", pageable)
+                .getContent().stream().map(Task::getId).toList());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(null, null, "urgent", pageable).getTotalElements());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(null, null, "über", pageable).getTotalElements());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, null, null, pageable).getTotalElements());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(null, null, "task", pageable).getTotalElements());
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(null, "NONE", null, pageable).getTotalElements());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_sortedPages_shouldMatchAFullSort() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime dueDate = random.nextInt(5) == 0 ? null : now.plusDays(random.nextInt(20));
+            Priority priority = random.nextInt(20) == 0 ? null : Priority.values()[random.nextInt(3)];
+            taskRepository.save(new Task(null, "Generated " + i, null, dueDate, null, null, priority, random.nextBoolean()));
+        }
+        Map<String, Comparator<Task>> orders = Map.of(
+                "id", Comparator.comparing(Task::getId),
+                "priority", Comparator.comparing(Task::getPriority, Comparator.nullsLast(Comparator.naturalOrder())),
+                "dueDate", Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())),
+                "urgency", new UrgentTaskComparator());
+
+        for (Map.Entry<String, Comparator<Task>> order : orders.entrySet()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Comparator<Task> property = direction.isAscending() ? order.getValue() : order.getValue().reversed();
+                for (Boolean state : new Boolean[]{null, true, false}) {
+                    List<Task> expected = taskRepository.getAllTask().stream()
+                            .filter(task -> state == null || task.isState() == state)
+                            .sorted(property.thenComparing(Task::getId))
+                            .toList();
+                    for (int page = 0; page * 25 <= expected.size() + 25; page++) {
+                        Page<Task> actual = taskRepository.findAllByStateAndPriorityAndText(state, null, null, PageRequest.of(page, 25, Sort.by(direction, order.getKey())));
+                        int start = Math.min(page * 25, expected.size());
+                        assertEquals(expected.subList(start, Math.min(start + 25, expected.size())), actual.getContent(),
+                                order.getKey() + " " + direction + " state=" + state + " page=" + page);
+                        assertEquals(expected.size(), actual.getTotalElements());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void findAll_withMultipleSorting_shouldSortByEveryOrder() {
+        Page<Task> sortedTasksPage = taskRepository.findAll(PageRequest.of(0, 10, Sort.by("priority").descending().and(Sort.by("dueDate"))));
+
+        assertEquals(List.of(task2.getId(), task1.getId(), task3.getId()), sortedTasksPage.getContent().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void updateAll_shouldApplyTheChangeToEveryExistingTask() {
+        List<TaskChange> changes = taskRepository.updateAll(List.of(task1.getId(), 99, task3.getId()), ColumnarTaskRepositoryTest::done);
+
+        assertEquals(List.of(task1.getId(), task3.getId()), changes.stream().map(change -> change.after().getId()).toList());
+        assertFalse(changes.get(0).before().isState());
+        assertEquals(task1.getCreationDate(), changes.get(0).after().getCreationDate());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, "LOW", "urgent", PageRequest.of(0, 10)).getTotalElements());
+
+        List<TaskChange> unchanged = taskRepository.updateAll(List.of(task1.getId()), task -> task.isState() ? task : done(task));
+        assertSame(unchanged.get(0).before(), unchanged.get(0).after());
+    }
+
+    @Test
+    void updateAllByStateAndPriorityAndText_shouldOnlyChangeMatchingTasks() {
+        List<TaskChange> changes = taskRepository.updateAllByStateAndPriorityAndText(false, "HIGH", "task", ColumnarTaskRepositoryTest::done);
+
+        assertEquals(1, changes.size());
+        assertTrue(taskRepository.findById(task2.getId()).get().isState());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(false, null, null, PageRequest.of(0, 10)).getTotalElements());
+    }
+
+    @Test
+    void replaceTask_shouldOnlyReplaceTheExpectedTask() {
+        Task expected = taskRepository.findById(task2.getId()).get();
+        Task replacement = new Task(null, "Replaced", null, null, null, null, Priority.LOW, false);
+
+        assertTrue(taskRepository.replaceTask(task2.getId(), expected, replacement));
+        assertFalse(taskRepository.replaceTask(task2.getId(), expected, new Task(replacement)));
+        assertEquals("Replaced", taskRepository.findById(task2.getId()).get().getText());
+        assertEquals(task2.getCreationDate(), taskRepository.findById(task2.getId()).get().getCreationDate());
+        assertNull(taskRepository.replaceTask(99, replacement));
+    }
+
+    @Test
+    void replaceTask_manyTimes_shouldKeepEveryText() {
+        String longText = "x".repeat(10_000);
+        for (int i = 0; i < 300; i++) {
+            taskRepository.replaceTask(task1.getId(), new Task(null, longText + i, null, null, null, null, Priority.LOW, false));
+        }
+
+        assertEquals(longText + 299, taskRepository.findById(task1.getId()).get().getText());
+        assertEquals("Task 2", taskRepository.findById(task2.getId()).get().getText());
+        assertEquals("Find this urgent", taskRepository.findById(task3.getId()).get().getText());
+    }
+
+    @Test
+    void version_shouldOnlyIncreaseWhenATaskChanges() {
+        long version = taskRepository.version();
+
+        taskRepository.findAll(PageRequest.of(0, 10));
+        taskRepository.deleteById(99);
+        assertEquals(version, taskRepository.version());
+
+        taskRepository.deleteById(task1.getId());
+        assertTrue(taskRepository.version() > version);
+    }
+
+    @Test
+    void scrollByStateAndPriorityAndText_shouldVisitEveryTaskOnceInSortOrder() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime dueDate = random.nextInt(4) == 0 ? null : now.plusDays(random.nextInt(10));
+            taskRepository.save(new Task(null, "Generated " + i, null, dueDate, null, null, Priority.values()[random.nextInt(3)], random.nextBoolean()));
+        }
+
+        for (String property : List.of("id", "priority", "dueDate", "urgency")) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Sort sort = Sort.by(direction, property);
+                List<Task> expected = taskRepository.findAllByStateAndPriorityAndText(false, null, null, PageRequest.of(0, 1000, sort)).getContent();
+                List<Task> scrolled = new ArrayList<>();
+                KeysetScrollPosition position = ScrollPosition.keyset();
+                Window<Task> window;
+                do {
+                    window = taskRepository.scrollByStateAndPriorityAndText(false, null, null, sort, position, 7);
+                    scrolled.addAll(window.getContent());
+                    if (!window.isEmpty()) {
+                        position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+                    }
+                } while (window.hasNext());
+                assertEquals(expected, scrolled, property + " " + direction);
+            }
+        }
+        assertNull(taskRepository.scrollByStateAndPriorityAndText(null, null, null, Sort.by("text"), ScrollPosition.keyset(), 10));
+    }
+
+    private static Task done(Task current) {
+        Task task = new Task(current);
+        task.setState(true);
+        return task;
+    }
+}
@@ -0,0 +1,178 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.journal.WriteAheadLog;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class InMemoryTaskRepositoryConcurrencyTest {
+
+    private static final int WRITERS = 64;
+    private static final int TASKS_PER_WRITER = 2_000;
+
+    private InMemoryTaskRepository taskRepository;
+    private ExecutorService executor;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = new InMemoryTaskRepository();
+        executor = Executors.newFixedThreadPool(WRITERS);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        executor.shutdownNow();
+        assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void save_fromConcurrentWriters_shouldNeverLoseOrDuplicateIds() throws Exception {
+        List<List<Integer>> assignedIds = runConcurrently(writer -> {
+            List<Integer> ids = new ArrayList<>(TASKS_PER_WRITER);
+            for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                Task saved = taskRepository.save(new Task(null, "Task " + writer + "-" + i, null, null, null, null, Priority.LOW, false));
+                ids.add(saved.getId());
+            }
+            return ids;
+        });
+
+        Set<Integer> uniqueIds = new HashSet<>();
+        assignedIds.forEach(uniqueIds::addAll);
+        assertEquals(WRITERS * TASKS_PER_WRITER, uniqueIds.size());
+        assertEquals(WRITERS * TASKS_PER_WRITER, taskRepository.getAllTask().size());
+        for (Integer id : uniqueIds) {
+            assertTrue(taskRepository.findById(id).isPresent());
+        }
+    }
+
+    @Test
+    void save_withSameExplicitIds_shouldAcceptEachIdExactlyOnce() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        runConcurrently(writer -> {
+            for (int id = 0; id < TASKS_PER_WRITER; id++) {
+                if (taskRepository.save(new Task(id, "Writer " + writer, null, null, null, null, Priority.HIGH, false)) != null) {
+                    accepted.incrementAndGet();
+                }
+            }
+            return null;
+        });
+
+        assertEquals(TASKS_PER_WRITER, accepted.get());
+        assertEquals(TASKS_PER_WRITER, taskRepository.getAllTask().size());
+    }
+
+    @Test
+    void save_mixingGeneratedAndExplicitIds_shouldNotOverwriteTasks() throws Exception {
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger generated = new AtomicInteger();
+        runConcurrently(writer -> {
+            for (int i = 0; i < TASKS_PER_WRITER; i++) {
+                Integer id = writer % 2 == 0 ? null : writer * TASKS_PER_WRITER + i;
+                Task saved = taskRepository.save(new Task(id, "Task", null, null, null, null, Priority.MEDIUM, false));
+                if (saved != null) {
+                    accepted.incrementAndGet();
+                    if (id == null) {
+                        generated.incrementAndGet();
+                    }
+                }
+            }
+            return null;
+        });
+
+        assertEquals((WRITERS / 2) * TASKS_PER_WRITER, generated.get());
+        assertEquals(accepted.get(), taskRepository.getAllTask().size());
+    }
+
+    @Test
+    void replaceTask_withExpectedValue_shouldApplyEveryIncrementOnce() throws Exception {
+        Task counter = taskRepository.save(new Task(null, "0", null, null, null, null, Priority.LOW, false));
+        int incrementsPerWriter = 500;
+
+        runConcurrently(writer -> {
+            for (int i = 0; i < incrementsPerWriter; i++) {
+                boolean replaced;
+                do {
+                    Task current = taskRepository.findById(counter.getId()).orElseThrow();
+                    Task next = new Task(current);
+                    next.setText(String.valueOf(Integer.parseInt(current.getText()) + 1));
+                    replaced = taskRepository.replaceTask(counter.getId(), current, next);
+                } while (!replaced);
+            }
+            return null;
+        });
+
+        assertEquals(String.valueOf(WRITERS * incrementsPerWriter), taskRepository.findById(counter.getId()).get().getText());
+    }
+
+    // a writer waiting for the journal lock while holding a monitor would pin its carrier, with every carrier
+    // pinned the thread holding the lock never runs again
+    @Test
+    void save_fromVirtualThreadsWaitingOnTheJournal_shouldKeepMakingProgress(@TempDir Path directory) {
+        assertTimeoutPreemptively(Duration.ofSeconds(60), () -> {
+            try (WriteAheadLog journal = new WriteAheadLog(directory, Duration.ofMillis(1), 1024, false, true)) {
+                InMemoryTaskRepository repository = new InMemoryTaskRepository(journal);
+                ExecutorService virtualThreads = Executors.newVirtualThreadPerTaskExecutor();
+                List<Future<Task>> saved = new ArrayList<>();
+                for (int i = 0; i < WRITERS * 100; i++) {
+                    saved.add(virtualThreads.submit(() -> repository.save(new Task(null, "Virtual", null, null, null, null, Priority.LOW, false))));
+                }
+                for (Future<Task> task : saved) {
+                    assertNotNull(task.get());
+                }
+                virtualThreads.close();
+                assertEquals(WRITERS * 100, repository.getAllTask().size());
+            }
+        });
+    }
+
+    @Test
+    void findById_shouldReturnCopyThatDoesNotChangeStoredTask() {
+        Task saved = taskRepository.save(new Task(null, "Original", null, null, null, null, Priority.LOW, false));
+
+        taskRepository.findById(saved.getId()).get().setText("Changed");
+
+        assertEquals("Original", taskRepository.findById(saved.getId()).get().getText());
+    }
+
+    private <T> List<T> runConcurrently(Worker<T> worker) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> futures = new ArrayList<>(WRITERS);
+        for (int writer = 0; writer < WRITERS; writer++) {
+            int writerId = writer;
+            Callable<T> call = () -> {
+                start.await();
+                return worker.run(writerId);
+            };
+            futures.add(executor.submit(call));
+        }
+        start.countDown();
+        List<T> results = new ArrayList<>(WRITERS);
+        for (Future<T> future : futures) {
+            results.add(future.get(60, TimeUnit.SECONDS));
+        }
+        return results;
+    }
+
+    private interface Worker<T> {
+        T run(int writer) throws Exception;
+    }
+}
@@ -2,16 +2,26 @@ package com.encora.todolist_app.repository;
 
 import com.encora.todolist_app.models.Priority;
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.journal.TaskJournal;
+import com.encora.todolist_app.utils.comparators.UrgentTaskComparator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.ScrollPosition;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -50,6 +60,21 @@ public class InMemoryTaskRepositoryTest {
         assertEquals("Task 1", taskRepository.findById(task1.getId()).get().getText());
     }
 
+    @Test
+    void saveAll_shouldSaveEveryTaskExceptTakenIds() {
+        List<Task> saved = taskRepository.saveAll(List.of(
+                new Task(null, "Bulk 1", null, null, null, null, Priority.LOW, false),
+                new Task(task1.getId(), "Taken", null, null, null, null, Priority.LOW, false),
+                new Task(100, "Bulk 2", null, null, null, null, Priority.HIGH, true)));
+
+        assertEquals(List.of("Bulk 1", "Bulk 2"), saved.stream().map(Task::getText).toList());
+        assertNotNull(saved.get(0).getId());
+        assertNotNull(saved.get(0).getCreationDate());
+        assertEquals("Task 1", taskRepository.findById(task1.getId()).get().getText());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, "HIGH", "bulk", PageRequest.of(0, 10)).getTotalElements());
+        assertEquals(5, taskRepository.streamAll().count());
+    }
+
     @Test
     void findById_shouldReturnTaskIfExists() {
         Optional<Task> foundTask = taskRepository.findById(task2.getId());
@@ -124,6 +149,69 @@ public class InMemoryTaskRepositoryTest {
         assertEquals(2, taskRepository.getAllTask().size());
     }
 
+    @Test
+    void version_shouldOnlyIncreaseWhenATaskChanges() {
+        long initial = taskRepository.version();
+
+        taskRepository.save(new Task(task1.getId(), "Taken id", null, null, null, null, Priority.LOW, false));
+        taskRepository.deleteById(999);
+        taskRepository.updateAll(List.of(task2.getId()), task -> task);
+        assertEquals(initial, taskRepository.version());
+
+        taskRepository.save(new Task(null, "New Task", null, null, null, null, Priority.LOW, false));
+        taskRepository.replaceTask(task1.getId(), new Task(task1.getId(), "Task 1 update", null, null, null, null, Priority.HIGH, true));
+        taskRepository.deleteById(task2.getId());
+        assertEquals(initial + 3, taskRepository.version());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldRecordScannedAndMatchedTasks() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryTaskRepository repository = new InMemoryTaskRepository(TaskJournal.NONE, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            repository.save(new Task(null, "Task " + i, null, null, null, null, i < 4 ? Priority.HIGH : Priority.LOW, false));
+        }
+
+        repository.findAllByStateAndPriorityAndText(null, "HIGH", null, PageRequest.of(0, 10, Sort.by("dueDate")));
+
+        assertEquals(4, meterRegistry.get("todolist.repository.query.scanned").tag("path", "filter").summary().totalAmount());
+        assertEquals(4, meterRegistry.get("todolist.repository.query.matched").tag("path", "filter").summary().totalAmount());
+        assertEquals(1, meterRegistry.get("todolist.repository.query.sort").timer().count());
+        assertEquals(1, meterRegistry.get("todolist.repository.query.page").timer().count());
+    }
+
+    // the sorted index keeps each slot apart, so a page of a rare priority only visits tasks of that priority
+    @Test
+    void findAllByStateAndPriorityAndText_selectiveFilter_shouldOnlyScanMatchingTasks() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryTaskRepository repository = new InMemoryTaskRepository(TaskJournal.NONE, meterRegistry);
+        for (int i = 0; i < 1000; i++) {
+            repository.save(new Task(null, "Task " + i, null, now.plusMinutes(i), null, null, i % 100 == 0 ? Priority.HIGH : Priority.LOW, false));
+        }
+
+        Page<Task> results = repository.findAllByStateAndPriorityAndText(null, "HIGH", null, PageRequest.of(1, 4, Sort.by("dueDate")));
+
+        assertEquals(List.of("Task 400", "Task 500", "Task 600", "Task 700"), results.getContent().stream().map(Task::getText).toList());
+        assertEquals(10, results.getTotalElements());
+        assertEquals(8, meterRegistry.get("todolist.repository.query.scanned").tag("path", "sortedIndex").summary().totalAmount());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_noTaskInTheBuckets_shouldNotScanTheIndex() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InMemoryTaskRepository repository = new InMemoryTaskRepository(TaskJournal.NONE, meterRegistry);
+        for (int i = 0; i < 10; i++) {
+            repository.save(new Task(null, "Task " + i, null, null, null, null, Priority.LOW, false));
+        }
+
+        Page<Task> results = repository.findAllByStateAndPriorityAndText(null, "HIGH", null, PageRequest.of(0, 10, Sort.by("dueDate")));
+
+        assertTrue(results.getContent().isEmpty());
+        assertEquals(0, results.getTotalElements());
+        assertEquals(0, meterRegistry.get("todolist.repository.query.scanned").tag("path", "sortedIndex").summary().count());
+        assertEquals(0, meterRegistry.get("todolist.repository.query.scanned").tag("path", "filter").summary().count());
+    }
+
     @Test
     void replaceTask_shouldReplaceExistingTask() {
         Task replacementTask = new Task(task1.getId(), "Task 1 update",null,now.plusDays(3), null, null, Priority.HIGH, true);
@@ -164,5 +252,282 @@ public class InMemoryTaskRepositoryTest {
         assertEquals(3, all.getContent().size());
     }
 
+    @Test
+    void findAllByStateAndPriorityAndText_shouldFollowReplacedTasks() {
+        Pageable pageable = PageRequest.of(0, 10);
+        Task doneTask = new Task(task1.getId(), "Task 1", null, null, null, null, Priority.LOW, true);
+        taskRepository.replaceTask(task1.getId(), doneTask);
+
+        Page<Task> pending = taskRepository.findAllByStateAndPriorityAndText(false, null, null, pageable);
+        assertEquals(2, pending.getTotalElements());
+        assertTrue(pending.getContent().stream().noneMatch(task -> task.getId().equals(task1.getId())));
+
+        Page<Task> doneLow = taskRepository.findAllByStateAndPriorityAndText(true, "low", null, pageable);
+        assertEquals(1, doneLow.getTotalElements());
+        assertEquals(task1.getId(), doneLow.getContent().get(0).getId());
+
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(null, "MEDIUM", null, pageable).getTotalElements());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldNotReturnDeletedTasks() {
+        Pageable pageable = PageRequest.of(0, 10);
+        taskRepository.deleteById(task2.getId());
+
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(false, "HIGH", null, pageable).getTotalElements());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(false, null, null, pageable).getTotalElements());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_withUnknownPriority_shouldReturnEmptyPage() {
+        Page<Task> results = taskRepository.findAllByStateAndPriorityAndText(null, "URGENT", null, PageRequest.of(0, 10));
+        assertTrue(results.isEmpty());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldIncludeTasksWithoutPriorityOnlyWhenNotFilteringByPriority() {
+        taskRepository.save(new Task(null, "No priority", null, null, null, null, null, false));
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertEquals(4, taskRepository.findAllByStateAndPriorityAndText(false, null, null, pageable).getTotalElements());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(false, "LOW", null, pageable).getTotalElements());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldSearchReplacedText() {
+        Pageable pageable = PageRequest.of(0, 10);
+        taskRepository.replaceTask(task3.getId(), new Task(task3.getId(), "Call the Plumber", null, null, null, null, Priority.LOW, false));
+
+        assertTrue(taskRepository.findAllByStateAndPriorityAndText(null, null, "urgent", pageable).isEmpty());
+        Page<Task> results = taskRepository.findAllByStateAndPriorityAndText(null, null, "THE PLUM", pageable);
+        assertEquals(1, results.getTotalElements());
+        assertEquals(task3.getId(), results.getContent().get(0).getId());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_withTextAndFilters_shouldVerifyEveryCandidate() {
+        Pageable pageable = PageRequest.of(0, 10);
+        taskRepository.save(new Task(null, "Another urgent thing", null, null, null, null, Priority.HIGH, true));
 
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(null, null, "urgent", pageable).getTotalElements());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, null, "urgent", pageable).getTotalElements());
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(null, "MEDIUM", "urgent", pageable).getTotalElements());
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(null, null, "urgently", pageable).getTotalElements());
+    }
+
+    @Test
+    void updateAll_shouldApplyTheChangeAndReindexEveryExistingTask() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        List<TaskChange> changes = taskRepository.updateAll(List.of(task1.getId(), 99, task3.getId()), InMemoryTaskRepositoryTest::done);
+
+        assertEquals(List.of(task1.getId(), task3.getId()), changes.stream().map(change -> change.after().getId()).toList());
+        assertFalse(changes.get(0).before().isState());
+        assertEquals(task1.getCreationDate(), changes.get(0).after().getCreationDate());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(true, null, null, pageable).getTotalElements());
+        assertEquals(1, taskRepository.findAllByStateAndPriorityAndText(true, "LOW", "urgent", pageable).getTotalElements());
+
+        List<TaskChange> unchanged = taskRepository.updateAll(List.of(task1.getId()), task -> task.isState() ? task : done(task));
+        assertSame(unchanged.get(0).before(), unchanged.get(0).after());
+    }
+
+    @Test
+    void updateAllByStateAndPriorityAndText_shouldOnlyChangeMatchingTasks() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        List<TaskChange> changes = taskRepository.updateAllByStateAndPriorityAndText(false, "HIGH", "task", InMemoryTaskRepositoryTest::done);
+
+        assertEquals(1, changes.size());
+        assertEquals(task2.getId(), changes.get(0).after().getId());
+        assertTrue(taskRepository.findById(task2.getId()).get().isState());
+        assertEquals(2, taskRepository.findAllByStateAndPriorityAndText(false, null, null, pageable).getTotalElements());
+        assertTrue(taskRepository.updateAllByStateAndPriorityAndText(null, "NONE", null, InMemoryTaskRepositoryTest::done).isEmpty());
+    }
+
+    private static Task done(Task current) {
+        Task task = new Task(current);
+        task.setState(true);
+        return task;
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_sortedPages_shouldMatchAFullSort() {
+        Random random = new Random(7);
+        for (int i = 0; i < 300; i++) {
+            LocalDateTime dueDate = random.nextInt(5) == 0 ? null : now.plusDays(random.nextInt(20));
+            Priority priority = random.nextInt(20) == 0 ? null : Priority.values()[random.nextInt(3)];
+            taskRepository.save(new Task(null, "Generated " + i, null, dueDate, null, null, priority, random.nextBoolean()));
+        }
+        Map<String, Comparator<Task>> orders = Map.of(
+                "priority", Comparator.comparing(Task::getPriority, Comparator.nullsLast(Comparator.naturalOrder())),
+                "dueDate", Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())),
+                "urgency", new UrgentTaskComparator());
+
+        for (Map.Entry<String, Comparator<Task>> order : orders.entrySet()) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Comparator<Task> property = direction.isAscending() ? order.getValue() : order.getValue().reversed();
+                for (Boolean state : new Boolean[]{null, true, false}) {
+                    List<Task> expected = taskRepository.getAllTask().stream()
+                            .filter(task -> state == null || task.isState() == state)
+                            .sorted(property.thenComparing(Task::getId))
+                            .toList();
+                    for (int page = 0; page * 25 <= expected.size() + 25; page++) {
+                        Page<Task> actual = taskRepository.findAllByStateAndPriorityAndText(state, null, null, PageRequest.of(page, 25, Sort.by(direction, order.getKey())));
+                        int start = Math.min(page * 25, expected.size());
+                        assertEquals(expected.subList(start, Math.min(start + 25, expected.size())), actual.getContent(),
+                                order.getKey() + " " + direction + " state=" + state + " page=" + page);
+                        assertEquals(expected.size(), actual.getTotalElements());
+                    }
+                }
+            }
+        }
+    }
+
+    // a text filter keeps the sorted indexes out, the first pages come from the bounded heap and the later ones
+    // from a full sort; few due dates and priorities leave many ties for the ids to break
+    @Test
+    void findAllByStateAndPriorityAndText_withText_everyPageShouldMatchAFullSort() {
+        Random random = new Random(13);
+        for (int i = 0; i < 2000; i++) {
+            LocalDateTime dueDate = random.nextInt(5) == 0 ? null : now.plusDays(random.nextInt(3));
+            Priority priority = random.nextInt(10) == 0 ? null : Priority.values()[random.nextInt(3)];
+            taskRepository.save(new Task(null, (random.nextInt(4) == 0 ? "Other " : "Generated ") + i, null, dueDate, null, null, priority, false));
+        }
+        Map<Sort, Comparator<Task>> orders = Map.of(
+                Sort.by("urgency"), new UrgentTaskComparator(),
+                Sort.by(Sort.Direction.DESC, "dueDate"), Comparator.comparing(Task::getDueDate, Comparator.nullsLast(Comparator.<LocalDateTime>naturalOrder())).reversed(),
+                Sort.by("priority", "dueDate"), Comparator.comparing(Task::getPriority, Comparator.nullsLast(Comparator.<Priority>naturalOrder()))
+                        .thenComparing(Task::getDueDate, Comparator.nullsLast(Comparator.naturalOrder())));
+
+        for (Map.Entry<Sort, Comparator<Task>> order : orders.entrySet()) {
+            List<Integer> expected = taskRepository.getAllTask().stream()
+                    .filter(task -> task.getText().startsWith("Generated"))
+                    .sorted(order.getValue().thenComparing(Task::getId))
+                    .map(Task::getId)
+                    .toList();
+            for (int page = 0; page * 20 <= expected.size(); page++) {
+                Page<Task> actual = taskRepository.findAllByStateAndPriorityAndText(null, null, "generated", PageRequest.of(page, 20, order.getKey()));
+                int start = page * 20;
+                assertEquals(expected.subList(start, Math.min(start + 20, expected.size())), actual.map(Task::getId).getContent(), order.getKey() + " page=" + page);
+                assertEquals(expected.size(), actual.getTotalElements());
+            }
+        }
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_inParallel_shouldReturnTheSamePagesAsSequentially() {
+        InMemoryTaskRepository parallel = new InMemoryTaskRepository(TaskJournal.NONE, new SimpleMeterRegistry(), 2, 1);
+        InMemoryTaskRepository sequential = new InMemoryTaskRepository();
+        Random random = new Random(11);
+        for (int i = 0; i < 20_000; i++) {
+            LocalDateTime dueDate = random.nextInt(5) == 0 ? null : now.plusDays(random.nextInt(20));
+            Priority priority = random.nextInt(20) == 0 ? null : Priority.values()[random.nextInt(3)];
+            String text = (random.nextBoolean() ? "Generated " : "Task ") + i;
+            boolean state = random.nextBoolean();
+            parallel.save(new Task(null, text, null, dueDate, null, null, priority, state));
+            sequential.save(new Task(null, text, null, dueDate, null, null, priority, state));
+        }
+
+        try {
+            for (Sort sort : List.of(Sort.unsorted(), Sort.by("urgency", "id"), Sort.by(Sort.Order.desc("dueDate"), Sort.Order.asc("priority")))) {
+                for (String text : new String[]{null, "e", "generated 1"}) {
+                    for (int page : new int[]{0, 7, 400}) {
+                        Pageable pageable = PageRequest.of(page, 25, sort);
+                        Page<Task> expected = sequential.findAllByStateAndPriorityAndText(null, null, text, pageable);
+                        Page<Task> actual = parallel.findAllByStateAndPriorityAndText(null, null, text, pageable);
+                        assertEquals(expected.map(Task::getId).getContent(), actual.map(Task::getId).getContent(), sort + " text=" + text + " page=" + page);
+                        assertEquals(expected.getTotalElements(), actual.getTotalElements());
+                    }
+                }
+            }
+        } finally {
+            parallel.close();
+        }
+    }
+
+    @Test
+    void findAll_withUrgencySorting_shouldPutTasksWithoutDueDateLast() {
+        Page<Task> sortedTasksPage = taskRepository.findAll(PageRequest.of(0, 10, Sort.by("urgency")));
+
+        assertEquals(List.of(task3.getId(), task2.getId(), task1.getId()),
+                sortedTasksPage.getContent().stream().map(Task::getId).toList());
+    }
+
+    // a task changing state or priority moves to another bucket, its place in the unsorted listing stays the same
+    @Test
+    void findAll_withoutSort_shouldListTasksInIdOrder() {
+        for (int i = 0; i < 300; i++) {
+            taskRepository.save(new Task(null, "Generated " + i, null, null, null, null, Priority.values()[i % 3], i % 2 == 0));
+        }
+        List<Integer> ids = taskRepository.getAllTask().stream().map(Task::getId).sorted().toList();
+        Task moved = taskRepository.findById(ids.get(5)).orElseThrow();
+        Task done = new Task(moved);
+        done.setState(!moved.isState());
+        done.setPriority(Priority.HIGH);
+        taskRepository.replaceTask(moved.getId(), done);
+
+        assertEquals(ids.subList(0, 10), taskRepository.findAll(PageRequest.of(0, 10)).getContent().stream().map(Task::getId).toList());
+        assertEquals(ids.subList(290, 300), taskRepository.findAll(PageRequest.of(29, 10)).getContent().stream().map(Task::getId).toList());
+        List<Integer> filtered = taskRepository.getAllTask().stream().filter(task -> task.getPriority() == Priority.HIGH).map(Task::getId).sorted().toList();
+        assertEquals(filtered, taskRepository.findAllByStateAndPriorityAndText(null, "HIGH", null, PageRequest.of(0, 1000)).getContent().stream().map(Task::getId).toList());
+        List<Integer> generated = taskRepository.getAllTask().stream().filter(task -> task.getPriority() == Priority.HIGH && task.getText().startsWith("Generated")).map(Task::getId).sorted().toList();
+        assertEquals(generated.subList(0, 5), taskRepository.findAllByStateAndPriorityAndText(null, "HIGH", "generated", PageRequest.of(0, 5)).getContent().stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void findAll_pageBeyondLastTask_shouldReturnEmptyPage() {
+        assertTrue(taskRepository.findAll(PageRequest.of(5, 10)).isEmpty());
+        assertTrue(taskRepository.findAll(PageRequest.of(5, 10, Sort.by("dueDate"))).isEmpty());
+    }
+
+    @Test
+    void scrollByStateAndPriorityAndText_shouldVisitEveryTaskOnceInSortOrder() {
+        Random random = new Random(11);
+        for (int i = 0; i < 200; i++) {
+            LocalDateTime dueDate = random.nextInt(4) == 0 ? null : now.plusDays(random.nextInt(10));
+            taskRepository.save(new Task(null, "Generated " + i, null, dueDate, null, null, Priority.values()[random.nextInt(3)], random.nextBoolean()));
+        }
+
+        // every slot, the slots of one state, and one priority in both states
+        Boolean[] states = {null, false, null};
+        String[] priorities = {null, null, "MEDIUM"};
+        for (int filter = 0; filter < states.length; filter++) {
+            for (String property : List.of("id", "priority", "dueDate", "urgency")) {
+                for (Sort.Direction direction : Sort.Direction.values()) {
+                    Sort sort = Sort.by(direction, property);
+                    List<Task> expected = taskRepository.findAllByStateAndPriorityAndText(states[filter], priorities[filter], null, PageRequest.of(0, 1000, sort)).getContent();
+                    List<Task> scrolled = new ArrayList<>();
+                    KeysetScrollPosition position = ScrollPosition.keyset();
+                    Window<Task> window;
+                    do {
+                        window = taskRepository.scrollByStateAndPriorityAndText(states[filter], priorities[filter], null, sort, position, 7);
+                        scrolled.addAll(window.getContent());
+                        if (!window.isEmpty()) {
+                            position = (KeysetScrollPosition) window.positionAt(window.size() - 1);
+                        }
+                    } while (window.hasNext());
+                    assertEquals(expected, scrolled, states[filter] + " " + priorities[filter] + " " + property + " " + direction);
+                }
+            }
+        }
+    }
+
+    @Test
+    void scrollByStateAndPriorityAndText_shouldNotShiftWhenEarlierTasksAreInserted() {
+        Sort sort = Sort.by("dueDate");
+        Window<Task> first = taskRepository.scrollByStateAndPriorityAndText(null, null, null, sort, ScrollPosition.keyset(), 1);
+        assertEquals(task3.getId(), first.getContent().get(0).getId());
+
+        taskRepository.save(new Task(null, "Earlier", null, now.minusDays(1), null, null, Priority.LOW, false));
+        Window<Task> second = taskRepository.scrollByStateAndPriorityAndText(null, null, null, sort, (KeysetScrollPosition) first.positionAt(0), 1);
+
+        assertEquals(task2.getId(), second.getContent().get(0).getId());
+        assertTrue(second.hasNext());
+    }
+
+    @Test
+    void scrollByStateAndPriorityAndText_withUnsupportedSort_shouldReturnNull() {
+        assertNull(taskRepository.scrollByStateAndPriorityAndText(null, null, null, Sort.by("text"), ScrollPosition.keyset(), 10));
+        assertNull(taskRepository.scrollByStateAndPriorityAndText(null, null, null, Sort.by("priority", "dueDate"), ScrollPosition.keyset(), 10));
+    }
 }
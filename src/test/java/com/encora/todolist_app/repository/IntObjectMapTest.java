@@ -0,0 +1,182 @@
+package com.encora.todolist_app.repository;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class IntObjectMapTest {
+
+    // random puts and removes checked against a HashMap after every operation, over key ranges from a handful of
+    // keys, where tombstones pile up and get reused, to the whole int range, where keys rarely repeat
+    @Test
+    void randomOperations_shouldBehaveLikeAHashMap() {
+        int[] keyRanges = {8, 100, 10_000, Integer.MAX_VALUE};
+        for (long seed = 0; seed < 40; seed++) {
+            Random random = new Random(seed);
+            int keyRange = keyRanges[(int) (seed % keyRanges.length)];
+            IntObjectMap<String> map = new IntObjectMap<>();
+            Map<Integer, String> expected = new HashMap<>();
+            for (int operation = 0; operation < 20_000; operation++) {
+                int key = keyRange == Integer.MAX_VALUE ? random.nextInt() : random.nextInt(keyRange) - keyRange / 4;
+                String context = "seed " + seed + ", operation " + operation + ", key " + key;
+                switch (random.nextInt(10)) {
+                    case 0, 1, 2, 3, 4 -> {
+                        String value = "v" + operation;
+                        assertEquals(expected.put(key, value), map.put(key, value), context);
+                    }
+                    case 5, 6, 7 -> assertEquals(expected.remove(key), map.remove(key), context);
+                    default -> {
+                        assertEquals(expected.get(key), map.get(key), context);
+                        assertEquals(expected.containsKey(key), map.containsKey(key), context);
+                    }
+                }
+                assertEquals(expected.size(), map.size(), context);
+            }
+            List<String> values = map.values();
+            assertEquals(expected.size(), values.size(), "seed " + seed);
+            assertTrue(values.containsAll(expected.values()), "seed " + seed);
+            for (Map.Entry<Integer, String> entry : expected.entrySet()) {
+                assertEquals(entry.getValue(), map.get(entry.getKey()), "seed " + seed);
+            }
+        }
+    }
+
+    @Test
+    void putAndRemove_manyTimes_shouldNotGrowTheTableWithTombstones() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+        for (int i = 0; i < 1_000_000; i++) {
+            assertNull(map.put(i, "value " + i));
+            assertEquals("value " + i, map.remove(i));
+        }
+
+        assertEquals(0, map.size());
+        assertNull(map.get(999_999));
+        assertTrue(map.values().isEmpty());
+    }
+
+    @Test
+    void put_nullValue_shouldBeRejected() {
+        IntObjectMap<String> map = new IntObjectMap<>();
+
+        assertThrows(NullPointerException.class, () -> map.put(1, null));
+        assertEquals(0, map.size());
+    }
+
+    // keys 0 to 999 stay mapped to their own value while writers add, remove and resize around them
+    @Test
+    void get_whileOthersWrite_shouldAlwaysSeeTheStableKeys() throws Exception {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int key = 0; key < 1000; key++) {
+            map.put(key, key);
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(6);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int writer = 0; writer < 2; writer++) {
+                int offset = 1000 + writer * 1_000_000;
+                writers.add(executor.submit(() -> {
+                    for (int key = offset; key < offset + 200_000; key++) {
+                        map.put(key, key);
+                        if (key % 3 != 0) {
+                            map.remove(key);
+                        }
+                    }
+                }));
+            }
+            List<Future<Integer>> readers = new ArrayList<>();
+            for (int reader = 0; reader < 4; reader++) {
+                readers.add(executor.submit(() -> {
+                    int wrong = 0;
+                    while (!done.get()) {
+                        for (int key = 0; key < 1000; key++) {
+                            if (!Integer.valueOf(key).equals(map.get(key))) {
+                                wrong++;
+                            }
+                        }
+                    }
+                    return wrong;
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+            done.set(true);
+            for (Future<Integer> reader : readers) {
+                assertEquals(0, reader.get(30, TimeUnit.SECONDS));
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1000 + 133_333, map.size());
+    }
+
+    // the stream holds no lock between batches, so the thread consuming it can write to the map halfway through
+    @Test
+    void stream_shouldLetWritersInWhileItIsConsumed() {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int key = 0; key < 10_000; key++) {
+            map.put(key, key);
+        }
+
+        Iterator<Integer> iterator = map.stream().iterator();
+        int seen = 0;
+        for (; seen < 5000; seen++) {
+            iterator.next();
+        }
+        for (int key = 10_000; key < 100_000; key++) {
+            map.put(key, key);
+        }
+        while (iterator.hasNext()) {
+            iterator.next();
+            seen++;
+        }
+
+        assertTrue(seen >= 10_000 && seen <= 100_000);
+        assertEquals(100_000, map.stream().count());
+    }
+
+    // keys 0 to 999 come out exactly once per stream while writers add, remove and resize around them
+    @Test
+    void stream_whileOthersWrite_shouldSeeTheStableKeysOnce() throws Exception {
+        IntObjectMap<Integer> map = new IntObjectMap<>();
+        for (int key = 0; key < 1000; key++) {
+            map.put(key, key);
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<?> writer = executor.submit(() -> {
+                for (int key = 1000; key < 201_000; key++) {
+                    map.put(key, key);
+                    if (key % 3 != 0) {
+                        map.remove(key);
+                    }
+                }
+            });
+            while (!writer.isDone()) {
+                Map<Integer, Long> counts = map.stream()
+                        .filter(value -> value < 1000)
+                        .collect(Collectors.groupingBy(value -> value, Collectors.counting()));
+                assertEquals(1000, counts.size());
+                assertTrue(counts.values().stream().allMatch(count -> count == 1));
+            }
+            writer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1000 + 66_666, map.stream().count());
+    }
+}
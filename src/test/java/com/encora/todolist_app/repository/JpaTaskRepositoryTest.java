@@ -0,0 +1,367 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.ScrollPosition;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.domain.Window;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE,
+        properties = "spring.datasource.url=jdbc:h2:mem:tasks;DB_CLOSE_DELAY=-1")
+@ActiveProfiles("jpa")
+public class JpaTaskRepositoryTest {
+
+    @Autowired
+    private TaskRepository taskRepository;
+
+    @Autowired
+    private ApplicationContext context;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository.getAllTask().forEach(task -> taskRepository.deleteById(task.getId()));
+    }
+
+    @Test
+    void taskRepository_shouldBeBackedByTheDatabase() {
+        assertInstanceOf(MeteredTaskRepository.class, taskRepository);
+        assertEquals(1, context.getBeansOfType(JpaTaskRepository.class).size());
+        assertTrue(context.getBeansOfType(InMemoryTaskRepository.class).isEmpty());
+    }
+
+    @Test
+    void save_shouldRoundTripEveryField() {
+        Task saved = taskRepository.save(new Task(null, "Write report", null, LocalDateTime.of(2025, 5, 1, 10, 30, 0, 123456000), LocalDateTime.of(2025, 5, 2, 9, 0), Duration.ofMinutes(42).plusNanos(7), Priority.HIGH, true));
+
+        Task found = taskRepository.findById(saved.getId()).orElseThrow();
+        assertEquals(saved, found);
+        assertEquals(saved.getDoneDate(), found.getDoneDate());
+        assertNull(taskRepository.save(new Task(saved.getId(), "Same id", null, null, null, null, null, false)));
+    }
+
+    @Test
+    void version_shouldIncreaseOncePerCommittedChange() {
+        long initial = taskRepository.version();
+
+        taskRepository.saveAll(List.of(
+                new Task(null, "Bulk 1", null, null, null, null, Priority.LOW, false),
+                new Task(null, "Bulk 2", null, null, null, null, Priority.LOW, false)));
+        assertEquals(initial + 1, taskRepository.version());
+
+        taskRepository.deleteById(-1);
+        assertEquals(initial + 1, taskRepository.version());
+    }
+
+    @Test
+    void save_withExplicitId_shouldRoundTripEveryField() {
+        Task saved = taskRepository.save(new Task(700, "Explicit", null, LocalDateTime.of(2025, 5, 1, 10, 30, 0, 123456000), LocalDateTime.of(2025, 5, 2, 9, 0), Duration.ofMinutes(42).plusNanos(7), Priority.MEDIUM, true));
+
+        Task found = taskRepository.findById(700).orElseThrow();
+        assertEquals(saved, found);
+        assertEquals(saved.getDoneDate(), found.getDoneDate());
+    }
+
+    // the first transaction has inserted id 800 but not committed, so the batch does not find it and only learns about
+    // it from the key once that commits; the batch must lose that one task, not fail
+    @Test
+    void saveAll_withAnIdInsertedConcurrently_shouldSkipItAndKeepTheRest() throws Exception {
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Task> first = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Task task = taskRepository.save(new Task(800, "First", null, null, null, null, Priority.HIGH, false));
+                inserted.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return task;
+            }));
+            assertTrue(inserted.await(10, TimeUnit.SECONDS));
+            // the batch blocks on the uncommitted key, so the commit has to come from another thread
+            new Thread(() -> {
+                try {
+                    Thread.sleep(300);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                commit.countDown();
+            }).start();
+
+            List<Task> saved = taskRepository.saveAll(List.of(
+                    new Task(800, "Second", null, null, null, null, Priority.LOW, false),
+                    new Task(null, "Generated", null, null, null, null, Priority.LOW, false)));
+
+            assertNotNull(first.get(10, TimeUnit.SECONDS));
+            assertEquals(List.of("Generated"), saved.stream().map(Task::getText).toList());
+            assertEquals("First", taskRepository.findById(800).orElseThrow().getText());
+            assertTrue(taskRepository.findById(saved.get(0).getId()).isPresent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    // the generated id is only flushed when the first transaction commits, the explicit save of the same id in between
+    // must be turned away rather than make that commit fail
+    @Test
+    void save_explicitIdDrawnByAnOpenTransaction_shouldNotBeStored() throws Exception {
+        CountDownLatch drawn = new CountDownLatch(1);
+        CountDownLatch commit = new CountDownLatch(1);
+        AtomicInteger drawnId = new AtomicInteger();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Task> generated = executor.submit(() -> new TransactionTemplate(transactionManager).execute(status -> {
+                Task task = taskRepository.save(new Task(null, "Generated", null, null, null, null, Priority.LOW, false));
+                drawnId.set(task.getId());
+                drawn.countDown();
+                try {
+                    commit.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return task;
+            }));
+            assertTrue(drawn.await(10, TimeUnit.SECONDS));
+            int id = drawnId.get();
+
+            assertNull(taskRepository.save(new Task(id, "Explicit", null, null, null, null, Priority.HIGH, false)));
+
+            commit.countDown();
+            assertEquals(id, generated.get(10, TimeUnit.SECONDS).getId());
+            assertEquals("Generated", taskRepository.findById(id).orElseThrow().getText());
+            assertNotNull(taskRepository.save(new Task(id + 1, "Explicit", null, null, null, null, Priority.HIGH, false)));
+            assertTrue(taskRepository.save(new Task(null, "Next", null, null, null, null, Priority.LOW, false)).getId() > id + 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void save_sameIdFromManyThreads_shouldStoreItOnce() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Task>> saves = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                Task task = new Task(900, "Writer " + i, null, null, null, null, Priority.LOW, false);
+                saves.add(executor.submit(() -> {
+                    start.await();
+                    return taskRepository.save(task);
+                }));
+            }
+            start.countDown();
+            int stored = 0;
+            for (Future<Task> save : saves) {
+                if (save.get(30, TimeUnit.SECONDS) != null) {
+                    stored++;
+                }
+            }
+
+            assertEquals(1, stored);
+            assertTrue(taskRepository.findById(900).isPresent());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void save_shouldDrawGeneratedIdsPastExplicitOnes() {
+        taskRepository.save(new Task(500, "Explicit", null, null, null, null, Priority.LOW, false));
+
+        Task generated = taskRepository.save(new Task(null, "Generated", null, null, null, null, Priority.LOW, false));
+
+        assertTrue(generated.getId() > 500);
+    }
+
+    @Test
+    void saveAll_shouldPersistInBatchesAndStreamBackInIdOrder() {
+        Task existing = taskRepository.save(new Task(null, "Existing", null, null, null, null, Priority.LOW, false));
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 1_234; i++) {
+            tasks.add(new Task(null, "Bulk " + i, null, null, null, null, Priority.values()[i % 3], false));
+        }
+        tasks.add(new Task(existing.getId(), "Taken", null, null, null, null, Priority.LOW, false));
+
+        List<Task> saved = taskRepository.saveAll(tasks);
+
+        assertEquals(1_234, saved.size());
+        assertEquals(existing.getId(), taskRepository.streamAll().findFirst().orElseThrow().getId());
+        assertEquals(ids(saved), taskRepository.streamAll().skip(1).map(Task::getId).toList());
+        assertEquals("Existing", taskRepository.findById(existing.getId()).orElseThrow().getText());
+    }
+
+    @Test
+    void replaceTask_shouldOnlyReplaceTheExpectedVersion() {
+        Task saved = taskRepository.save(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+        Task current = taskRepository.findById(saved.getId()).orElseThrow();
+        Task done = new Task(current);
+        done.setState(true);
+
+        assertTrue(taskRepository.replaceTask(saved.getId(), current, done));
+        assertFalse(taskRepository.replaceTask(saved.getId(), current, new Task(current)));
+        assertTrue(taskRepository.findById(saved.getId()).orElseThrow().isState());
+        assertEquals(current.getCreationDate(), taskRepository.findById(saved.getId()).orElseThrow().getCreationDate());
+    }
+
+    @Test
+    void updateAll_shouldChangeEveryMatchingRowInOneTransaction() {
+        List<Task> saved = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            saved.add(taskRepository.save(new Task(null, "Task " + i, null, null, null, null, Priority.values()[i], false)));
+        }
+        LocalDateTime doneDate = LocalDateTime.of(2025, 5, 2, 9, 0);
+
+        List<TaskChange> changes = taskRepository.updateAll(List.of(saved.get(2).getId(), -1, saved.get(0).getId()), current -> {
+            Task task = new Task(current);
+            task.setState(true);
+            task.setDoneDate(doneDate);
+            return task;
+        });
+
+        assertEquals(List.of(saved.get(0).getId(), saved.get(2).getId()), changes.stream().map(change -> change.after().getId()).toList());
+        assertFalse(changes.get(0).before().isState());
+        assertEquals(doneDate, taskRepository.findById(saved.get(2).getId()).orElseThrow().getDoneDate());
+        assertEquals(saved.get(0).getCreationDate(), taskRepository.findById(saved.get(0).getId()).orElseThrow().getCreationDate());
+        assertFalse(taskRepository.findById(saved.get(1).getId()).orElseThrow().isState());
+
+        List<TaskChange> undone = taskRepository.updateAllByStateAndPriorityAndText(true, "high", null, current -> {
+            Task task = new Task(current);
+            task.setState(false);
+            task.setDoneDate(null);
+            return task;
+        });
+        assertEquals(1, undone.size());
+        assertEquals(saved.get(2).getId(), undone.get(0).after().getId());
+        assertFalse(taskRepository.findById(saved.get(2).getId()).orElseThrow().isState());
+        assertTrue(taskRepository.findById(saved.get(0).getId()).orElseThrow().isState());
+    }
+
+    // more matches than one chunk, with the filter on the very column the change flips
+    @Test
+    void updateAllByStateAndPriorityAndText_overSeveralChunks_shouldChangeEveryMatchOnce() {
+        List<Task> batch = new ArrayList<>();
+        for (int i = 0; i < 1_300; i++) {
+            batch.add(new Task(null, "Task " + i, null, null, null, null, Priority.LOW, i % 2 == 0));
+        }
+        List<Integer> pending = taskRepository.saveAll(batch).stream().filter(task -> !task.isState()).map(Task::getId).toList();
+
+        List<TaskChange> changes = taskRepository.updateAllByStateAndPriorityAndText(false, null, null, current -> {
+            Task task = new Task(current);
+            task.setState(true);
+            return task;
+        });
+
+        assertEquals(pending, changes.stream().map(change -> change.after().getId()).toList());
+        assertTrue(changes.stream().noneMatch(change -> change.before().isState()));
+        assertEquals(0, taskRepository.findAllByStateAndPriorityAndText(false, null, null, PageRequest.of(0, 10)).getTotalElements());
+
+        List<TaskChange> all = taskRepository.updateAllByStateAndPriorityAndText(null, null, null, current -> current);
+        assertEquals(1_300, all.size());
+        assertEquals(all.stream().map(change -> change.after().getId()).sorted().distinct().toList(), all.stream().map(change -> change.after().getId()).toList());
+    }
+
+    @Test
+    void deleteById_shouldReturnTheRemovedTask() {
+        Task saved = taskRepository.save(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+
+        assertEquals(saved, taskRepository.deleteById(saved.getId()));
+        assertNull(taskRepository.deleteById(saved.getId()));
+        assertTrue(taskRepository.findById(saved.getId()).isEmpty());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldMatchTheInMemoryRepository() {
+        InMemoryTaskRepository inMemory = saveRandomTasks();
+        for (Boolean state : new Boolean[]{null, true, false}) {
+            for (String priority : new String[]{null, "low", "HIGH", "urgent"}) {
+                for (String text : new String[]{null, "ab", "5_%"}) {
+                    for (String property : List.of("id", "priority", "dueDate", "urgency")) {
+                        for (Sort.Direction direction : Sort.Direction.values()) {
+                            for (int page = 0; page < 3; page++) {
+                                PageRequest pageable = PageRequest.of(page, 7, Sort.by(direction, property));
+                                Page<Task> expected = inMemory.findAllByStateAndPriorityAndText(state, priority, text, pageable);
+                                Page<Task> actual = taskRepository.findAllByStateAndPriorityAndText(state, priority, text, pageable);
+                                String query = state + " " + priority + " " + text + " " + pageable;
+                                assertEquals(expected.getTotalElements(), actual.getTotalElements(), query);
+                                assertEquals(ids(expected.getContent()), ids(actual.getContent()), query);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void scrollByStateAndPriorityAndText_shouldMatchTheInMemoryRepository() {
+        InMemoryTaskRepository inMemory = saveRandomTasks();
+        for (String property : List.of("id", "priority", "dueDate", "urgency")) {
+            for (Sort.Direction direction : Sort.Direction.values()) {
+                Sort sort = Sort.by(direction, property);
+                assertEquals(scroll(inMemory, sort), scroll(taskRepository, sort), sort.toString());
+            }
+        }
+        assertNull(taskRepository.scrollByStateAndPriorityAndText(null, null, null, Sort.by("text"), ScrollPosition.keyset(), 10));
+    }
+
+    private InMemoryTaskRepository saveRandomTasks() {
+        InMemoryTaskRepository inMemory = new InMemoryTaskRepository();
+        Random random = new Random(7);
+        String[] words = {"abc", "xab", "report", "5_%", "deploy"};
+        for (int id = 0; id < 120; id++) {
+            LocalDateTime dueDate = random.nextInt(4) == 0 ? null : LocalDateTime.of(2025, 1, 1 + random.nextInt(5), 0, 0);
+            Priority priority = random.nextInt(5) == 0 ? null : Priority.values()[random.nextInt(3)];
+            String text = random.nextInt(10) == 0 ? null : words[random.nextInt(words.length)] + " " + id;
+            boolean state = random.nextBoolean();
+            inMemory.save(new Task(id, text, null, dueDate, null, null, priority, state));
+            taskRepository.save(new Task(id, text, null, dueDate, null, null, priority, state));
+        }
+        return inMemory;
+    }
+
+    private static List<Integer> scroll(TaskRepository repository, Sort sort) {
+        List<Integer> ids = new ArrayList<>();
+        KeysetScrollPosition position = ScrollPosition.keyset();
+        Window<Task> window;
+        do {
+            window = repository.scrollByStateAndPriorityAndText(true, null, null, sort, position, 9);
+            ids.addAll(ids(window.getContent()));
+            position = window.isEmpty() ? position : (KeysetScrollPosition) window.positionAt(window.size() - 1);
+        } while (window.hasNext());
+        return ids;
+    }
+
+    private static List<Integer> ids(List<Task> tasks) {
+        return tasks.stream().map(Task::getId).toList();
+    }
+}
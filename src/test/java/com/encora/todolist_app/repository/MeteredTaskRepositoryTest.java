@@ -0,0 +1,58 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MeteredTaskRepositoryTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final MeteredTaskRepository taskRepository = new MeteredTaskRepository(new InMemoryTaskRepository(), meterRegistry, true);
+
+    @Test
+    void operations_shouldBeTimedPerOperation() {
+        Task saved = taskRepository.save(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+        taskRepository.findById(saved.getId());
+        taskRepository.findById(-1);
+        taskRepository.findAllByStateAndPriorityAndText(false, null, null, PageRequest.of(0, 10));
+
+        assertEquals(1, timer("save").count());
+        assertEquals(2, timer("findById").count());
+        assertEquals(1, timer("findAllByStateAndPriorityAndText").count());
+        assertEquals(0, timer("deleteById").count());
+    }
+
+    @Test
+    void findById_withoutTimedLookups_shouldOnlyCountThem() {
+        MeteredTaskRepository countingRepository = new MeteredTaskRepository(new InMemoryTaskRepository(), meterRegistry, false);
+
+        countingRepository.findById(1);
+        countingRepository.findById(2);
+
+        assertEquals(2, meterRegistry.get(MeteredTaskRepository.LOOKUPS).counter().count());
+        assertEquals(0, timer("findById").count());
+    }
+
+    @Test
+    void streamAll_shouldBeTimedUntilTheStreamIsClosed() {
+        taskRepository.save(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+
+        Stream<Task> tasks = taskRepository.streamAll();
+        assertEquals(1, tasks.count());
+        assertEquals(0, timer("streamAll").count());
+
+        tasks.close();
+        assertEquals(1, timer("streamAll").count());
+    }
+
+    private Timer timer(String operation) {
+        return meterRegistry.get(MeteredTaskRepository.TIMER).tag("operation", operation).timer();
+    }
+}
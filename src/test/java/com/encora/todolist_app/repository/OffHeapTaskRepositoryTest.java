@@ -0,0 +1,46 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// runs every columnar test against the off-heap rows as well
+public class OffHeapTaskRepositoryTest extends ColumnarTaskRepositoryTest {
+
+    @Override
+    ColumnarTaskRepository createRepository() {
+        return new OffHeapTaskRepository();
+    }
+
+    @Test
+    void deleteById_acrossChunks_shouldKeepEveryOtherTaskReachable() {
+        ColumnarTaskRepository repository = createRepository();
+        List<Task> tasks = new ArrayList<>();
+        for (int i = 0; i < 140_000; i++) {
+            tasks.add(new Task(null, "Chunked " + i, null, null, null, null, Priority.values()[i % 3], i % 2 == 0));
+        }
+        repository.saveAll(tasks);
+
+        for (int id = 0; id < 140_000; id++) {
+            if (id % 10 != 0) {
+                repository.deleteById(id);
+            }
+        }
+
+        assertEquals(14_000, repository.getAllTask().size());
+        assertEquals("Chunked 139990", repository.findById(139_990).get().getText());
+        assertTrue(repository.findById(139_991).isEmpty());
+        assertEquals(List.of(139_990, 139_980), repository.findAll(PageRequest.of(0, 2, Sort.by(Sort.Order.desc("id"))))
+                .map(Task::getId).getContent());
+
+        repository.save(new Task(null, "After shrinking", null, null, null, null, null, false));
+        assertEquals(1, repository.findAllByStateAndPriorityAndText(null, null, "shrinking", PageRequest.of(0, 10)).getTotalElements());
+    }
+}
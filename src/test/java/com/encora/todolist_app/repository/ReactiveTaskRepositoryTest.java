@@ -0,0 +1,69 @@
+package com.encora.todolist_app.repository;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.KeysetScrollPosition;
+import org.springframework.data.domain.Sort;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ReactiveTaskRepositoryTest {
+
+    private static final int TASKS = 1_234;
+
+    private InMemoryTaskRepository taskRepository;
+    private ReactiveTaskRepository reactiveTaskRepository;
+
+    @BeforeEach
+    void setUp() {
+        taskRepository = spy(new InMemoryTaskRepository());
+        LocalDateTime now = LocalDateTime.of(2025, 1, 1, 0, 0);
+        for (int i = 0; i < TASKS; i++) {
+            taskRepository.save(new Task(null, "Task " + i, null, i % 10 == 0 ? null : now.plusHours(i % 97), null, null, Priority.values()[i % 3], i % 2 == 0));
+        }
+        reactiveTaskRepository = new ReactiveTaskRepository(taskRepository, Schedulers.boundedElastic());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldStreamEveryMatchingTaskAcrossWindows() {
+        List<Task> expected = taskRepository.getAllTask().stream()
+                .filter(task -> !task.isState())
+                .sorted(Comparator.comparing(Task::getDueDate, Comparator.nullsFirst(Comparator.<LocalDateTime>naturalOrder().reversed()))
+                        .thenComparing(Task::getId))
+                .toList();
+
+        List<Task> streamed = reactiveTaskRepository.findAllByStateAndPriorityAndText(false, null, null, Sort.by(Sort.Direction.DESC, "dueDate"))
+                .collectList().block();
+
+        assertEquals(expected.stream().map(Task::getId).toList(), streamed.stream().map(Task::getId).toList());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_shouldOnlyReadTheWindowsThatAreRequested() {
+        List<Task> first = reactiveTaskRepository.findAllByStateAndPriorityAndText(null, null, null, Sort.unsorted())
+                .take(10).collectList().block();
+
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), first.stream().map(Task::getId).toList());
+        verify(taskRepository, times(1)).scrollByStateAndPriorityAndText(isNull(), isNull(), isNull(), any(Sort.class), any(KeysetScrollPosition.class), anyInt());
+    }
+
+    @Test
+    void findAllByStateAndPriorityAndText_withUnsupportedSort_shouldFail() {
+        assertThrows(IllegalArgumentException.class,
+                () -> reactiveTaskRepository.findAllByStateAndPriorityAndText(null, null, null, Sort.by("text")).blockFirst());
+    }
+
+    @Test
+    void findAll_shouldStreamEveryTask() {
+        assertEquals(TASKS, reactiveTaskRepository.findAll().count().block());
+    }
+}
@@ -0,0 +1,52 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskSnapshotTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void write_shouldRoundTripTasksAcrossMappedRegions() throws IOException {
+        List<Task> tasks = new ArrayList<>();
+        tasks.add(new Task(1, null, null, null, null, null, null, false));
+        tasks.add(new Task(2, "x".repeat(1_000), LocalDateTime.of(2025, 4, 1, 8, 0, 0, 1), LocalDateTime.of(2025, 4, 2, 8, 0), LocalDateTime.of(2025, 4, 3, 8, 0), Duration.ofDays(2), Priority.HIGH, true));
+        tasks.add(new Task(-7, "", LocalDateTime.of(1970, 1, 1, 0, 0), null, null, Duration.ZERO, Priority.LOW, false));
+        for (int i = 0; i < 50; i++) {
+            tasks.add(new Task(100 + i, "Task número " + i, LocalDateTime.of(2025, 1, 1, 0, 0).plusMinutes(i), null, null, null, Priority.MEDIUM, false));
+        }
+        Path file = directory.resolve("tasks.snap");
+
+        assertEquals(tasks.size(), TaskSnapshot.write(file, 7, tasks, 128));
+
+        List<Task> read = new ArrayList<>();
+        assertEquals(7, TaskSnapshot.read(file, (id, task) -> read.add(task)));
+        assertEquals(tasks, read);
+        assertEquals(tasks.get(1).getDoneDate(), read.get(1).getDoneDate());
+    }
+
+    @Test
+    void read_shouldRejectCorruptedSnapshot() throws IOException {
+        Path file = directory.resolve("tasks.snap");
+        TaskSnapshot.write(file, 1, List.of(new Task(1, "Task", null, null, null, null, Priority.LOW, false)), 128);
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 12] ^= 0x01;
+        Files.write(file, bytes);
+
+        assertThrows(IllegalStateException.class, () -> TaskSnapshot.read(file, (id, task) -> { }));
+    }
+}
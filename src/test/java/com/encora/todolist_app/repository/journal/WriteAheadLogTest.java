@@ -0,0 +1,207 @@
+package com.encora.todolist_app.repository.journal;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.PageRequest;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class WriteAheadLogTest {
+
+    @TempDir
+    Path directory;
+
+    private WriteAheadLog open(boolean awaitSync) throws IOException {
+        return new WriteAheadLog(directory, Duration.ofMillis(1), 64, false, awaitSync);
+    }
+
+    @Test
+    void replay_shouldRestoreSavesReplacementsAndDeletes() throws IOException {
+        List<Task> expected;
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            Task kept = taskRepository.save(new Task(null, "Write report ñ", null, LocalDateTime.of(2025, 5, 1, 10, 30, 0, 123456789), null, null, Priority.HIGH, false));
+            Task removed = taskRepository.save(new Task(null, null, null, null, null, null, null, false));
+            Task done = taskRepository.save(new Task(null, "Ship release", null, null, null, null, Priority.LOW, false));
+            Task doneCopy = taskRepository.findById(done.getId()).orElseThrow();
+            doneCopy.setState(true);
+            doneCopy.setDoneDate(LocalDateTime.now());
+            doneCopy.setTimeFrame(Duration.ofMinutes(42).plusNanos(7));
+            assertTrue(taskRepository.replaceTask(done.getId(), taskRepository.findById(done.getId()).orElseThrow(), doneCopy));
+            taskRepository.deleteById(removed.getId());
+            expected = sorted(taskRepository.getAllTask());
+            assertEquals(2, expected.size());
+            assertTrue(expected.contains(kept));
+        }
+
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository recovered = new InMemoryTaskRepository(journal);
+            assertEquals(expected, sorted(recovered.getAllTask()));
+            assertEquals(expected.get(1).getDoneDate(), recovered.findById(expected.get(1).getId()).orElseThrow().getDoneDate());
+            assertEquals(1, recovered.findAllByStateAndPriorityAndText(true, "LOW", "ship", PageRequest.of(0, 10)).getTotalElements());
+            Task next = recovered.save(new Task(null, "After restart", null, null, null, null, Priority.MEDIUM, false));
+            assertTrue(expected.stream().noneMatch(task -> task.getId().equals(next.getId())));
+        }
+    }
+
+    @Test
+    void replay_shouldDropTornTailAndKeepAppending() throws IOException {
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            taskRepository.save(new Task(null, "First", null, null, null, null, Priority.LOW, false));
+            taskRepository.save(new Task(null, "Second", null, null, null, null, Priority.LOW, false));
+        }
+        Path file = directory.resolve(WriteAheadLog.segmentName(0));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 3);
+        }
+
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository recovered = new InMemoryTaskRepository(journal);
+            assertEquals(List.of("First"), recovered.getAllTask().stream().map(Task::getText).toList());
+            recovered.save(new Task(null, "Third", null, null, null, null, Priority.LOW, false));
+        }
+        try (WriteAheadLog journal = open(false)) {
+            InMemoryTaskRepository recovered = new InMemoryTaskRepository(journal);
+            assertEquals(List.of("First", "Third"), sorted(recovered.getAllTask()).stream().map(Task::getText).toList());
+        }
+    }
+
+    @Test
+    void replay_shouldIgnoreCorruptedRecords() throws IOException {
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            taskRepository.save(new Task(null, "First", null, null, null, null, Priority.LOW, false));
+            taskRepository.save(new Task(null, "Second", null, null, null, null, Priority.LOW, false));
+        }
+        Path file = directory.resolve(WriteAheadLog.segmentName(0));
+        byte[] bytes = Files.readAllBytes(file);
+        bytes[bytes.length - 2] ^= 0x55;
+        Files.write(file, bytes);
+
+        try (WriteAheadLog journal = open(true)) {
+            assertEquals(List.of("First"), new InMemoryTaskRepository(journal).getAllTask().stream().map(Task::getText).toList());
+        }
+    }
+
+    @Test
+    void save_fromConcurrentWriters_shouldAllBeRecovered() throws Exception {
+        int writers = 16;
+        int tasksPerWriter = 500;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (WriteAheadLog journal = open(true)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < tasksPerWriter; i++) {
+                        Task saved = taskRepository.save(new Task(null, "Task " + i, null, null, null, null, Priority.MEDIUM, false));
+                        if (i % 2 == 0) {
+                            taskRepository.deleteById(saved.getId());
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (WriteAheadLog journal = open(false)) {
+            assertEquals(writers * tasksPerWriter / 2, new InMemoryTaskRepository(journal).getAllTask().size());
+        }
+    }
+
+    @Test
+    void checkpoint_shouldCompactLogAndRecoverFromSnapshotPlusTail() throws IOException {
+        List<Task> expected;
+        try (WriteAheadLog journal = open(false)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            for (int i = 0; i < 100; i++) {
+                taskRepository.save(new Task(null, "Task " + i, null, LocalDateTime.of(2025, 1, 1, 0, 0).plusHours(i), null, null, Priority.values()[i % 3], false));
+            }
+            taskRepository.checkpoint();
+            taskRepository.deleteById(3);
+            taskRepository.replaceTask(5, new Task(5, "Changed after the snapshot", null, null, LocalDateTime.now(), Duration.ofHours(1), Priority.HIGH, true));
+            taskRepository.save(new Task(null, "Saved after the snapshot", null, null, null, null, null, false));
+            expected = sorted(taskRepository.getAllTask());
+        }
+
+        assertEquals(List.of(WriteAheadLog.snapshotName(1), WriteAheadLog.segmentName(1)), fileNames());
+        try (WriteAheadLog journal = open(false)) {
+            InMemoryTaskRepository recovered = new InMemoryTaskRepository(journal);
+            assertEquals(expected, sorted(recovered.getAllTask()));
+            recovered.checkpoint();
+            recovered.checkpoint();
+        }
+        assertEquals(List.of(WriteAheadLog.snapshotName(1), WriteAheadLog.segmentName(1)), fileNames());
+    }
+
+    @Test
+    void checkpoint_whileWritersRun_shouldLoseNoMutation() throws Exception {
+        int writers = 8;
+        List<Task> expected;
+        ExecutorService executor = Executors.newFixedThreadPool(writers);
+        try (WriteAheadLog journal = open(false)) {
+            InMemoryTaskRepository taskRepository = new InMemoryTaskRepository(journal);
+            List<Future<?>> futures = new ArrayList<>();
+            for (int writer = 0; writer < writers; writer++) {
+                int first = writer * 1_000;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 1_000; i++) {
+                        int id = first + i;
+                        taskRepository.save(new Task(id, "Task " + id, null, null, null, null, Priority.LOW, false));
+                        if (i % 3 == 0) {
+                            taskRepository.replaceTask(id, new Task(id, "Done " + id, null, null, null, Duration.ofSeconds(i), Priority.HIGH, true));
+                        }
+                        if (i % 5 == 0) {
+                            taskRepository.deleteById(id - 1);
+                        }
+                    }
+                }));
+            }
+            while (futures.stream().anyMatch(future -> !future.isDone())) {
+                taskRepository.checkpoint();
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+            expected = sorted(taskRepository.getAllTask());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (WriteAheadLog journal = open(false)) {
+            assertEquals(expected, sorted(new InMemoryTaskRepository(journal).getAllTask()));
+        }
+    }
+
+    private List<String> fileNames() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.map(file -> file.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    private static List<Task> sorted(List<Task> tasks) {
+        return tasks.stream().sorted(Comparator.comparing(Task::getId)).toList();
+    }
+}
@@ -0,0 +1,143 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.CompletionTimeStatsDTO;
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.repository.InMemoryTaskRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompletionTimeStatisticsTest {
+
+    @ParameterizedTest
+    @ValueSource(longs = {1, 2, 3, 42, 2025})
+    void avgTimesAllTask_afterRandomMutations_shouldMatchAFullScan(long seed) {
+        Random random = new Random(seed);
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository();
+        for (int i = 0; i < 20; i++) {
+            taskRepository.save(randomTask(random, null));
+        }
+        TaskService taskService = new TaskService(taskRepository, new TaskEventFeed(), new TaskQueryCache(100));
+        List<Integer> ids = new ArrayList<>();
+        taskRepository.getAllTask().forEach(task -> ids.add(task.getId()));
+
+        for (int step = 0; step < 2_000; step++) {
+            int id = ids.isEmpty() ? 0 : ids.get(random.nextInt(ids.size()));
+            switch (random.nextInt(6)) {
+                case 0 -> ids.add(taskService.addTask(randomTask(random, null)).getId());
+                case 1 -> taskService.updateTask(id, randomTask(random, id));
+                case 2 -> {
+                    taskService.deleteTask(id);
+                    ids.remove(Integer.valueOf(id));
+                }
+                case 3, 4 -> taskService.updateStatusDoneTask(id);
+                default -> taskService.updateStatusUndoneTask(id);
+            }
+            if (step % 50 == 0) {
+                assertEquals(fullScan(taskRepository.getAllTask()), taskService.avgTimesAllTask(), "seed " + seed + " step " + step);
+            }
+        }
+        assertEquals(fullScan(taskRepository.getAllTask()), taskService.avgTimesAllTask());
+    }
+
+    private static Task randomTask(Random random, Integer id) {
+        boolean done = random.nextInt(3) == 0;
+        Duration timeFrame = done ? Duration.ofSeconds(random.nextInt(100_000), random.nextInt(1_000_000_000)) : null;
+        return new Task(id, "Task", null, null, null, timeFrame, Priority.values()[random.nextInt(3)], done);
+    }
+
+    // the rescan avgTimesAllTask did on every request before the running totals existed
+    private static Map<String, Duration> fullScan(List<Task> allTasks) {
+        Map<Priority, Duration> sums = new HashMap<>();
+        Map<Priority, Integer> counts = new HashMap<>();
+        Duration total = Duration.ZERO;
+        int totalTask = 0;
+        for (Task task : allTasks) {
+            if (task.isState()) {
+                totalTask++;
+                total = total.plus(task.getTimeFrame());
+                sums.merge(task.getPriority(), task.getTimeFrame(), Duration::plus);
+                counts.merge(task.getPriority(), 1, Integer::sum);
+            }
+        }
+        if (totalTask == 0) {
+            return null;
+        }
+        Map<String, Duration> mapAvgTimes = new HashMap<>();
+        mapAvgTimes.put("AvgTotalTime", total.dividedBy(totalTask));
+        mapAvgTimes.put("avgTimeLowPriority", average(sums, counts, Priority.LOW));
+        mapAvgTimes.put("avgTimeMediumPriority", average(sums, counts, Priority.MEDIUM));
+        mapAvgTimes.put("avgTimeHighPriority", average(sums, counts, Priority.HIGH));
+        return mapAvgTimes;
+    }
+
+    private static Duration average(Map<Priority, Duration> sums, Map<Priority, Integer> counts, Priority priority) {
+        return counts.containsKey(priority) ? sums.get(priority).dividedBy(counts.get(priority)) : Duration.ZERO;
+    }
+
+    @Test
+    void completionTimeStats_shouldReportPercentilesOfDoneTasksPerPriority() {
+        InMemoryTaskRepository taskRepository = new InMemoryTaskRepository();
+        TaskService taskService = new TaskService(taskRepository, new TaskEventFeed(), new TaskQueryCache(100));
+        for (int minutes = 1; minutes <= 100; minutes++) {
+            taskService.addTask(new Task(null, "Task", null, null, null, Duration.ofMinutes(minutes), Priority.HIGH, true));
+        }
+        Task pending = taskService.addTask(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+
+        Map<String, CompletionTimeStatsDTO> stats = taskService.completionTimeStats();
+
+        CompletionTimeStatsDTO high = stats.get("HIGH");
+        assertEquals(100, high.getCount());
+        assertEquals(50, high.getP50().toSeconds() / 60.0, 1);
+        assertEquals(90, high.getP90().toSeconds() / 60.0, 2);
+        assertEquals(99, high.getP99().toSeconds() / 60.0, 2);
+        assertEquals(0, stats.get("LOW").getCount());
+
+        taskService.updateStatusDoneTask(pending.getId());
+        assertEquals(1, taskService.completionTimeStats().get("LOW").getCount());
+        assertEquals(101, taskService.completionTimeStats().get("total").getCount());
+    }
+
+    // 1.5 million tasks of two and a half hours add up to more nanoseconds than a long holds
+    @Test
+    void avgTimesAllTask_withMoreCompletionTimeThanALongOfNanoseconds_shouldNotWrap() {
+        CompletionTimeStatistics statistics = new CompletionTimeStatistics();
+        Task done = new Task(1, "Task", null, null, null, Duration.ofMinutes(150).plusNanos(999_999_999), Priority.HIGH, true);
+        for (int i = 0; i < 1_500_000; i++) {
+            statistics.replace(null, done);
+        }
+        Task other = new Task(2, "Task", null, null, null, Duration.ofMinutes(30), Priority.LOW, true);
+        statistics.replace(null, other);
+
+        Map<String, Duration> averages = statistics.averages();
+
+        assertEquals(done.getTimeFrame(), averages.get("avgTimeHighPriority"));
+        assertEquals(Duration.ofMinutes(30), averages.get("avgTimeLowPriority"));
+        Duration expectedTotal = done.getTimeFrame().multipliedBy(1_500_000).plus(Duration.ofMinutes(30)).dividedBy(1_500_001);
+        assertEquals(expectedTotal, averages.get("AvgTotalTime"));
+        assertEquals(done.getTimeFrame(), statistics.distributions().get("HIGH").getAverage());
+    }
+
+    @Test
+    void statisticsVersion_shouldOnlyChangeWithDoneTasks() {
+        TaskService taskService = new TaskService(new InMemoryTaskRepository(), new TaskEventFeed(), new TaskQueryCache(100));
+        long initial = taskService.statisticsVersion();
+
+        Task pending = taskService.addTask(new Task(null, "Task", null, null, null, null, Priority.LOW, false));
+        assertEquals(initial, taskService.statisticsVersion());
+
+        taskService.updateStatusDoneTask(pending.getId());
+        assertEquals(initial + 1, taskService.statisticsVersion());
+    }
+}
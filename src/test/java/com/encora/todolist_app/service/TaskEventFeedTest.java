@@ -0,0 +1,173 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.models.TaskEventType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskEventFeedTest {
+
+    private final TaskEventFeed feed = new TaskEventFeed();
+
+    @AfterEach
+    void tearDown() {
+        feed.close();
+    }
+
+    private void publish(TaskEventType type, int id) {
+        Task task = new Task(id, "Task " + id, null, null, null, null, Priority.LOW, type == TaskEventType.DONE);
+        feed.publish(type, id, () -> task);
+    }
+
+    @Test
+    void subscribe_shouldReceiveLaterEventsInSequenceOrder() {
+        publish(TaskEventType.INSERTED, 1);
+        AtomicInteger notified = new AtomicInteger();
+        TaskEventFeed.Subscription subscription = feed.subscribe(feed.currentSequence(), notified::incrementAndGet);
+
+        publish(TaskEventType.INSERTED, 2);
+        publish(TaskEventType.DONE, 3);
+
+        List<TaskEventDTO> events = subscription.poll(10);
+        assertEquals(List.of(2L, 3L), events.stream().map(TaskEventDTO::getSequence).toList());
+        assertEquals(TaskEventType.DONE, events.get(1).getType());
+        assertTrue(events.get(1).getTask().isState());
+        assertEquals(1, notified.get());
+        assertFalse(subscription.hasEvents());
+    }
+
+    @Test
+    void subscribe_afterAnEarlierSequence_shouldReplayTheHistory() {
+        for (int id = 0; id < 5; id++) {
+            publish(TaskEventType.INSERTED, id);
+        }
+
+        List<TaskEventDTO> events = feed.subscribe(2, () -> { }).poll(10);
+
+        assertEquals(List.of(3L, 4L, 5L), events.stream().map(TaskEventDTO::getSequence).toList());
+    }
+
+    @Test
+    void subscribe_afterASequenceNoLongerInTheHistory_shouldStartWithReset() {
+        for (int id = 0; id < TaskEventFeed.HISTORY_SIZE + 10; id++) {
+            publish(TaskEventType.INSERTED, id);
+        }
+
+        TaskEventFeed.Subscription subscription = feed.subscribe(5, () -> { });
+        publish(TaskEventType.UPDATED, 1);
+
+        List<TaskEventDTO> events = subscription.poll(10);
+        assertEquals(TaskEventType.RESET, events.get(0).getType());
+        assertEquals(TaskEventFeed.HISTORY_SIZE + 10, events.get(0).getSequence());
+        assertEquals(TaskEventFeed.HISTORY_SIZE + 11, events.get(1).getSequence());
+        assertEquals(TaskEventType.RESET, feed.subscribe(feed.currentSequence() + 1, () -> { }).poll(1).get(0).getType());
+    }
+
+    @Test
+    void publish_toASlowSubscriber_shouldCoalesceEventsOfTheSameTask() {
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+
+        publish(TaskEventType.INSERTED, 1);
+        publish(TaskEventType.INSERTED, 2);
+        publish(TaskEventType.DONE, 1);
+
+        List<TaskEventDTO> events = subscription.poll(10);
+        assertEquals(List.of(2, 1), events.stream().map(TaskEventDTO::getId).toList());
+        assertEquals(List.of(2L, 3L), events.stream().map(TaskEventDTO::getSequence).toList());
+    }
+
+    @Test
+    void publish_beyondTheSubscriberBuffer_shouldReplacePendingEventsWithReset() {
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+
+        for (int id = 0; id <= TaskEventFeed.SUBSCRIBER_BUFFER_SIZE; id++) {
+            publish(TaskEventType.INSERTED, id);
+        }
+        publish(TaskEventType.INSERTED, -1);
+
+        List<TaskEventDTO> events = subscription.poll(10);
+        assertEquals(2, events.size());
+        assertEquals(TaskEventType.RESET, events.get(0).getType());
+        assertEquals(TaskEventFeed.SUBSCRIBER_BUFFER_SIZE + 1, events.get(0).getSequence());
+        assertEquals(-1, events.get(1).getId());
+    }
+
+    @Test
+    void publish_whenTheTaskIsGone_shouldPublishDeleted() {
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+
+        feed.publish(TaskEventType.UPDATED, 7, () -> null);
+
+        TaskEventDTO event = subscription.poll(1).get(0);
+        assertEquals(TaskEventType.DELETED, event.getType());
+        assertNull(event.getTask());
+    }
+
+    @Test
+    void publish_fromAChangeNothingOverlapped_shouldNotReadTheTaskAgain() {
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+        Task written = new Task(1, "Written", null, null, null, null, Priority.LOW, false);
+
+        try (TaskEventFeed.Change change = feed.beginChange()) {
+            feed.publish(change, TaskEventType.INSERTED, 1, written, () -> fail("read again"));
+        }
+
+        assertSame(written, subscription.poll(1).get(0).getTask());
+    }
+
+    // the second change may have written the task after the first and published before it, so the first can only
+    // trust what it reads back
+    @Test
+    void publish_fromOverlappingChanges_shouldReadTheTaskAgain() {
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+        Task first = new Task(1, "First", null, null, null, null, Priority.LOW, false);
+        Task second = new Task(1, "Second", null, null, null, null, Priority.LOW, false);
+
+        try (TaskEventFeed.Change firstChange = feed.beginChange()) {
+            try (TaskEventFeed.Change secondChange = feed.beginChange()) {
+                feed.publish(secondChange, TaskEventType.UPDATED, 1, second, () -> second);
+            }
+            assertSame(second, subscription.poll(1).get(0).getTask());
+            feed.publish(firstChange, TaskEventType.UPDATED, 1, first, () -> second);
+        }
+
+        assertSame(second, subscription.poll(1).get(0).getTask());
+    }
+
+    @Test
+    void subscribe_withSender_shouldPushEveryEventUntilTheSenderFails() throws InterruptedException {
+        List<Long> sent = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch failed = new CountDownLatch(1);
+        publish(TaskEventType.INSERTED, 1);
+        feed.subscribe(0, event -> {
+            sent.add(event.getSequence());
+            if (event.getSequence() == 50) {
+                failed.countDown();
+                throw new IOException("Broken pipe");
+            }
+        });
+
+        for (int id = 2; id <= 60; id++) {
+            publish(TaskEventType.INSERTED, id);
+        }
+
+        assertTrue(failed.await(10, TimeUnit.SECONDS));
+        List<Long> expected = new ArrayList<>();
+        for (long sequence = 1; sequence <= 50; sequence++) {
+            expected.add(sequence);
+        }
+        assertEquals(expected, sent.subList(0, 50));
+    }
+}
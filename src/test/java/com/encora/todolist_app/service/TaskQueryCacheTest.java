@@ -0,0 +1,61 @@
+package com.encora.todolist_app.service;
+
+import com.encora.todolist_app.models.Priority;
+import com.encora.todolist_app.models.QueryCacheStatsDTO;
+import com.encora.todolist_app.models.Task;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TaskQueryCacheTest {
+
+    private final Page<Task> page = new PageImpl<>(List.of(new Task(1, "Task 1", null, null, null, null, Priority.LOW, false)));
+
+    @Test
+    void get_shouldKeyByFiltersAndPageable() {
+        TaskQueryCache cache = new TaskQueryCache(100);
+        PageRequest byUrgency = PageRequest.of(0, 10, Sort.by("urgency"));
+
+        cache.get(false, null, null, byUrgency, 1, () -> page);
+        cache.get(false, null, null, PageRequest.of(0, 10, Sort.by("urgency")), 1, () -> fail("should be cached"));
+        cache.get(true, null, null, byUrgency, 1, () -> page);
+        cache.get(false, "HIGH", null, byUrgency, 1, () -> page);
+        cache.get(false, null, null, PageRequest.of(1, 10, Sort.by("urgency")), 1, () -> page);
+
+        QueryCacheStatsDTO stats = cache.stats();
+        assertEquals(1, stats.getHits());
+        assertEquals(4, stats.getMisses());
+        assertEquals(4, stats.getSize());
+    }
+
+    @Test
+    void get_shouldNotReplaceANewerPageWithAnOlderOne() {
+        TaskQueryCache cache = new TaskQueryCache(100);
+        PageRequest pageable = PageRequest.of(0, 10);
+        Page<Task> newer = new PageImpl<>(List.of());
+
+        cache.get(null, null, null, pageable, 2, () -> newer);
+        // a read that started before the change finishes after it
+        assertSame(page, cache.get(null, null, null, pageable, 1, () -> page));
+
+        assertSame(newer, cache.get(null, null, null, pageable, 2, () -> fail("should be cached")));
+    }
+
+    @Test
+    void stats_shouldCountEvictionsOnceTheCacheIsFull() {
+        TaskQueryCache cache = new TaskQueryCache(10);
+        for (int i = 0; i < 50; i++) {
+            cache.get(null, null, "text " + i, PageRequest.of(0, 10), 1, () -> page);
+        }
+
+        QueryCacheStatsDTO stats = cache.stats();
+        assertTrue(stats.getSize() <= 10);
+        assertEquals(50 - stats.getSize(), stats.getEvictions());
+    }
+}
@@ -3,12 +3,17 @@ package com.encora.todolist_app.service;
 import com.encora.todolist_app.models.Priority;
 import com.encora.todolist_app.models.StateTaskDTO;
 import com.encora.todolist_app.models.Task;
+import com.encora.todolist_app.models.TaskEventDTO;
+import com.encora.todolist_app.models.TaskEventType;
+import com.encora.todolist_app.repository.TaskChange;
 import com.encora.todolist_app.repository.TaskRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -22,6 +27,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -32,6 +39,12 @@ public class TaskServiceTest {
     @Mock
     private TaskRepository taskRepository;
 
+    @Mock
+    private TaskEventFeed taskEventFeed;
+
+    @Spy
+    private TaskQueryCache taskQueryCache = new TaskQueryCache(100);
+
     @InjectMocks
     private TaskService taskService;
 
@@ -71,6 +84,23 @@ public class TaskServiceTest {
         verify(taskRepository, times(1)).findAllByStateAndPriorityAndText(null, null, null,pageable);
     }
 
+    @Test
+    void getAllTasks_shouldServeRepeatedQueriesFromTheCacheUntilTheVersionChanges() {
+        Page<Task> taskPage = new PageImpl<>(Collections.singletonList(task1), pageable, 1);
+        when(taskRepository.findAllByStateAndPriorityAndText(false, null, null, pageable)).thenReturn(taskPage);
+        when(taskRepository.version()).thenReturn(4L);
+
+        taskService.getAllTasks(false, null, null, pageable);
+        assertSame(taskPage, taskService.getAllTasks(false, null, null, pageable));
+        verify(taskRepository, times(1)).findAllByStateAndPriorityAndText(false, null, null, pageable);
+
+        when(taskRepository.version()).thenReturn(5L);
+        taskService.getAllTasks(false, null, null, pageable);
+        verify(taskRepository, times(2)).findAllByStateAndPriorityAndText(false, null, null, pageable);
+        assertEquals(1, taskService.queryCacheStats().getHits());
+        assertEquals(2, taskService.queryCacheStats().getMisses());
+    }
+
     @Test
     void addTask_shouldCallSaveRepositoryAndReturnSavedTask() {
         Task newTask = new Task(null, "New Task", null,null, null, null, Priority.LOW, false);
@@ -83,13 +113,41 @@ public class TaskServiceTest {
         assertEquals(3, result.getId());
         assertEquals("New Task", result.getText());
         verify(taskRepository, times(1)).save(newTask);
+        verify(taskEventFeed, times(1)).publish(any(), eq(TaskEventType.INSERTED), eq(3), any(), any());
+    }
+
+    @Test
+    void addTasks_shouldSaveTheBatchAndCountOnlySavedTasks() {
+        List<Task> batch = List.of(new Task(null, "A", null, null, null, null, Priority.LOW, false), new Task(1, "B", null, null, null, null, Priority.LOW, false));
+        Task saved = new Task(5, "A", now.minusHours(1), null, now, Duration.ofHours(1), Priority.LOW, true);
+        when(taskRepository.saveAll(batch)).thenReturn(List.of(saved));
+
+        assertEquals(1, taskService.addTasks(batch));
+        assertEquals(Duration.ofHours(1), taskService.avgTimesAllTask().get("AvgTotalTime"));
+        verify(taskRepository, never()).save(any());
+    }
+
+    // with no other change in between, the events carry the tasks the batch wrote instead of reading each one back
+    @Test
+    void addTasks_shouldPublishTheSavedTasksWithoutReadingThemBack() {
+        TaskEventFeed feed = new TaskEventFeed();
+        TaskService service = new TaskService(taskRepository, feed, taskQueryCache);
+        TaskEventFeed.Subscription subscription = feed.subscribe(0, () -> { });
+        List<Task> saved = List.of(new Task(5, "A", now, null, null, null, Priority.LOW, false), new Task(6, "B", now, null, null, null, Priority.LOW, false));
+        when(taskRepository.saveAll(any())).thenReturn(saved);
+
+        assertEquals(2, service.addTasks(List.of(new Task(), new Task())));
+
+        assertEquals(saved, subscription.poll(10).stream().map(TaskEventDTO::getTask).toList());
+        verify(taskRepository, never()).findById(any());
+        feed.close();
     }
 
     @Test
     void updateTask_shouldCallFindByIdAndReplaceTaskRepositoryAndReturnUpdatedTaskIfExists() {
         Task updatedTask = new Task(1, "Updated Task 1", now,now.plusHours(2), null, null, Priority.HIGH, true);
         when(taskRepository.findById(1)).thenReturn(Optional.of(task1));
-        when(taskRepository.replaceTask(1, updatedTask)).thenReturn(updatedTask);
+        when(taskRepository.replaceTask(1, task1, updatedTask)).thenReturn(true);
 
         Task result = taskService.updateTask(1, updatedTask);
 
@@ -98,7 +156,22 @@ public class TaskServiceTest {
         assertEquals("Updated Task 1", result.getText());
         assertTrue(result.isState());
         verify(taskRepository, times(1)).findById(1);
-        verify(taskRepository, times(1)).replaceTask(1, updatedTask);
+        verify(taskRepository, times(1)).replaceTask(1, task1, updatedTask);
+    }
+
+    @Test
+    void updateTask_shouldRetryWhenTaskChangedConcurrently() {
+        Task updatedTask = new Task(1, "Updated Task 1", now,now.plusHours(2), null, null, Priority.HIGH, false);
+        Task concurrentlyChanged = new Task(task1);
+        concurrentlyChanged.setText("Changed meanwhile");
+        when(taskRepository.findById(1)).thenReturn(Optional.of(task1), Optional.of(concurrentlyChanged));
+        when(taskRepository.replaceTask(1, task1, updatedTask)).thenReturn(false);
+        when(taskRepository.replaceTask(1, concurrentlyChanged, updatedTask)).thenReturn(true);
+
+        Task result = taskService.updateTask(1, updatedTask);
+
+        assertEquals(updatedTask, result);
+        verify(taskRepository, times(2)).findById(1);
     }
 
     @Test
@@ -110,7 +183,7 @@ public class TaskServiceTest {
 
         assertNull(result);
         verify(taskRepository, times(1)).findById(1);
-        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class));
+        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class), any(Task.class));
     }
 
     @Test
@@ -120,7 +193,18 @@ public class TaskServiceTest {
     }
 
     @Test
-    void avgTimesAllTask_shouldCallGetAllTaskRepositoryAndCalculateAverageTimes() {
+    void deleteTask_shouldOnlyPublishWhenATaskWasDeleted() {
+        when(taskRepository.deleteById(2)).thenReturn(task2);
+
+        taskService.deleteTask(1);
+        taskService.deleteTask(2);
+
+        verify(taskEventFeed, times(1)).publish(any(), eq(TaskEventType.DELETED), anyInt(), any(), any());
+        verify(taskEventFeed).publish(any(), eq(TaskEventType.DELETED), eq(2), any(), any());
+    }
+
+    @Test
+    void avgTimesAllTask_shouldCalculateAverageTimesFromTasksLoadedAtStartup() {
         LocalDateTime now = LocalDateTime.now();
         List<Task> allTasks = Arrays.asList(
                 new Task(1, "Task A", now,null, now.plusHours(1), Duration.ofHours(1), Priority.LOW, true),
@@ -129,8 +213,9 @@ public class TaskServiceTest {
                 new Task(4, "Task D", now.minusHours(3),null, null, null, Priority.LOW, false) // Not done
         );
         when(taskRepository.getAllTask()).thenReturn(allTasks);
+        clearInvocations(taskRepository);
 
-        Map<String, Duration> avgTimes = taskService.avgTimesAllTask();
+        Map<String, Duration> avgTimes = new TaskService(taskRepository, taskEventFeed, taskQueryCache).avgTimesAllTask();
 
         assertNotNull(avgTimes);
         assertEquals(Duration.ofMinutes(130), avgTimes.get("AvgTotalTime")); // (60 + 180 + 150) / 3 = 130. Incorrect calculation in previous response.
@@ -145,10 +230,30 @@ public class TaskServiceTest {
     void avgTimesAllTask_shouldReturnNullIfNoDoneTasks() {
         when(taskRepository.getAllTask()).thenReturn(Collections.singletonList(task1)); // Task 1 is not done
 
-        Map<String, Duration> avgTimes = taskService.avgTimesAllTask();
+        Map<String, Duration> avgTimes = new TaskService(taskRepository, taskEventFeed, taskQueryCache).avgTimesAllTask();
 
         assertNull(avgTimes);
-        verify(taskRepository, times(1)).getAllTask();
+    }
+
+    @Test
+    void avgTimesAllTask_shouldFollowDoneUndoneAndDeleteWithoutScanning() {
+        clearInvocations(taskRepository);
+        Task pending = new Task(5, "Task E", now.minusMinutes(30), null, null, null, Priority.MEDIUM, false);
+        when(taskRepository.findById(5)).thenReturn(Optional.of(pending));
+        when(taskRepository.replaceTask(eq(5), eq(pending), any(Task.class))).thenReturn(true);
+
+        taskService.updateStatusDoneTask(5);
+        Map<String, Duration> avgTimes = taskService.avgTimesAllTask();
+        assertEquals(Duration.ofMinutes(30), truncateToMinutes(avgTimes.get("AvgTotalTime")));
+        assertEquals(Duration.ofMinutes(30), truncateToMinutes(avgTimes.get("avgTimeMediumPriority")));
+        assertEquals(Duration.ZERO, avgTimes.get("avgTimeHighPriority"));
+
+        when(taskRepository.deleteById(2)).thenReturn(task2);
+        taskService.deleteTask(2);
+        taskService.updateStatusUndoneTask(5);
+        assertNull(taskService.avgTimesAllTask());
+
+        verify(taskRepository, never()).getAllTask();
     }
 
     @Test
@@ -156,18 +261,21 @@ public class TaskServiceTest {
         LocalDateTime now = LocalDateTime.now();
         Task taskToUpdate = new Task(1, "Task To Done", now.minusMinutes(30),null, null, null, Priority.LOW, false);
         when(taskRepository.findById(1)).thenReturn(Optional.of(taskToUpdate));
-        when(taskRepository.replaceTask(eq(1), any(Task.class))).thenAnswer(invocation -> invocation.getArgument(1));
+        when(taskRepository.replaceTask(eq(1), eq(taskToUpdate), any(Task.class))).thenReturn(true);
 
         StateTaskDTO result = taskService.updateStatusDoneTask(1);
 
         assertNotNull(result);
         assertEquals(1, result.getId());
         assertTrue(result.isStatus());
-        assertNotNull(taskToUpdate.getDoneDate());
-        Duration duration = Duration.ofSeconds(125, 500_000_000);
-        assertEquals(Duration.ofMinutes(30), truncateToMinutes(taskToUpdate.getTimeFrame()));
+        ArgumentCaptor<Task> replacement = ArgumentCaptor.forClass(Task.class);
         verify(taskRepository, times(1)).findById(1);
-        verify(taskRepository, times(1)).replaceTask(eq(1), any(Task.class));
+        verify(taskRepository, times(1)).replaceTask(eq(1), eq(taskToUpdate), replacement.capture());
+        assertTrue(replacement.getValue().isState());
+        assertNotNull(replacement.getValue().getDoneDate());
+        assertEquals(Duration.ofMinutes(30), truncateToMinutes(replacement.getValue().getTimeFrame()));
+        assertFalse(taskToUpdate.isState());
+        verify(taskEventFeed, times(1)).publish(any(), eq(TaskEventType.DONE), eq(1), any(), any());
     }
     public static Duration truncateToMinutes(Duration duration) {
         long totalMinutes = duration.toMinutes();
@@ -183,23 +291,25 @@ public class TaskServiceTest {
 
         assertNull(result);
         verify(taskRepository, times(1)).findById(1);
-        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class));
+        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class), any(Task.class));
     }
 
     @Test
     void updateStatusUndoneTask_shouldCallFindByIdAndReplaceTaskRepositoryAndUpdateStateAndClearTimes() {
         when(taskRepository.findById(2)).thenReturn(Optional.of(task2));
-        when(taskRepository.replaceTask(eq(2), any(Task.class))).thenAnswer(invocation -> invocation.getArgument(1));
+        when(taskRepository.replaceTask(eq(2), eq(task2), any(Task.class))).thenReturn(true);
 
         StateTaskDTO result = taskService.updateStatusUndoneTask(2);
 
         assertNotNull(result);
         assertEquals(2, result.getId());
         assertFalse(result.isStatus());
-        assertNull(task2.getDoneDate());
-        assertNull(task2.getTimeFrame());
+        ArgumentCaptor<Task> replacement = ArgumentCaptor.forClass(Task.class);
         verify(taskRepository, times(1)).findById(2);
-        verify(taskRepository, times(1)).replaceTask(eq(2), any(Task.class));
+        verify(taskRepository, times(1)).replaceTask(eq(2), eq(task2), replacement.capture());
+        assertFalse(replacement.getValue().isState());
+        assertNull(replacement.getValue().getDoneDate());
+        assertNull(replacement.getValue().getTimeFrame());
     }
 
     @Test
@@ -210,6 +320,44 @@ public class TaskServiceTest {
 
         assertNull(result);
         verify(taskRepository, times(1)).findById(1);
-        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class));
+        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class), any(Task.class));
+    }
+
+    @Test
+    void updateStatusTasks_shouldMarkAllIdsDoneWithOneDateAndSkipDoneTasks() {
+        clearInvocations(taskRepository);
+        Task pending = new Task(3, "Task C", now.minusMinutes(30), null, null, null, Priority.LOW, false);
+        Task other = new Task(4, "Task D", now.minusMinutes(10), null, null, null, Priority.LOW, false);
+        when(taskRepository.updateAll(eq(List.of(3, 4, 2)), any())).thenAnswer(invocation -> {
+            UnaryOperator<Task> change = invocation.getArgument(1);
+            return Stream.of(pending, other, task2).map(task -> new TaskChange(task, change.apply(task))).toList();
+        });
+
+        List<StateTaskDTO> result = taskService.updateStatusTasks(List.of(3, 4, 3, 2), null, null, null, true);
+
+        assertEquals(List.of(3, 4, 2), result.stream().map(StateTaskDTO::getId).toList());
+        assertTrue(result.stream().allMatch(StateTaskDTO::isStatus));
+        ArgumentCaptor<UnaryOperator<Task>> change = ArgumentCaptor.forClass(UnaryOperator.class);
+        verify(taskRepository).updateAll(eq(List.of(3, 4, 2)), change.capture());
+        assertSame(task2, change.getValue().apply(task2));
+        assertEquals(change.getValue().apply(pending).getDoneDate(), change.getValue().apply(other).getDoneDate());
+        assertFalse(pending.isState());
+        verify(taskRepository, never()).replaceTask(anyInt(), any(Task.class), any(Task.class));
+        assertEquals(Duration.ofMinutes(20), truncateToMinutes(taskService.avgTimesAllTask().get("avgTimeLowPriority")));
+    }
+
+    @Test
+    void updateStatusTasks_withoutIds_shouldUpdateByFilter() {
+        when(taskRepository.updateAllByStateAndPriorityAndText(eq(true), eq("high"), eq("task"), any())).thenAnswer(invocation -> {
+            UnaryOperator<Task> change = invocation.getArgument(3);
+            return List.of(new TaskChange(task2, change.apply(task2)));
+        });
+
+        List<StateTaskDTO> result = taskService.updateStatusTasks(null, true, "high", "task", false);
+
+        assertEquals(1, result.size());
+        assertEquals(2, result.get(0).getId());
+        assertFalse(result.get(0).isStatus());
+        verify(taskRepository, never()).updateAll(any(), any());
     }
-}
\ No newline at end of file
+}
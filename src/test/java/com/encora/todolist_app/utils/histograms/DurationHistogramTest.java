@@ -0,0 +1,59 @@
+package com.encora.todolist_app.utils.histograms;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DurationHistogramTest {
+
+    @Test
+    void getValueAtPercentile_shouldStayWithinBucketPrecisionOfExactPercentile() {
+        Random random = new Random(3);
+        DurationHistogram histogram = new DurationHistogram();
+        long[] values = new long[50_000];
+        for (int i = 0; i < values.length; i++) {
+            // log-uniform between one second and roughly eleven days
+            values[i] = (long) Math.pow(10, 9 + random.nextDouble() * 6);
+            histogram.record(Duration.ofNanos(values[i]));
+        }
+        Arrays.sort(values);
+
+        for (double percentile : new double[]{50, 90, 99, 99.9}) {
+            long exact = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+            long estimate = histogram.getValueAtPercentile(percentile).toNanos();
+            assertEquals(exact, estimate, exact / 64.0, "p" + percentile);
+        }
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    void remove_shouldTakeValuesOutOfTheDistribution() {
+        DurationHistogram histogram = new DurationHistogram();
+        histogram.record(Duration.ofMinutes(1));
+        histogram.record(Duration.ofHours(10));
+        histogram.remove(Duration.ofHours(10));
+
+        assertEquals(1, histogram.getCount());
+        assertEquals(Duration.ofMinutes(1).toNanos(), histogram.getValueAtPercentile(99).toNanos(), Duration.ofMinutes(1).toNanos() / 64.0);
+    }
+
+    @Test
+    void indexOf_shouldBeMonotonicAndCoverTheWholeRange() {
+        int previous = -1;
+        for (long nanos = 0; nanos < 10_000; nanos++) {
+            int index = DurationHistogram.indexOf(nanos);
+            assertTrue(index == previous || index == previous + 1);
+            previous = index;
+        }
+        assertTrue(DurationHistogram.medianOf(DurationHistogram.indexOf(Long.MAX_VALUE)) > 0);
+    }
+
+    @Test
+    void getValueAtPercentile_withoutValues_shouldReturnZero() {
+        assertEquals(Duration.ZERO, new DurationHistogram().getValueAtPercentile(50));
+    }
+}